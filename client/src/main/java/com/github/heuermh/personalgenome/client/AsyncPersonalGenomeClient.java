@@ -0,0 +1,203 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Asynchronous personal genome API client.
+ *
+ * <p>Each method returns immediately with a future for the result of the same method on {@link PersonalGenomeClient},
+ * so calls for a profile may run concurrently.  A future fails with the exception the blocking method would
+ * throw, e.g. {@link AccessDeniedException}, wrapped in an <code>ExecutionException</code>.</p>
+ */
+public interface AsyncPersonalGenomeClient {
+
+    /**
+     * Return a future for the current user.
+     *
+     * @see PersonalGenomeClient#user()
+     * @return a future for the current user
+     */
+    ListenableFuture<User> user();
+
+    /**
+     * Return a future for the first and last names of the current user and specified profile.
+     *
+     * @see PersonalGenomeClient#names(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for the first and last names of the current user and specified profile
+     */
+    ListenableFuture<UserName> names(String profileId);
+
+    /**
+     * Return a future for the haplogroups for the specified profile.
+     *
+     * @see PersonalGenomeClient#haplogroups(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for the haplogroups for the specified profile
+     */
+    ListenableFuture<Haplogroup> haplogroups(String profileId);
+
+    /**
+     * Return a future for the genotypes for the specified profile and locations.
+     *
+     * @see PersonalGenomeClient#genotypes(String, String[])
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @param locations locations, must not be null and must not contain null locations
+     * @return a future for the genotypes for the specified profile and locations
+     */
+    ListenableFuture<Genotype> genotypes(String profileId, String... locations);
+
+    /**
+     * Return a future for the genotypes for the specified profile and locations.
+     *
+     * @see PersonalGenomeClient#genotypes(String, Iterable)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @param locations locations, must not be null and must not contain null locations
+     * @return a future for the genotypes for the specified profile and locations
+     */
+    ListenableFuture<Genotype> genotypes(String profileId, Iterable<String> locations);
+
+    /**
+     * Return a future for the genome for the specified profile.
+     *
+     * @see PersonalGenomeClient#genome(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for the genome for the specified profile
+     */
+    ListenableFuture<Genome> genome(String profileId);
+
+    /**
+     * Return a future for the genome for the specified profile packed into six bit codes per call.  If the
+     * underlying client is not a {@link PackedGenomeClient}, the genome it returns is packed.
+     *
+     * @see PackedGenomeClient#packedGenome(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for the genome for the specified profile packed into six bit codes per call
+     */
+    ListenableFuture<PackedGenome> packedGenome(String profileId);
+
+    /**
+     * Return a future for the ancestral background for the specified profile.
+     *
+     * @see PersonalGenomeClient#ancestry(String, double)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @param threshold threshold, must be in the range <code>(0.5, 1.0)</code>, exclusive
+     * @return a future for the ancestral background for the specified profile
+     */
+    ListenableFuture<Ancestry> ancestry(String profileId, double threshold);
+
+    /**
+     * Return a future for the estimated genome-wide proportion of Neanderthal ancestry for the specified profile.
+     *
+     * @see PersonalGenomeClient#neanderthalProportion(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for the estimated genome-wide proportion of Neanderthal ancestry for the specified profile
+     */
+    ListenableFuture<Double> neanderthalProportion(String profileId);
+
+    /**
+     * Return a future for an iterator over the relatives for the specified profile.
+     *
+     * @see PersonalGenomeClient#relatives(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for an iterator over the relatives for the specified profile
+     */
+    ListenableFuture<Iterator<Relative>> relatives(String profileId);
+
+    /**
+     * Return a future for up to the specified limit of relatives for the specified profile, starting from the specified offset.
+     *
+     * @see PersonalGenomeClient#relatives(String, int, int)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @param offset offset
+     * @param limit limit
+     * @return a future for up to the specified limit of relatives for the specified profile, starting from the specified offset
+     */
+    ListenableFuture<List<Relative>> relatives(String profileId, int offset, int limit);
+
+    /**
+     * Return a future for the risks for the specified profile.
+     *
+     * @see PersonalGenomeClient#risks(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for the risks for the specified profile
+     */
+    ListenableFuture<List<Risk>> risks(String profileId);
+
+    /**
+     * Return a future for the carriers for the specified profile.
+     *
+     * @see PersonalGenomeClient#carriers(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for the carriers for the specified profile
+     */
+    ListenableFuture<List<Carrier>> carriers(String profileId);
+
+    /**
+     * Return a future for the drug responses for the specified profile.
+     *
+     * @see PersonalGenomeClient#drugResponses(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for the drug responses for the specified profile
+     */
+    ListenableFuture<List<DrugResponse>> drugResponses(String profileId);
+
+    /**
+     * Return a future for the traits for the specified profile.
+     *
+     * @see PersonalGenomeClient#traits(String)
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return a future for the traits for the specified profile
+     */
+    ListenableFuture<List<Trait>> traits(String profileId);
+
+    /**
+     * Return a future for a snapshot of the results of the specified calls for the specified profile.  The
+     * calls run concurrently, and a failed call is reported in the snapshot rather than failing
+     * the future.  {@link Call#ANCESTRY} is fetched with a threshold of <code>0.9</code>.
+     *
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @param calls calls to fetch, must not be null and must only contain calls in {@link ProfileSnapshot#CALLS}
+     * @return a future for a snapshot of the results of the specified calls for the specified profile
+     */
+    ListenableFuture<ProfileSnapshot> fetchAll(String profileId, Set<Call> calls);
+
+    /**
+     * Return a future for a snapshot of the results of the specified calls for the specified profile.  The
+     * calls run concurrently, and a failed call is reported in the snapshot rather than failing
+     * the future.  {@link Call#ANCESTRY} is fetched with the specified threshold.
+     *
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @param calls calls to fetch, must not be null and must only contain calls in {@link ProfileSnapshot#CALLS}
+     * @param threshold ancestry threshold, must be in the range <code>(0.5, 1.0)</code>, exclusive
+     * @return a future for a snapshot of the results of the specified calls for the specified profile
+     */
+    ListenableFuture<ProfileSnapshot> fetchAll(String profileId, Set<Call> calls, double threshold);
+}
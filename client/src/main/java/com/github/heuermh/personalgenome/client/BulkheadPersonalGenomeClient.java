@@ -0,0 +1,194 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Personal genome API client decorator that runs each group of calls on its own bounded executor service,
+ * so that heavy traffic on one group does not hold up the others.
+ *
+ * <p>
+ * The caller waits for each call to complete.  By default, genome and packed genome calls, which download
+ * megabytes each, run on one executor service, and all other calls on another, each with a bounded queue
+ * and aborting when full.  A call rejected by its executor service fails with a
+ * {@link java.util.concurrent.RejectedExecutionException}, unless the executor service's rejected execution
+ * handler runs it on the calling thread.  Handlers that silently discard calls must not be used, since the
+ * caller would wait forever.
+ * </p>
+ */
+@ThreadSafe
+public final class BulkheadPersonalGenomeClient extends InterceptingPersonalGenomeClient {
+    private final Map<Call, ExecutorService> executorServices;
+    /** Calls in the bulk group by default. */
+    static final Set<Call> BULK_CALLS = Sets.immutableEnumSet(Call.GENOME, Call.PACKED_GENOME);
+    /** Default number of threads for the bulk group. */
+    static final int DEFAULT_BULK_THREADS = 4;
+    /** Default queue limit for the bulk group. */
+    static final int DEFAULT_BULK_QUEUE_LIMIT = 16;
+    /** Default number of threads for the metadata group. */
+    static final int DEFAULT_METADATA_THREADS = 16;
+    /** Default queue limit for the metadata group. */
+    static final int DEFAULT_METADATA_QUEUE_LIMIT = 256;
+
+
+    /**
+     * Create a new bulkhead personal genome API client with default bulk and metadata executor services.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     */
+    public BulkheadPersonalGenomeClient(final PersonalGenomeClient delegate) {
+        this(delegate, createExecutorServices());
+    }
+
+    /**
+     * Create a new bulkhead personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param executorServices executor service per call, must not be null, calls without an executor service
+     *    run on the calling thread
+     */
+    public BulkheadPersonalGenomeClient(final PersonalGenomeClient delegate, final Map<Call, ExecutorService> executorServices) {
+        this(delegate, executorServices, DEFAULT_PAGE_SIZE, null);
+    }
+
+    /**
+     * Create a new bulkhead personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param executorServices executor service per call, must not be null, calls without an executor service
+     *    run on the calling thread
+     * @param pageSize number of relatives per page for {@link #relatives(String)}, must be at least one
+     * @param executorService executor service to prefetch pages of relatives on, or <code>null</code>
+     *    to fetch each page lazily on the calling thread
+     */
+    public BulkheadPersonalGenomeClient(final PersonalGenomeClient delegate,
+                                        final Map<Call, ExecutorService> executorServices,
+                                        final int pageSize,
+                                        @Nullable final ListeningExecutorService executorService) {
+        super(delegate, pageSize, executorService);
+        checkNotNull(executorServices);
+        EnumMap<Call, ExecutorService> map = new EnumMap<Call, ExecutorService>(Call.class);
+        for (Map.Entry<Call, ExecutorService> entry : executorServices.entrySet()) {
+            map.put(checkNotNull(entry.getKey()), checkNotNull(entry.getValue()));
+        }
+        this.executorServices = Maps.immutableEnumMap(map);
+    }
+
+
+    @Override
+    <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+        ExecutorService executorService = executorServices.get(invocation.getCall());
+        if (executorService == null) {
+            return supplier.get();
+        }
+        Future<T> future = executorService.submit(new Callable<T>() {
+                @Override
+                public T call() {
+                    return supplier.get();
+                }
+            });
+        try {
+            return future.get();
+        }
+        catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PersonalGenomeClientException("interrupted waiting for " + invocation.getCall() + " call");
+        }
+    }
+
+    /**
+     * Create and return a new bounded executor service with the specified number of daemon threads.
+     *
+     * @param nameFormat thread name format, must not be null
+     * @param threads number of threads, must be at least one
+     * @param queueLimit maximum number of queued calls, must be at least zero
+     * @param rejectedExecutionHandler handler for calls rejected once the queue is full, must not be null
+     *    and must not silently discard calls
+     * @return a new bounded executor service with the specified number of daemon threads
+     */
+    public static ExecutorService createExecutorService(final String nameFormat,
+                                                        final int threads,
+                                                        final int queueLimit,
+                                                        final RejectedExecutionHandler rejectedExecutionHandler) {
+        checkNotNull(nameFormat);
+        checkArgument(threads > 0, "threads must be at least one");
+        checkArgument(queueLimit >= 0, "queueLimit must be at least zero");
+        checkNotNull(rejectedExecutionHandler);
+        BlockingQueue<Runnable> queue = queueLimit == 0 ? new SynchronousQueue<Runnable>() : new ArrayBlockingQueue<Runnable>(queueLimit);
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, queue,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat(nameFormat).build(), rejectedExecutionHandler);
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    /**
+     * Create and return the default bulk and metadata executor services per call.
+     *
+     * @return the default bulk and metadata executor services per call
+     */
+    private static Map<Call, ExecutorService> createExecutorServices() {
+        ExecutorService bulk = createExecutorService("personal-genome-client-bulk-%d", DEFAULT_BULK_THREADS, DEFAULT_BULK_QUEUE_LIMIT, new ThreadPoolExecutor.AbortPolicy());
+        ExecutorService metadata = createExecutorService("personal-genome-client-metadata-%d", DEFAULT_METADATA_THREADS, DEFAULT_METADATA_QUEUE_LIMIT, new ThreadPoolExecutor.AbortPolicy());
+        ImmutableMap.Builder<Call, ExecutorService> builder = ImmutableMap.builder();
+        for (Call call : Call.values()) {
+            builder.put(call, BULK_CALLS.contains(call) ? bulk : metadata);
+        }
+        return builder.build();
+    }
+}
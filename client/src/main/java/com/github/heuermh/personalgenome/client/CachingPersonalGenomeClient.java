@@ -0,0 +1,278 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Personal genome API client decorator that caches results per call for a time-to-live, within
+ * a maximum total weight.
+ *
+ * <p>
+ * Results are keyed by call, profile id, and parameters.  Each result is weighed by its approximate
+ * size in bytes, so a genome weighs far more than a list of names, and the least recently used results
+ * are evicted once the maximum weight is exceeded.  Concurrent misses for the same key share one call
+ * to the delegate.  Calls without a time-to-live are not cached.
+ * </p>
+ */
+@ThreadSafe
+public final class CachingPersonalGenomeClient extends InterceptingPersonalGenomeClient {
+    private final Map<Call, Long> ttls;
+    private final Cache<Invocation, Entry> cache;
+    /** Default time-to-live in milliseconds per call. */
+    static final Map<Call, Long> DEFAULT_TTLS = ImmutableMap.<Call, Long>builder()
+        .put(Call.USER, TimeUnit.MINUTES.toMillis(5L))
+        .put(Call.NAMES, TimeUnit.MINUTES.toMillis(5L))
+        .put(Call.HAPLOGROUPS, TimeUnit.DAYS.toMillis(1L))
+        .put(Call.GENOME, TimeUnit.DAYS.toMillis(1L))
+        .put(Call.PACKED_GENOME, TimeUnit.DAYS.toMillis(1L))
+        .put(Call.ANCESTRY, TimeUnit.DAYS.toMillis(1L))
+        .put(Call.NEANDERTHAL_PROPORTION, TimeUnit.DAYS.toMillis(1L))
+        .build();
+    /** Default maximum total weight, in approximate bytes. */
+    static final long DEFAULT_MAXIMUM_WEIGHT = 256L * 1024L * 1024L;
+
+
+    /**
+     * Create a new caching personal genome API client with default times-to-live and maximum weight.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     */
+    public CachingPersonalGenomeClient(final PersonalGenomeClient delegate) {
+        this(delegate, DEFAULT_TTLS, DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * Create a new caching personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param ttls time-to-live in milliseconds per call, must not be null, calls without a time-to-live
+     *    are not cached
+     * @param maximumWeight maximum total weight, in approximate bytes, must be at least zero
+     */
+    public CachingPersonalGenomeClient(final PersonalGenomeClient delegate, final Map<Call, Long> ttls, final long maximumWeight) {
+        this(delegate, ttls, maximumWeight, DEFAULT_PAGE_SIZE, null);
+    }
+
+    /**
+     * Create a new caching personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param ttls time-to-live in milliseconds per call, must not be null, calls without a time-to-live
+     *    are not cached
+     * @param maximumWeight maximum total weight, in approximate bytes, must be at least zero
+     * @param pageSize number of relatives per page for {@link #relatives(String)}, must be at least one
+     * @param executorService executor service to prefetch pages of relatives on, or <code>null</code>
+     *    to fetch each page lazily on the calling thread
+     */
+    public CachingPersonalGenomeClient(final PersonalGenomeClient delegate,
+                                       final Map<Call, Long> ttls,
+                                       final long maximumWeight,
+                                       final int pageSize,
+                                       @Nullable final ListeningExecutorService executorService) {
+        super(delegate, pageSize, executorService);
+        checkNotNull(ttls);
+        checkArgument(maximumWeight >= 0L, "maximumWeight must be at least zero");
+
+        EnumMap<Call, Long> ttlsCopy = new EnumMap<Call, Long>(Call.class);
+        long maximumTtl = 0L;
+        for (Map.Entry<Call, Long> entry : ttls.entrySet()) {
+            Call call = checkNotNull(entry.getKey());
+            long ttl = checkNotNull(entry.getValue());
+            checkArgument(ttl > 0L, "ttl for %s must be greater than zero", call);
+            ttlsCopy.put(call, ttl);
+            maximumTtl = Math.max(maximumTtl, ttl);
+        }
+        this.ttls = Maps.immutableEnumMap(ttlsCopy);
+        // a single segment keeps the weight bound and least recently used order exact across all results
+        cache = CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumWeight(maximumWeight)
+            .weigher(new Weigher<Invocation, Entry>() {
+                    @Override
+                    public int weigh(final Invocation invocation, final Entry entry) {
+                        return entry.weight;
+                    }
+                })
+            .expireAfterWrite(Math.max(1L, maximumTtl), TimeUnit.MILLISECONDS)
+            .recordStats()
+            .build();
+    }
+
+
+    @Override
+    <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+        final Long ttl = ttls.get(invocation.getCall());
+        if (ttl == null) {
+            return supplier.get();
+        }
+        try {
+            while (true) {
+                Entry entry = cache.get(invocation, new Callable<Entry>() {
+                        @Override
+                        public Entry call() {
+                            return new Entry(supplier.get(), System.currentTimeMillis() + ttl);
+                        }
+                    });
+                if (entry.value == null) {
+                    cache.asMap().remove(invocation, entry);
+                }
+                else if (entry.isExpired()) {
+                    cache.asMap().remove(invocation, entry);
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                T value = (T) entry.value;
+                return value;
+            }
+        }
+        catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        catch (ExecutionError e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Return the cached result for the specified invocation, if present and not expired.
+     *
+     * @param invocation invocation
+     * @return the cached result for the specified invocation, or <code>null</code> if none is present
+     */
+    <T> T getIfPresent(final Invocation invocation) {
+        Entry entry = cache.getIfPresent(invocation);
+        if (entry == null || entry.isExpired()) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) entry.value;
+        return value;
+    }
+
+    /**
+     * Return the hit, miss, and eviction statistics for this caching personal genome API client.
+     *
+     * @return the hit, miss, and eviction statistics for this caching personal genome API client
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Return the approximate number of cached results.
+     *
+     * @return the approximate number of cached results
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Discard all cached results.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Return the approximate size in bytes of the specified result.
+     *
+     * @param value result
+     * @return the approximate size in bytes of the specified result
+     */
+    static int weigh(final Object value) {
+        long weight = 64L;
+        if (value instanceof Genome) {
+            weight += 2L * ((Genome) value).getValues().length();
+        }
+        else if (value instanceof PackedGenome) {
+            weight += 8L * ((((PackedGenome) value).length() / 2) / 10 + 1);
+        }
+        else if (value instanceof Genotype) {
+            weight += 16L * ((Genotype) value).size();
+        }
+        else if (value instanceof List) {
+            weight += 256L * ((List<?>) value).size();
+        }
+        else if (!(value instanceof Number)) {
+            weight += 256L;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+
+    /**
+     * Cached result with expiry time.
+     */
+    private static final class Entry {
+        private final Object value;
+        private final long expires;
+        private final int weight;
+
+
+        Entry(final Object value, final long expires) {
+            this.value = value instanceof List ? ImmutableList.copyOf((List<?>) value) : value;
+            this.expires = expires;
+            this.weight = value == null ? 0 : weigh(value);
+        }
+
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+    }
+}
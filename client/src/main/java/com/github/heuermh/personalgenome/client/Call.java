@@ -0,0 +1,71 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+/**
+ * Personal genome API client call, one per endpoint.
+ */
+public enum Call {
+    /** User, see {@link PersonalGenomeClient#user()}. */
+    USER,
+
+    /** First and last names, see {@link PersonalGenomeClient#names(String)}. */
+    NAMES,
+
+    /** Haplogroups, see {@link PersonalGenomeClient#haplogroups(String)}. */
+    HAPLOGROUPS,
+
+    /** Genotypes, see {@link PersonalGenomeClient#genotypes(String, Iterable)}. */
+    GENOTYPES,
+
+    /** Genome, see {@link PersonalGenomeClient#genome(String)}. */
+    GENOME,
+
+    /** Packed genome, see {@link PackedGenomeClient#packedGenome(String)}. */
+    PACKED_GENOME,
+
+    /** Ancestry, see {@link PersonalGenomeClient#ancestry(String, double)}. */
+    ANCESTRY,
+
+    /** Neanderthal proportion, see {@link PersonalGenomeClient#neanderthalProportion(String)}. */
+    NEANDERTHAL_PROPORTION,
+
+    /**
+     * Page of relatives, see {@link PersonalGenomeClient#relatives(String, int, int)}; all relatives in a
+     * {@link ProfileSnapshot}, see {@link PersonalGenomeClient#relatives(String)}.
+     */
+    RELATIVES,
+
+    /** Risks, see {@link PersonalGenomeClient#risks(String)}. */
+    RISKS,
+
+    /** Carriers, see {@link PersonalGenomeClient#carriers(String)}. */
+    CARRIERS,
+
+    /** Drug responses, see {@link PersonalGenomeClient#drugResponses(String)}. */
+    DRUG_RESPONSES,
+
+    /** Traits, see {@link PersonalGenomeClient#traits(String)}. */
+    TRAITS;
+}
@@ -0,0 +1,215 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Circuit breaker with closed, open, and half-open states.
+ *
+ * <p>
+ * While closed, the outcomes of the last <code>windowSize</code> calls are recorded, and once the window
+ * is full and either the rate of failed calls or the rate of slow calls reaches its threshold, the circuit
+ * opens.  While open, calls are not permitted.  After the open duration, the circuit is half-open and
+ * permits <code>windowSize</code> trial calls, more if some are ignored; once all have completed, the
+ * circuit closes if both rates are below their thresholds and opens again otherwise.
+ * </p>
+ */
+@ThreadSafe
+public final class CircuitBreaker {
+    private final double failureRateThreshold;
+    private final long slowCallDuration;
+    private final double slowCallRateThreshold;
+    private final int windowSize;
+    private final long openDuration;
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private int index;
+    private int count;
+    private int trials;
+    private State state = State.CLOSED;
+    private long openedAt;
+    /** Default failure rate threshold. */
+    static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5d;
+    /** Default slow call duration in milliseconds. */
+    static final long DEFAULT_SLOW_CALL_DURATION = 10000L;
+    /** Default slow call rate threshold. */
+    static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8d;
+    /** Default window size. */
+    static final int DEFAULT_WINDOW_SIZE = 20;
+    /** Default open duration in milliseconds. */
+    static final long DEFAULT_OPEN_DURATION = 30000L;
+
+
+    /**
+     * Circuit breaker state.
+     */
+    public enum State {
+        /** Closed, calls are permitted. */
+        CLOSED,
+
+        /** Open, calls are not permitted. */
+        OPEN,
+
+        /** Half-open, a limited number of trial calls are permitted. */
+        HALF_OPEN;
+    }
+
+
+    /**
+     * Create a new circuit breaker with default thresholds, window size, and open duration.
+     */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_RATE_THRESHOLD, DEFAULT_SLOW_CALL_DURATION, DEFAULT_SLOW_CALL_RATE_THRESHOLD, DEFAULT_WINDOW_SIZE, DEFAULT_OPEN_DURATION);
+    }
+
+    /**
+     * Create a new circuit breaker.
+     *
+     * @param failureRateThreshold failure rate threshold, must be in the range (0.0, 1.0]
+     * @param slowCallDuration duration in milliseconds at or above which a call is slow, must be at least zero
+     * @param slowCallRateThreshold slow call rate threshold, must be in the range (0.0, 1.0]
+     * @param windowSize number of calls over which rates are measured, must be at least one
+     * @param openDuration duration in milliseconds the circuit stays open, must be at least zero
+     */
+    public CircuitBreaker(final double failureRateThreshold,
+                          final long slowCallDuration,
+                          final double slowCallRateThreshold,
+                          final int windowSize,
+                          final long openDuration) {
+        checkArgument(failureRateThreshold > 0.0d && failureRateThreshold <= 1.0d, "failureRateThreshold must be in the range (0.0, 1.0]");
+        checkArgument(slowCallDuration >= 0L, "slowCallDuration must be at least zero");
+        checkArgument(slowCallRateThreshold > 0.0d && slowCallRateThreshold <= 1.0d, "slowCallRateThreshold must be in the range (0.0, 1.0]");
+        checkArgument(windowSize > 0, "windowSize must be at least one");
+        checkArgument(openDuration >= 0L, "openDuration must be at least zero");
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallDuration = TimeUnit.MILLISECONDS.toNanos(slowCallDuration);
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.windowSize = windowSize;
+        this.openDuration = TimeUnit.MILLISECONDS.toNanos(openDuration);
+        failures = new boolean[windowSize];
+        slowCalls = new boolean[windowSize];
+    }
+
+
+    /**
+     * Return true if a call is permitted.  Each permitted call must be followed by a call to
+     * {@link #onSuccess(long)}, {@link #onFailure(long)}, or {@link #onIgnored()}.
+     *
+     * @return true if a call is permitted
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDuration) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trials >= windowSize) {
+                return false;
+            }
+            trials++;
+        }
+        return true;
+    }
+
+    /**
+     * Record a successful call with the specified duration.
+     *
+     * @param duration duration in nanoseconds
+     */
+    public synchronized void onSuccess(final long duration) {
+        record(false, duration >= slowCallDuration);
+    }
+
+    /**
+     * Record a failed call with the specified duration.
+     *
+     * @param duration duration in nanoseconds
+     */
+    public synchronized void onFailure(final long duration) {
+        record(true, duration >= slowCallDuration);
+    }
+
+    /**
+     * Record a permitted call that should not count towards either rate.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && trials > count) {
+            trials--;
+        }
+    }
+
+    /**
+     * Return the state of this circuit breaker.
+     *
+     * @return the state of this circuit breaker
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDuration) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    private void record(final boolean failure, final boolean slow) {
+        if (state == State.OPEN) {
+            return;
+        }
+        failures[index] = failure;
+        slowCalls[index] = slow;
+        index = (index + 1) % windowSize;
+        count = Math.min(windowSize, count + 1);
+
+        if (count == windowSize) {
+            int failed = 0;
+            int slowed = 0;
+            for (int i = 0; i < windowSize; i++) {
+                failed += failures[i] ? 1 : 0;
+                slowed += slowCalls[i] ? 1 : 0;
+            }
+            if (failed >= failureRateThreshold * windowSize || slowed >= slowCallRateThreshold * windowSize) {
+                transition(State.OPEN);
+            }
+            else if (state == State.HALF_OPEN) {
+                transition(State.CLOSED);
+            }
+        }
+    }
+
+    private void transition(final State to) {
+        state = to;
+        index = 0;
+        count = 0;
+        trials = 0;
+        if (to == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+    }
+}
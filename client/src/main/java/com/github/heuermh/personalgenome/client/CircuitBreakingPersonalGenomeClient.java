@@ -0,0 +1,166 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Supplier;
+
+import com.google.common.collect.Maps;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Personal genome API client decorator with a circuit breaker per call.
+ *
+ * <p>Calls failing with a transient error, a {@link TemporarilyUnavailableException} or an I/O error, count
+ * as failures; calls failing otherwise count as successes, since the API responded.  While the circuit
+ * breaker for a call is open, that call fails fast with a {@link CircuitBreakerOpenException}.</p>
+ *
+ * <p>If the delegate of this client is a {@link CachingPersonalGenomeClient}, a call whose circuit breaker
+ * is open returns the unexpired cached result for the same call and parameters instead, when present.
+ * This is the only supported wiring for falling back to a cache; a caching client decorating this client
+ * only calls through to it on a miss or an expired result, so it never has a result to fall back to.</p>
+ */
+@ThreadSafe
+public final class CircuitBreakingPersonalGenomeClient extends InterceptingPersonalGenomeClient {
+    private final Map<Call, CircuitBreaker> circuitBreakers;
+    private final CachingPersonalGenomeClient cache;
+
+
+    /**
+     * Create a new circuit breaking personal genome API client with default circuit breakers.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     */
+    public CircuitBreakingPersonalGenomeClient(final PersonalGenomeClient delegate) {
+        this(delegate, CircuitBreaker.DEFAULT_FAILURE_RATE_THRESHOLD, CircuitBreaker.DEFAULT_SLOW_CALL_DURATION,
+             CircuitBreaker.DEFAULT_SLOW_CALL_RATE_THRESHOLD, CircuitBreaker.DEFAULT_WINDOW_SIZE, CircuitBreaker.DEFAULT_OPEN_DURATION);
+    }
+
+    /**
+     * Create a new circuit breaking personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param failureRateThreshold failure rate threshold, must be in the range (0.0, 1.0]
+     * @param slowCallDuration duration in milliseconds at or above which a call is slow, must be at least zero
+     * @param slowCallRateThreshold slow call rate threshold, must be in the range (0.0, 1.0]
+     * @param windowSize number of calls over which rates are measured, must be at least one
+     * @param openDuration duration in milliseconds a circuit breaker stays open, must be at least zero
+     */
+    public CircuitBreakingPersonalGenomeClient(final PersonalGenomeClient delegate,
+                                               final double failureRateThreshold,
+                                               final long slowCallDuration,
+                                               final double slowCallRateThreshold,
+                                               final int windowSize,
+                                               final long openDuration) {
+        this(delegate, failureRateThreshold, slowCallDuration, slowCallRateThreshold, windowSize, openDuration, DEFAULT_PAGE_SIZE, null);
+    }
+
+    /**
+     * Create a new circuit breaking personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param failureRateThreshold failure rate threshold, must be in the range (0.0, 1.0]
+     * @param slowCallDuration duration in milliseconds at or above which a call is slow, must be at least zero
+     * @param slowCallRateThreshold slow call rate threshold, must be in the range (0.0, 1.0]
+     * @param windowSize number of calls over which rates are measured, must be at least one
+     * @param openDuration duration in milliseconds a circuit breaker stays open, must be at least zero
+     * @param pageSize number of relatives per page for {@link #relatives(String)}, must be at least one
+     * @param executorService executor service to prefetch pages of relatives on, or <code>null</code>
+     *    to fetch each page lazily on the calling thread
+     */
+    public CircuitBreakingPersonalGenomeClient(final PersonalGenomeClient delegate,
+                                               final double failureRateThreshold,
+                                               final long slowCallDuration,
+                                               final double slowCallRateThreshold,
+                                               final int windowSize,
+                                               final long openDuration,
+                                               final int pageSize,
+                                               @Nullable final ListeningExecutorService executorService) {
+        super(delegate, pageSize, executorService);
+        EnumMap<Call, CircuitBreaker> map = new EnumMap<Call, CircuitBreaker>(Call.class);
+        for (Call call : Call.values()) {
+            map.put(call, new CircuitBreaker(failureRateThreshold, slowCallDuration, slowCallRateThreshold, windowSize, openDuration));
+        }
+        this.circuitBreakers = Maps.immutableEnumMap(map);
+        this.cache = delegate instanceof CachingPersonalGenomeClient ? (CachingPersonalGenomeClient) delegate : null;
+    }
+
+
+    @Override
+    <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(invocation.getCall());
+        if (!circuitBreaker.tryAcquire()) {
+            if (cache != null) {
+                T value = cache.getIfPresent(invocation);
+                if (value != null) {
+                    return value;
+                }
+            }
+            throw new CircuitBreakerOpenException("circuit breaker for " + invocation.getCall() + " call is open");
+        }
+        boolean recorded = false;
+        long start = System.nanoTime();
+        try {
+            T value = supplier.get();
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            recorded = true;
+            return value;
+        }
+        catch (RuntimeException e) {
+            if (RetryingPersonalGenomeClient.isRetryable(e)) {
+                circuitBreaker.onFailure(System.nanoTime() - start);
+            }
+            else {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+            }
+            recorded = true;
+            throw e;
+        }
+        finally {
+            if (!recorded) {
+                circuitBreaker.onIgnored();
+            }
+        }
+    }
+
+    /**
+     * Return the circuit breaker for the specified call.
+     *
+     * @param call call, must not be null
+     * @return the circuit breaker for the specified call
+     */
+    public CircuitBreaker circuitBreaker(final Call call) {
+        checkNotNull(call);
+        return circuitBreakers.get(call);
+    }
+}
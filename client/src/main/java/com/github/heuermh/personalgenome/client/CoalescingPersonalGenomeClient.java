@@ -0,0 +1,124 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import java.util.List;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Personal genome API client decorator that coalesces concurrent identical calls.
+ *
+ * <p>
+ * Calls are keyed by call, profile id, and parameters.  While a call to the delegate is in flight,
+ * callers with the same key wait for and share its result or exception instead of calling the delegate
+ * again.  Nothing is kept once the call completes; see {@link CachingPersonalGenomeClient} for caching.
+ * List results are shared as immutable copies.
+ * </p>
+ */
+@ThreadSafe
+public final class CoalescingPersonalGenomeClient extends InterceptingPersonalGenomeClient {
+    private final ConcurrentMap<Invocation, SettableFuture<Object>> inFlight = new ConcurrentHashMap<Invocation, SettableFuture<Object>>();
+
+
+    /**
+     * Create a new coalescing personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     */
+    public CoalescingPersonalGenomeClient(final PersonalGenomeClient delegate) {
+        super(delegate);
+    }
+
+    /**
+     * Create a new coalescing personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param pageSize number of relatives per page for {@link #relatives(String)}, must be at least one
+     * @param executorService executor service to prefetch pages of relatives on, or <code>null</code>
+     *    to fetch each page lazily on the calling thread
+     */
+    public CoalescingPersonalGenomeClient(final PersonalGenomeClient delegate,
+                                          final int pageSize,
+                                          @Nullable final ListeningExecutorService executorService) {
+        super(delegate, pageSize, executorService);
+    }
+
+
+    @Override
+    <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+        SettableFuture<Object> future = SettableFuture.create();
+        SettableFuture<Object> existing = inFlight.putIfAbsent(invocation, future);
+        if (existing == null) {
+            try {
+                Object value = supplier.get();
+                future.set(value instanceof List ? ImmutableList.copyOf((List<?>) value) : value);
+            }
+            catch (RuntimeException e) {
+                future.setException(e);
+            }
+            catch (Error e) {
+                future.setException(e);
+            }
+            finally {
+                inFlight.remove(invocation, future);
+            }
+        }
+        else {
+            future = existing;
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            T value = (T) Uninterruptibles.getUninterruptibly(future);
+            return value;
+        }
+        catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Return the number of calls to the delegate in flight.
+     *
+     * @return the number of calls to the delegate in flight
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
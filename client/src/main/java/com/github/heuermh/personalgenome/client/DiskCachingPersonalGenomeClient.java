@@ -0,0 +1,128 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+
+import javax.annotation.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Supplier;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Personal genome API client decorator that keeps genomes in a {@link DiskGenomeStore}.
+ *
+ * <p>
+ * Genomes and packed genomes are read from the store when present, otherwise fetched from the delegate
+ * and written to the store.  Genomes with values that cannot be packed are not stored.  Store write
+ * failures are logged and do not fail the call.  All other calls pass through to the delegate, so this
+ * client is typically placed under a {@link CachingPersonalGenomeClient}.
+ * </p>
+ */
+@ThreadSafe
+public final class DiskCachingPersonalGenomeClient extends InterceptingPersonalGenomeClient {
+    private final DiskGenomeStore store;
+    private final Logger logger = LoggerFactory.getLogger(DiskCachingPersonalGenomeClient.class);
+
+
+    /**
+     * Create a new disk caching personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param store disk genome store, must not be null
+     */
+    public DiskCachingPersonalGenomeClient(final PersonalGenomeClient delegate, final DiskGenomeStore store) {
+        this(delegate, store, DEFAULT_PAGE_SIZE, null);
+    }
+
+    /**
+     * Create a new disk caching personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param store disk genome store, must not be null
+     * @param pageSize number of relatives per page for {@link #relatives(String)}, must be at least one
+     * @param executorService executor service to prefetch pages of relatives on, or <code>null</code>
+     *    to fetch each page lazily on the calling thread
+     */
+    public DiskCachingPersonalGenomeClient(final PersonalGenomeClient delegate,
+                                           final DiskGenomeStore store,
+                                           final int pageSize,
+                                           @Nullable final ListeningExecutorService executorService) {
+        super(delegate, pageSize, executorService);
+        checkNotNull(store);
+        this.store = store;
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+        Call call = invocation.getCall();
+        if (call == Call.GENOME) {
+            PackedGenome packedGenome = store.get(invocation.getProfileId());
+            if (packedGenome != null) {
+                return (T) packedGenome.asGenome();
+            }
+            T genome = supplier.get();
+            if (genome != null) {
+                try {
+                    put(((Genome) genome).asPackedGenome());
+                }
+                catch (IllegalArgumentException e) {
+                    logger.debug("not storing genome for profile " + invocation.getProfileId() + ", values cannot be packed");
+                }
+            }
+            return genome;
+        }
+        else if (call == Call.PACKED_GENOME) {
+            PackedGenome packedGenome = store.get(invocation.getProfileId());
+            if (packedGenome != null) {
+                return (T) packedGenome;
+            }
+            T result = supplier.get();
+            if (result != null) {
+                put((PackedGenome) result);
+            }
+            return result;
+        }
+        return supplier.get();
+    }
+
+    private void put(final PackedGenome packedGenome) {
+        try {
+            store.put(packedGenome);
+        }
+        catch (IOException e) {
+            logger.warn("could not store genome for profile " + packedGenome.getProfileId(), e);
+        }
+    }
+}
@@ -0,0 +1,550 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import java.util.zip.CRC32;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Charsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent store of packed genomes keyed by profile id, in a directory of append-only segment files
+ * and an append-only index file.
+ *
+ * <p>
+ * Each genome is stored as a record of its packed calls, about 0.8 bytes per call, followed by a CRC-32
+ * checksum.  Records are read through memory-mapped I/O and verified against their checksum; a corrupt
+ * record is dropped and read as a miss.  Once the total size of the segment files exceeds the maximum
+ * size, the oldest segment files are deleted along with the genomes they hold.
+ * </p>
+ */
+@ThreadSafe
+public final class DiskGenomeStore implements Closeable {
+    private final File directory;
+    private final long maximumSize;
+    private final long segmentSize;
+    private final Map<String, Location> index = new HashMap<String, Location>();
+    private final TreeMap<Integer, FileChannel> segments = new TreeMap<Integer, FileChannel>();
+    private DataOutputStream indexOutputStream;
+    private int current;
+    private long currentSize;
+    private long size;
+    private final Logger logger = LoggerFactory.getLogger(DiskGenomeStore.class);
+    /** Default maximum total size of the segment files, in bytes. */
+    static final long DEFAULT_MAXIMUM_SIZE = 1024L * 1024L * 1024L;
+    /** Default segment file size, in bytes. */
+    static final long DEFAULT_SEGMENT_SIZE = 64L * 1024L * 1024L;
+    /** Record magic number. */
+    private static final int MAGIC = 0x50474e31;
+    /** Index entry operation, put. */
+    private static final byte PUT = 1;
+    /** Index entry operation, remove. */
+    private static final byte REMOVE = 2;
+    /** Index file name. */
+    private static final String INDEX = "index";
+    /** Segment file name pattern. */
+    private static final Pattern SEGMENT = Pattern.compile("segment-(\\d{8})\\.dat");
+
+
+    /**
+     * Create a new disk genome store in the specified directory with default maximum and segment sizes.
+     *
+     * @param directory directory, must not be null, created if it does not exist
+     * @throws IOException if an I/O error occurs
+     */
+    public DiskGenomeStore(final File directory) throws IOException {
+        this(directory, DEFAULT_MAXIMUM_SIZE, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Create a new disk genome store in the specified directory, reading genomes stored by previous
+     * instances.
+     *
+     * @param directory directory, must not be null, created if it does not exist
+     * @param maximumSize maximum total size of the segment files, in bytes, must be greater than zero
+     * @param segmentSize segment file size, in bytes, must be greater than zero and at most <code>maximumSize</code>
+     * @throws IOException if an I/O error occurs
+     */
+    public DiskGenomeStore(final File directory, final long maximumSize, final long segmentSize) throws IOException {
+        checkNotNull(directory);
+        checkArgument(maximumSize > 0L, "maximumSize must be greater than zero");
+        checkArgument(segmentSize > 0L, "segmentSize must be greater than zero");
+        checkArgument(segmentSize <= maximumSize, "segmentSize must be at most maximumSize");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("could not create directory " + directory);
+        }
+        this.directory = directory;
+        this.maximumSize = maximumSize;
+        this.segmentSize = segmentSize;
+
+        openSegments();
+        readIndex();
+    }
+
+
+    /**
+     * Return the packed genome stored for the specified profile id, if any.
+     *
+     * @param profileId profile id, must not be null
+     * @return the packed genome stored for the specified profile id, or <code>null</code> if none is stored
+     *    or its record is corrupt
+     */
+    public PackedGenome get(final String profileId) {
+        checkNotNull(profileId);
+        Location location = null;
+        MappedByteBuffer buffer = null;
+        synchronized (this) {
+            location = index.get(profileId);
+            if (location == null) {
+                return null;
+            }
+            // map while holding the lock so eviction cannot close the channel first; the mapping
+            // stays valid once the channel is closed, so the record is verified outside the lock
+            try {
+                buffer = segments.get(location.segment).map(FileChannel.MapMode.READ_ONLY, location.offset, location.length);
+            }
+            catch (IOException e) {
+                logger.warn("could not read genome record for profile " + profileId, e);
+            }
+        }
+        if (buffer != null) {
+            PackedGenome packedGenome = readRecord(buffer, profileId);
+            if (packedGenome != null) {
+                return packedGenome;
+            }
+            logger.warn("dropping corrupt genome record for profile " + profileId);
+        }
+        synchronized (this) {
+            if (index.get(profileId) == location) {
+                remove(profileId);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Store the specified packed genome, replacing any packed genome stored for its profile id.  Packed
+     * genomes larger than a segment file are not stored.
+     *
+     * @param packedGenome packed genome to store, must not be null
+     * @return true if the specified packed genome was stored
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized boolean put(final PackedGenome packedGenome) throws IOException {
+        checkNotNull(packedGenome);
+        ByteBuffer record = writeRecord(packedGenome);
+        int length = record.remaining();
+        if (length > segmentSize) {
+            return false;
+        }
+        if (currentSize > 0L && currentSize + length > segmentSize) {
+            openSegment(current + 1);
+        }
+        FileChannel channel = segments.get(current);
+        long offset = currentSize;
+        while (record.hasRemaining()) {
+            channel.write(record, offset + record.position());
+        }
+        currentSize += length;
+        size += length;
+
+        Location location = new Location(current, offset, length);
+        writeIndexEntry(PUT, packedGenome.getProfileId(), location);
+        index.put(packedGenome.getProfileId(), location);
+        evict();
+        return true;
+    }
+
+    /**
+     * Remove the packed genome stored for the specified profile id, if any.
+     *
+     * @param profileId profile id, must not be null
+     */
+    public synchronized void remove(final String profileId) {
+        checkNotNull(profileId);
+        if (index.remove(profileId) != null) {
+            try {
+                writeIndexEntry(REMOVE, profileId, null);
+            }
+            catch (IOException e) {
+                logger.warn("could not write index entry for profile " + profileId, e);
+            }
+        }
+    }
+
+    /**
+     * Return the number of packed genomes stored.
+     *
+     * @return the number of packed genomes stored
+     */
+    public synchronized int count() {
+        return index.size();
+    }
+
+    /**
+     * Return the total size of the segment files, in bytes.
+     *
+     * @return the total size of the segment files, in bytes
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            indexOutputStream.close();
+        }
+        finally {
+            for (FileChannel channel : segments.values()) {
+                try {
+                    channel.close();
+                }
+                catch (Exception e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private void openSegments() throws IOException {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = SEGMENT.matcher(file.getName());
+                if (matcher.matches()) {
+                    int segment = Integer.parseInt(matcher.group(1));
+                    FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+                    segments.put(segment, channel);
+                    size += channel.size();
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+        }
+        else {
+            current = segments.lastKey();
+            currentSize = segments.get(current).size();
+        }
+    }
+
+    private void openSegment(final int segment) throws IOException {
+        segments.put(segment, new RandomAccessFile(segmentFile(segment), "rw").getChannel());
+        current = segment;
+        currentSize = 0L;
+    }
+
+    private File segmentFile(final int segment) {
+        return new File(directory, String.format("segment-%08d.dat", segment));
+    }
+
+    /**
+     * Delete the oldest segment files and the genomes they hold until the total size is at most the
+     * maximum size.
+     */
+    private void evict() throws IOException {
+        while (size > maximumSize && segments.size() > 1) {
+            int oldest = segments.firstKey();
+            FileChannel channel = segments.remove(oldest);
+            size -= channel.size();
+            try {
+                channel.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+            for (Iterator<Location> locations = index.values().iterator(); locations.hasNext(); ) {
+                if (locations.next().segment == oldest) {
+                    locations.remove();
+                }
+            }
+            if (!segmentFile(oldest).delete()) {
+                logger.warn("could not delete segment file " + segmentFile(oldest));
+            }
+        }
+    }
+
+    /**
+     * Read the index file, dropping entries for missing segments and truncating a partially written
+     * last entry, then compact the index file if most of its entries are stale.
+     */
+    private void readIndex() throws IOException {
+        File file = new File(directory, INDEX);
+        int entries = 0;
+        long valid = 0L;
+        if (file.exists()) {
+            DataInputStream inputStream = null;
+            try {
+                inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+                while (true) {
+                    Entry entry = readIndexEntry(inputStream);
+                    if (entry == null) {
+                        break;
+                    }
+                    if (entry.op == PUT && segments.containsKey(entry.location.segment)
+                        && entry.location.offset + entry.location.length <= segments.get(entry.location.segment).size()) {
+                        index.put(entry.profileId, entry.location);
+                    }
+                    else {
+                        index.remove(entry.profileId);
+                    }
+                    entries++;
+                    valid += entry.length;
+                }
+            }
+            finally {
+                try {
+                    inputStream.close();
+                }
+                catch (Exception e) {
+                    // ignore
+                }
+            }
+        }
+        if (entries > 2 * index.size() + 16 || valid < file.length()) {
+            compactIndex(file);
+        }
+        else {
+            indexOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        }
+    }
+
+    private void compactIndex(final File file) throws IOException {
+        File tmp = new File(directory, INDEX + ".tmp");
+        indexOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            writeIndexEntry(PUT, entry.getKey(), entry.getValue());
+        }
+        indexOutputStream.close();
+        if (!tmp.renameTo(file)) {
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                throw new IOException("could not replace index file " + file);
+            }
+        }
+        indexOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    private void writeIndexEntry(final byte op, final String profileId, final Location location) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream entry = new DataOutputStream(bytes);
+        entry.writeByte(op);
+        entry.writeUTF(profileId);
+        if (op == PUT) {
+            entry.writeInt(location.segment);
+            entry.writeLong(location.offset);
+            entry.writeInt(location.length);
+        }
+        entry.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        indexOutputStream.write(bytes.toByteArray());
+        indexOutputStream.writeInt((int) crc.getValue());
+        indexOutputStream.flush();
+    }
+
+    /**
+     * Read the next index entry from the specified input stream.
+     *
+     * @return the next index entry, or <code>null</code> at the end of the stream or at a partially
+     *    written or corrupt entry
+     */
+    private static Entry readIndexEntry(final DataInputStream inputStream) throws IOException {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream copy = new DataOutputStream(bytes);
+            int op = inputStream.read();
+            if (op == -1) {
+                return null;
+            }
+            copy.writeByte(op);
+            String profileId = inputStream.readUTF();
+            copy.writeUTF(profileId);
+            Location location = null;
+            if (op == PUT) {
+                location = new Location(inputStream.readInt(), inputStream.readLong(), inputStream.readInt());
+                copy.writeInt(location.segment);
+                copy.writeLong(location.offset);
+                copy.writeInt(location.length);
+            }
+            else if (op != REMOVE) {
+                return null;
+            }
+            copy.flush();
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            if (inputStream.readInt() != (int) crc.getValue()) {
+                return null;
+            }
+            return new Entry((byte) op, profileId, location, bytes.size() + 4);
+        }
+        catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the specified packed genome to a new record.
+     *
+     * @param packedGenome packed genome
+     * @return a new record, ready to be read
+     */
+    static ByteBuffer writeRecord(final PackedGenome packedGenome) {
+        byte[] profileId = packedGenome.getProfileId().getBytes(Charsets.UTF_8);
+        long[] words = packedGenome.words();
+        ByteBuffer record = ByteBuffer.allocate(16 + profileId.length + 8 * words.length + 8);
+        record.putInt(MAGIC);
+        record.putInt(profileId.length);
+        record.put(profileId);
+        record.putInt(packedGenome.length());
+        record.putInt(words.length);
+        record.asLongBuffer().put(words);
+        record.position(record.position() + 8 * words.length);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putLong(crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Read a packed genome from the specified record, verifying its checksum.
+     *
+     * @param record record
+     * @param profileId expected profile id
+     * @return a packed genome read from the specified record, or <code>null</code> if the record is corrupt
+     */
+    static PackedGenome readRecord(final ByteBuffer record, final String profileId) {
+        int limit = record.limit();
+        if (limit < 24) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        record.position(0);
+        while (record.position() < limit - 8) {
+            int n = Math.min(buffer.length, limit - 8 - record.position());
+            record.get(buffer, 0, n);
+            crc.update(buffer, 0, n);
+        }
+        if (record.getLong() != crc.getValue()) {
+            return null;
+        }
+        record.position(0);
+        if (record.getInt() != MAGIC) {
+            return null;
+        }
+        int profileIdLength = record.getInt();
+        if (profileIdLength < 0 || profileIdLength > limit - 24) {
+            return null;
+        }
+        byte[] profileIdBytes = new byte[profileIdLength];
+        record.get(profileIdBytes);
+        if (!profileId.equals(new String(profileIdBytes, Charsets.UTF_8))) {
+            return null;
+        }
+        int length = record.getInt();
+        int wordCount = record.getInt();
+        if (wordCount < 0 || 8L * wordCount != limit - 24 - profileIdLength) {
+            return null;
+        }
+        long[] words = new long[wordCount];
+        record.asLongBuffer().get(words);
+        try {
+            return PackedGenome.fromWords(profileId, length, words);
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Location of a record in a segment file.
+     */
+    private static final class Location {
+        private final int segment;
+        private final long offset;
+        private final int length;
+
+
+        Location(final int segment, final long offset, final int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Index entry.
+     */
+    private static final class Entry {
+        private final byte op;
+        private final String profileId;
+        private final Location location;
+        private final int length;
+
+
+        Entry(final byte op, final String profileId, final Location location, final int length) {
+            this.op = op;
+            this.profileId = profileId;
+            this.location = location;
+            this.length = length;
+        }
+    }
+}
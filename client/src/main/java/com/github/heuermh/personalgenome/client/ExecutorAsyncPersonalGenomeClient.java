@@ -0,0 +1,360 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Iterator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Function;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Asynchronous personal genome API client that runs the calls of a blocking personal genome
+ * client on an executor service.
+ */
+@ThreadSafe
+public final class ExecutorAsyncPersonalGenomeClient implements AsyncPersonalGenomeClient {
+    private final PersonalGenomeClient client;
+    private final ListeningExecutorService executorService;
+    /** Default maximum number of concurrent calls. */
+    static final int DEFAULT_PARALLELISM = 8;
+    /** Default ancestry threshold for {@link #fetchAll(String, Set)}. */
+    static final double DEFAULT_ANCESTRY_THRESHOLD = 0.9d;
+
+
+    /**
+     * Create a new executor asynchronous personal genome client running at most eight calls
+     * concurrently on daemon threads.
+     *
+     * @param client personal genome client to delegate to, must not be null
+     */
+    public ExecutorAsyncPersonalGenomeClient(final PersonalGenomeClient client) {
+        this(client, createExecutorService(DEFAULT_PARALLELISM));
+    }
+
+    /**
+     * Create a new executor asynchronous personal genome client running calls on the specified executor service.
+     *
+     * @param client personal genome client to delegate to, must not be null
+     * @param executorService executor service, must not be null
+     */
+    public ExecutorAsyncPersonalGenomeClient(final PersonalGenomeClient client, final ExecutorService executorService) {
+        checkNotNull(client);
+        checkNotNull(executorService);
+        this.client = client;
+        this.executorService = MoreExecutors.listeningDecorator(executorService);
+    }
+
+    @Override
+    public ListenableFuture<User> user() {
+        return executorService.submit(new Callable<User>() {
+                @Override
+                public User call() {
+                    return client.user();
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<UserName> names(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<UserName>() {
+                @Override
+                public UserName call() {
+                    return client.names(profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<Haplogroup> haplogroups(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<Haplogroup>() {
+                @Override
+                public Haplogroup call() {
+                    return client.haplogroups(profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<Genotype> genotypes(final String profileId, final String... locations) {
+        checkNotNull(profileId);
+        checkNotNull(locations);
+        return executorService.submit(new Callable<Genotype>() {
+                @Override
+                public Genotype call() {
+                    return client.genotypes(profileId, locations);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<Genotype> genotypes(final String profileId, final Iterable<String> locations) {
+        checkNotNull(profileId);
+        checkNotNull(locations);
+        return executorService.submit(new Callable<Genotype>() {
+                @Override
+                public Genotype call() {
+                    return client.genotypes(profileId, locations);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<Genome> genome(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<Genome>() {
+                @Override
+                public Genome call() {
+                    return client.genome(profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<PackedGenome> packedGenome(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<PackedGenome>() {
+                @Override
+                public PackedGenome call() {
+                    return PackedGenomes.packedGenome(client, profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<Ancestry> ancestry(final String profileId, final double threshold) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<Ancestry>() {
+                @Override
+                public Ancestry call() {
+                    return client.ancestry(profileId, threshold);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<Double> neanderthalProportion(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<Double>() {
+                @Override
+                public Double call() {
+                    return client.neanderthalProportion(profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<Iterator<Relative>> relatives(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<Iterator<Relative>>() {
+                @Override
+                public Iterator<Relative> call() {
+                    return client.relatives(profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<List<Relative>> relatives(final String profileId, final int offset, final int limit) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<List<Relative>>() {
+                @Override
+                public List<Relative> call() {
+                    return client.relatives(profileId, offset, limit);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<List<Risk>> risks(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<List<Risk>>() {
+                @Override
+                public List<Risk> call() {
+                    return client.risks(profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<List<Carrier>> carriers(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<List<Carrier>>() {
+                @Override
+                public List<Carrier> call() {
+                    return client.carriers(profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<List<DrugResponse>> drugResponses(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<List<DrugResponse>>() {
+                @Override
+                public List<DrugResponse> call() {
+                    return client.drugResponses(profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<List<Trait>> traits(final String profileId) {
+        checkNotNull(profileId);
+        return executorService.submit(new Callable<List<Trait>>() {
+                @Override
+                public List<Trait> call() {
+                    return client.traits(profileId);
+                }
+            });
+    }
+
+    @Override
+    public ListenableFuture<ProfileSnapshot> fetchAll(final String profileId, final Set<Call> calls) {
+        return fetchAll(profileId, calls, DEFAULT_ANCESTRY_THRESHOLD);
+    }
+
+    @Override
+    public ListenableFuture<ProfileSnapshot> fetchAll(final String profileId,
+                                                      final Set<Call> calls,
+                                                      final double threshold) {
+        checkNotNull(profileId);
+        checkNotNull(calls);
+        checkArgument(ProfileSnapshot.CALLS.containsAll(calls), "calls must only contain calls in ProfileSnapshot.CALLS");
+        if (threshold <= 0.5 || threshold >= 1.0) {
+            throw new IllegalArgumentException("threshold must be in the range (0.5, 1.0), exclusive");
+        }
+        final Map<Call, ListenableFuture<?>> futures = new EnumMap<Call, ListenableFuture<?>>(Call.class);
+        for (Call call : calls) {
+            futures.put(call, fetch(profileId, call, threshold));
+        }
+        return Futures.transform(Futures.successfulAsList(futures.values()), new Function<List<Object>, ProfileSnapshot>() {
+                @Override
+                public ProfileSnapshot apply(final List<Object> ignored) {
+                    Map<Call, Object> results = new EnumMap<Call, Object>(Call.class);
+                    Map<Call, Throwable> failures = new EnumMap<Call, Throwable>(Call.class);
+                    for (Map.Entry<Call, ListenableFuture<?>> entry : futures.entrySet()) {
+                        try {
+                            Object result = Uninterruptibles.getUninterruptibly(entry.getValue());
+                            if (result == null) {
+                                failures.put(entry.getKey(), new PersonalGenomeClientException("no result for " + entry.getKey()));
+                            }
+                            else {
+                                results.put(entry.getKey(), result);
+                            }
+                        }
+                        catch (ExecutionException e) {
+                            failures.put(entry.getKey(), e.getCause());
+                        }
+                        catch (CancellationException e) {
+                            failures.put(entry.getKey(), e);
+                        }
+                    }
+                    return new ProfileSnapshot(profileId, results, failures);
+                }
+            });
+    }
+
+    /**
+     * Return a future for the result of the specified call for the specified profile.
+     *
+     * @param profileId profile id
+     * @param call call, one of {@link ProfileSnapshot#CALLS}
+     * @param threshold ancestry threshold
+     * @return a future for the result of the specified call for the specified profile
+     */
+    private ListenableFuture<?> fetch(final String profileId, final Call call, final double threshold) {
+        switch (call) {
+        case NAMES:
+            return names(profileId);
+        case HAPLOGROUPS:
+            return haplogroups(profileId);
+        case GENOME:
+            return genome(profileId);
+        case PACKED_GENOME:
+            return packedGenome(profileId);
+        case ANCESTRY:
+            return ancestry(profileId, threshold);
+        case NEANDERTHAL_PROPORTION:
+            return neanderthalProportion(profileId);
+        case RELATIVES:
+            return executorService.submit(new Callable<List<Relative>>() {
+                    @Override
+                    public List<Relative> call() {
+                        return ImmutableList.copyOf(client.relatives(profileId));
+                    }
+                });
+        case RISKS:
+            return risks(profileId);
+        case CARRIERS:
+            return carriers(profileId);
+        case DRUG_RESPONSES:
+            return drugResponses(profileId);
+        case TRAITS:
+            return traits(profileId);
+        default:
+            throw new IllegalArgumentException("unsupported call " + call);
+        }
+    }
+
+    /**
+     * Create and return a new executor service with the specified number of daemon threads.
+     *
+     * @param parallelism number of threads
+     * @return a new executor service with the specified number of daemon threads
+     */
+    private static ExecutorService createExecutorService(final int parallelism) {
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("personal-genome-client-async-%d").build());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+}
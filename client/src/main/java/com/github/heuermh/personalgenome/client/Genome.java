@@ -24,9 +24,7 @@
 package com.github.heuermh.personalgenome.client;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-
-import java.util.HashMap;
-import java.util.Map;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
 
 import javax.annotation.concurrent.Immutable;
 
@@ -59,27 +57,188 @@ public final class Genome {
 
     public Genotype asGenotype(final String... locations) {
         checkNotNull(locations);
-        Map<String, String> genotypeValues = new HashMap<String, String>(locations.length);
+        Genotype.Builder builder = new Genotype.Builder(locations.length).withProfileId(profileId);
         for (String location : locations) {
             checkNotNull(location);
             int index = Locations.index(location);
             if (index >= 0 && index < values.length() - 1) {
-                genotypeValues.put(location, values.substring(index, index + 2));
+                builder.add(location, call(index));
+            }
+        }
+        return builder.build();
+    }
+
+    public Genotype asGenotype(final int... rsids) {
+        checkNotNull(rsids);
+        Genotype.Builder builder = new Genotype.Builder(rsids.length).withProfileId(profileId);
+        for (int rsid : rsids) {
+            int index = Locations.index(rsid);
+            if (index >= 0 && index < values.length() - 1) {
+                builder.add(rsid, call(index));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Return the values for the locations on the specified chromosome with positions in the specified range,
+     * two characters per location, in the same order as {@link Locations#rsids(String, int, int)}.  Locations
+     * without a value in this genome are returned as <code>__</code>.
+     *
+     * @param chromosome chromosome, must not be null
+     * @param start range start, inclusive
+     * @param end range end, inclusive
+     * @return the values for the locations on the specified chromosome with positions in the specified range
+     */
+    public char[] region(final String chromosome, final int start, final int end) {
+        checkNotNull(chromosome);
+        int[] indices = Locations.indices(chromosome, start, end);
+        char[] region = new char[indices.length * 2];
+        extract(indices, region, 0);
+        return region;
+    }
+
+    /**
+     * Copy the values at the specified indices into the specified destination array, two characters
+     * per index, without allocating.  Indices without a value in this genome are copied as <code>__</code>.
+     *
+     * @param indices indices, must not be null, see {@link Locations#indicesOf(String...)}
+     * @param destination destination array, must not be null and must have room for two characters
+     *    per index from the specified offset
+     * @param offset offset into the destination array
+     */
+    public void extract(final int[] indices, final char[] destination, final int offset) {
+        checkNotNull(indices);
+        checkNotNull(destination);
+        checkPositionIndexes(offset, offset + indices.length * 2, destination.length);
+        int length = values.length() - 1;
+        for (int i = 0, d = offset; i < indices.length; i++, d += 2) {
+            int index = indices[i];
+            if (index >= 0 && index < length) {
+                destination[d] = values.charAt(index);
+                destination[d + 1] = values.charAt(index + 1);
+            }
+            else {
+                destination[d] = '_';
+                destination[d + 1] = '_';
+            }
+        }
+    }
+
+    /**
+     * Copy the values at the specified indices into the specified destination array as ASCII bytes, two
+     * bytes per index, without allocating.  Indices without a value in this genome are copied as <code>__</code>.
+     *
+     * @param indices indices, must not be null, see {@link Locations#indicesOf(String...)}
+     * @param destination destination array, must not be null and must have room for two bytes
+     *    per index from the specified offset
+     * @param offset offset into the destination array
+     */
+    public void extract(final int[] indices, final byte[] destination, final int offset) {
+        checkNotNull(indices);
+        checkNotNull(destination);
+        checkPositionIndexes(offset, offset + indices.length * 2, destination.length);
+        int length = values.length() - 1;
+        for (int i = 0, d = offset; i < indices.length; i++, d += 2) {
+            int index = indices[i];
+            if (index >= 0 && index < length) {
+                destination[d] = (byte) values.charAt(index);
+                destination[d + 1] = (byte) values.charAt(index + 1);
+            }
+            else {
+                destination[d] = '_';
+                destination[d + 1] = '_';
             }
         }
-        return new Genotype(profileId, genotypeValues);
     }
 
     public Genotype asGenotype(final Iterable<String> locations) {
         checkNotNull(locations);
-        Map<String, String> genotypeValues = new HashMap<String, String>();
+        Genotype.Builder builder = new Genotype.Builder().withProfileId(profileId);
         for (String location : locations) {
             checkNotNull(location);
             int index = Locations.index(location);
             if (index >= 0 && index < values.length() - 1) {
-                genotypeValues.put(location, values.substring(index, index + 2));
+                builder.add(location, call(index));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Project the specified panel onto this genome.
+     *
+     * @param panel panel, must not be null
+     * @return the specified panel projected onto this genome
+     */
+    public Genotype asGenotype(final Panel panel) {
+        checkNotNull(panel);
+        int[] rsids = panel.sharedRsids();
+        int[] indices = panel.sharedIndices();
+        Genotype.Builder builder = new Genotype.Builder(indices.length).withProfileId(profileId);
+        for (int i = 0; i < indices.length; i++) {
+            int index = indices[i];
+            if (index >= values.length() - 1) {
+                break;
+            }
+            int code = PackedGenome.encode(values.charAt(index), values.charAt(index + 1));
+            if (code == PackedGenome.NO_CODE) {
+                builder.add(rsids[i], values.substring(index, index + 2));
+            }
+            else {
+                builder.add(rsids[i], code);
             }
         }
-        return new Genotype(profileId, genotypeValues);
+        return builder.build();
+    }
+
+    /**
+     * Copy the values for the specified panel into the specified destination array, two characters
+     * per location in panel order, without allocating.
+     *
+     * @param panel panel, must not be null
+     * @param destination destination array, must not be null and must have room for two characters
+     *    per location in the panel from the specified offset
+     * @param offset offset into the destination array
+     */
+    public void extract(final Panel panel, final char[] destination, final int offset) {
+        checkNotNull(panel);
+        extract(panel.sharedIndices(), destination, offset);
+    }
+
+    /**
+     * Copy the values for the specified panel into the specified destination array as ASCII bytes, two
+     * bytes per location in panel order, without allocating.
+     *
+     * @param panel panel, must not be null
+     * @param destination destination array, must not be null and must have room for two bytes
+     *    per location in the panel from the specified offset
+     * @param offset offset into the destination array
+     */
+    public void extract(final Panel panel, final byte[] destination, final int offset) {
+        checkNotNull(panel);
+        extract(panel.sharedIndices(), destination, offset);
+    }
+
+    /**
+     * Pack this genome into six bit codes per call.
+     *
+     * @return this genome packed into six bit codes per call
+     * @throws IllegalArgumentException if the values of this genome are of odd length or contain
+     *    characters other than <code>ACGT-_DI</code>
+     */
+    public PackedGenome asPackedGenome() {
+        return PackedGenome.valueOf(profileId, values);
+    }
+
+    /**
+     * Return the call at the specified index, shared if it is two characters of <code>ACGT-_DI</code>.
+     *
+     * @param index index
+     * @return the call at the specified index
+     */
+    private String call(final int index) {
+        int code = PackedGenome.encode(values.charAt(index), values.charAt(index + 1));
+        return code == PackedGenome.NO_CODE ? values.substring(index, index + 2) : PackedGenome.call(code);
     }
-}
\ No newline at end of file
+}
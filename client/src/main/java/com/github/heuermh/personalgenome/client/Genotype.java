@@ -23,34 +23,377 @@
 */
 package com.github.heuermh.personalgenome.client;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 
 /**
  * Genotype.
+ *
+ * <p>Values for locations of the form <code>rs[0-9]+</code> or <code>i[0-9]+</code> with calls of two characters
+ * of <code>ACGT-_DI</code> are stored column-wise, as location keys sorted for binary search (see {@link Rsid})
+ * and one byte call codes (see {@link PackedGenome#code(char, char)}).  Any other values are stored in a map.
+ * {@link #getValues()} returns a read-only view over both.</p>
  */
 @Immutable
 public final class Genotype {
     private final String profileId;
+    private final int[] rsids;
+    private final byte[] codes;
+    private final Map<String, String> other;
     private final Map<String, String> values;
 
+
     public Genotype(final String profileId, final Map<String, String> values) {
-        checkNotNull(profileId);
-        checkNotNull(values);
-        this.profileId = profileId;
-        this.values = ImmutableMap.copyOf(values);
+        this(build(profileId, values));
+    }
+
+    /**
+     * Create a new genotype from the specified genotype builder.
+     *
+     * @param builder genotype builder
+     */
+    private Genotype(final Builder builder) {
+        checkNotNull(builder.profileId);
+        this.profileId = builder.profileId;
+
+        long[] order = new long[builder.size];
+        for (int i = 0; i < builder.size; i++) {
+            order[i] = ((long) builder.rsids[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        int size = 0;
+        for (int i = 0; i < order.length; i++) {
+            // last value for a location key wins, values not encoded as call codes are in the other map
+            if (i + 1 < order.length && (int) (order[i + 1] >> 32) == (int) (order[i] >> 32)) {
+                continue;
+            }
+            if (builder.codes[(int) order[i]] != PackedGenome.NO_CODE) {
+                order[size++] = order[i];
+            }
+        }
+        rsids = new int[size];
+        codes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            rsids[i] = (int) (order[i] >> 32);
+            codes[i] = builder.codes[(int) order[i]];
+        }
+        ImmutableMap.Builder<String, String> otherBuilder = ImmutableMap.builder();
+        for (Map.Entry<String, String> entry : builder.other.entrySet()) {
+            if (!isCanonical(entry.getKey()) || Arrays.binarySearch(rsids, Rsid.parse(entry.getKey())) < 0) {
+                otherBuilder.put(entry);
+            }
+        }
+        other = otherBuilder.build();
+        this.values = new Values();
     }
 
+
     public String getProfileId() {
         return profileId;
     }
 
+    /**
+     * Return a read-only view of the values of this genotype, keyed by location.
+     *
+     * @return a read-only view of the values of this genotype, keyed by location
+     */
     public Map<String, String> getValues() {
         return values;
     }
-}
\ No newline at end of file
+
+    /**
+     * Return the number of values in this genotype.
+     *
+     * @return the number of values in this genotype
+     */
+    public int size() {
+        return rsids.length + other.size();
+    }
+
+    /**
+     * Return the value for the specified location, if any.
+     *
+     * @param location location, must not be null
+     * @return the value for the specified location, or <code>null</code> if no such value exists
+     */
+    public String getValue(final String location) {
+        checkNotNull(location);
+        if (isCanonical(location)) {
+            int code = code(Rsid.parse(location));
+            if (code != PackedGenome.NO_CODE) {
+                return PackedGenome.call(code);
+            }
+        }
+        return other.get(location);
+    }
+
+    /**
+     * Return the value for the specified location key, if any.
+     *
+     * @param rsid location key, see {@link Rsid}
+     * @return the value for the specified location key, or <code>null</code> if no such value exists
+     */
+    public String getValue(final int rsid) {
+        if (rsid == Rsid.INVALID) {
+            return null;
+        }
+        int code = code(rsid);
+        return code == PackedGenome.NO_CODE ? other.get(Rsid.format(rsid)) : PackedGenome.call(code);
+    }
+
+    /**
+     * Return the call code for the specified location key, without allocating.
+     *
+     * @param rsid location key, see {@link Rsid}
+     * @return the call code for the specified location key, or {@link PackedGenome#NO_CODE} if no such
+     *    value exists or the value is not two characters of <code>ACGT-_DI</code>
+     */
+    public int code(final int rsid) {
+        int i = Arrays.binarySearch(rsids, rsid);
+        return i < 0 ? PackedGenome.NO_CODE : codes[i];
+    }
+
+    /**
+     * Return true if the specified location parses to a location key, which then formats back to the same location.
+     *
+     * @param location location
+     * @return true if the specified location parses to a location key
+     */
+    private static boolean isCanonical(final String location) {
+        return Rsid.parse(location) != Rsid.INVALID;
+    }
+
+    /**
+     * Return a new genotype builder containing the specified values.
+     *
+     * @param profileId profile id, must not be null
+     * @param values values, must not be null and must not contain null locations or values
+     * @return a new genotype builder containing the specified values
+     */
+    private static Builder build(final String profileId, final Map<String, String> values) {
+        checkNotNull(profileId);
+        checkNotNull(values);
+        Builder builder = new Builder(values.size()).withProfileId(profileId);
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            builder.add(entry.getKey(), entry.getValue());
+        }
+        return builder;
+    }
+
+
+    /**
+     * Read-only view of the values of this genotype.
+     */
+    private final class Values extends AbstractMap<String, String> {
+        private final Set<Map.Entry<String, String>> entrySet = new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public int size() {
+                return Genotype.this.size();
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+                    private int i = 0;
+                    private final Iterator<Map.Entry<String, String>> others = other.entrySet().iterator();
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < rsids.length || others.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (i < rsids.length) {
+                            Map.Entry<String, String> entry = Maps.immutableEntry(Rsid.format(rsids[i]), PackedGenome.call(codes[i]));
+                            i++;
+                            return entry;
+                        }
+                        if (others.hasNext()) {
+                            return others.next();
+                        }
+                        throw new NoSuchElementException();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+
+        @Override
+        public int size() {
+            return Genotype.this.size();
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public String get(final Object key) {
+            return (key instanceof String) ? getValue((String) key) : null;
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return entrySet;
+        }
+    }
+
+
+    /**
+     * Genotype builder.
+     */
+    @NotThreadSafe
+    public static final class Builder {
+        private String profileId;
+        private int size;
+        private int[] rsids;
+        private byte[] codes;
+        private final Map<String, String> other = Maps.newLinkedHashMap();
+
+
+        /**
+         * Create a new genotype builder.
+         */
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Create a new genotype builder with the specified expected number of values.
+         *
+         * @param expectedSize expected number of values
+         */
+        public Builder(final int expectedSize) {
+            rsids = new int[Math.max(1, expectedSize)];
+            codes = new byte[rsids.length];
+        }
+
+
+        /**
+         * Return this genotype builder configured with the specified profile id.
+         *
+         * @param profileId profile id, must not be null
+         * @return this genotype builder configured with the specified profile id
+         */
+        public Builder withProfileId(final String profileId) {
+            checkNotNull(profileId);
+            this.profileId = profileId;
+            return this;
+        }
+
+        /**
+         * Add the specified value for the specified location, replacing any previous value.
+         *
+         * @param location location, must not be null
+         * @param value value, must not be null
+         * @return this genotype builder
+         */
+        public Builder add(final String location, final String value) {
+            checkNotNull(location);
+            checkNotNull(value);
+            if (!isCanonical(location)) {
+                other.put(location, value);
+                return this;
+            }
+            int code = PackedGenome.encode(value);
+            if (code == PackedGenome.NO_CODE) {
+                other.put(location, value);
+            }
+            return add(Rsid.parse(location), code);
+        }
+
+        /**
+         * Add the specified value for the specified location key, replacing any previous value.
+         *
+         * @param rsid location key, must not be {@link Rsid#INVALID}
+         * @param value value, must not be null
+         * @return this genotype builder
+         */
+        public Builder add(final int rsid, final String value) {
+            checkArgument(rsid != Rsid.INVALID, "rsid must not be INVALID");
+            checkNotNull(value);
+            int code = PackedGenome.encode(value);
+            if (code == PackedGenome.NO_CODE) {
+                other.put(Rsid.format(rsid), value);
+            }
+            return add(rsid, code);
+        }
+
+        /**
+         * Add all the values of the specified genotype, replacing any previous values.  Location keys and
+         * call codes are copied directly, without formatting or parsing locations.
+         *
+         * @param genotype genotype to add values from, must not be null
+         * @return this genotype builder
+         */
+        public Builder addAll(final Genotype genotype) {
+            checkNotNull(genotype);
+            ensureCapacity(size + genotype.rsids.length);
+            System.arraycopy(genotype.rsids, 0, rsids, size, genotype.rsids.length);
+            System.arraycopy(genotype.codes, 0, codes, size, genotype.codes.length);
+            size += genotype.rsids.length;
+            for (Map.Entry<String, String> entry : genotype.other.entrySet()) {
+                add(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        /**
+         * Add the specified call code for the specified location key, replacing any previous value.
+         *
+         * @param rsid location key, must not be {@link Rsid#INVALID}
+         * @param code call code, or {@link PackedGenome#NO_CODE} if the value is in the other map
+         * @return this genotype builder
+         */
+        Builder add(final int rsid, final int code) {
+            ensureCapacity(size + 1);
+            rsids[size] = rsid;
+            codes[size] = (byte) code;
+            size++;
+            return this;
+        }
+
+        /**
+         * Grow the location key and call code arrays to hold at least the specified number of values.
+         *
+         * @param capacity capacity
+         */
+        private void ensureCapacity(final int capacity) {
+            if (capacity > rsids.length) {
+                int length = Math.max(capacity, rsids.length * 2);
+                rsids = Arrays.copyOf(rsids, length);
+                codes = Arrays.copyOf(codes, length);
+            }
+        }
+
+        /**
+         * Build and return a new genotype.
+         *
+         * @return a new genotype
+         * @throws NullPointerException if no profile id has been provided
+         */
+        public Genotype build() {
+            return new Genotype(this);
+        }
+    }
+}
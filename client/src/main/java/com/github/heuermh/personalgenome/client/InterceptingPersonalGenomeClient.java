@@ -0,0 +1,266 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.google.common.base.Supplier;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Abstract personal genome API client decorator that passes each call to its delegate through
+ * {@link #intercept(Invocation, Supplier)}.
+ *
+ * <p>
+ * Arguments are checked before interception.  {@link #relatives(String)} pages through
+ * {@link #relatives(String, int, int)}, so each page is intercepted separately.  Pages are fetched
+ * lazily on the calling thread, or prefetched on an executor service if one is provided.  If the
+ * delegate is not a {@link PackedGenomeClient}, {@link #packedGenome(String)} packs the genome it returns.
+ * </p>
+ */
+abstract class InterceptingPersonalGenomeClient implements PackedGenomeClient {
+    /** Delegate personal genome API client. */
+    final PersonalGenomeClient delegate;
+    /** Number of relatives per page for {@link #relatives(String)}. */
+    private final int pageSize;
+    /** Executor service to prefetch pages of relatives on, if any. */
+    private final ListeningExecutorService executorService;
+    /** Default number of relatives per page. */
+    static final int DEFAULT_PAGE_SIZE = TransportPersonalGenomeClient.DEFAULT_PAGE_SIZE;
+
+
+    /**
+     * Create a new intercepting personal genome API client which fetches relatives
+     * {@link #DEFAULT_PAGE_SIZE} at a time, lazily on the calling thread.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     */
+    InterceptingPersonalGenomeClient(final PersonalGenomeClient delegate) {
+        this(delegate, DEFAULT_PAGE_SIZE, null);
+    }
+
+    /**
+     * Create a new intercepting personal genome API client which fetches relatives <code>pageSize</code>
+     * at a time, prefetching the next page on the specified executor service, if any.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param pageSize number of relatives per page, must be at least one
+     * @param executorService executor service to prefetch pages of relatives on, or <code>null</code>
+     *    to fetch each page lazily on the calling thread
+     */
+    InterceptingPersonalGenomeClient(final PersonalGenomeClient delegate,
+                                     final int pageSize,
+                                     @Nullable final ListeningExecutorService executorService) {
+        checkNotNull(delegate);
+        checkArgument(pageSize > 0, "pageSize must be at least one");
+        this.delegate = delegate;
+        this.pageSize = pageSize;
+        this.executorService = executorService;
+    }
+
+
+    /**
+     * Intercept the specified invocation, calling the specified supplier zero or more times to invoke the delegate.
+     *
+     * @param <T> result type
+     * @param invocation invocation
+     * @param supplier supplier that invokes the delegate
+     * @return the result of the invocation
+     */
+    abstract <T> T intercept(Invocation invocation, Supplier<T> supplier);
+
+    @Override
+    public User user() {
+        return intercept(new Invocation(Call.USER, null), new Supplier<User>() {
+                @Override
+                public User get() {
+                    return delegate.user();
+                }
+            });
+    }
+
+    @Override
+    public UserName names(final String profileId) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.NAMES, profileId), new Supplier<UserName>() {
+                @Override
+                public UserName get() {
+                    return delegate.names(profileId);
+                }
+            });
+    }
+
+    @Override
+    public Haplogroup haplogroups(final String profileId) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.HAPLOGROUPS, profileId), new Supplier<Haplogroup>() {
+                @Override
+                public Haplogroup get() {
+                    return delegate.haplogroups(profileId);
+                }
+            });
+    }
+
+    @Override
+    public Genotype genotypes(final String profileId, final String... locations) {
+        checkNotNull(locations);
+        return genotypes(profileId, Arrays.asList(locations));
+    }
+
+    @Override
+    public Genotype genotypes(final String profileId, final Iterable<String> locations) {
+        checkNotNull(profileId);
+        checkNotNull(locations);
+        final List<String> copy = ImmutableList.copyOf(locations);
+        return intercept(new Invocation(Call.GENOTYPES, profileId, copy), new Supplier<Genotype>() {
+                @Override
+                public Genotype get() {
+                    return delegate.genotypes(profileId, copy);
+                }
+            });
+    }
+
+    @Override
+    public Genome genome(final String profileId) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.GENOME, profileId), new Supplier<Genome>() {
+                @Override
+                public Genome get() {
+                    return delegate.genome(profileId);
+                }
+            });
+    }
+
+    @Override
+    public PackedGenome packedGenome(final String profileId) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.PACKED_GENOME, profileId), new Supplier<PackedGenome>() {
+                @Override
+                public PackedGenome get() {
+                    return PackedGenomes.packedGenome(delegate, profileId);
+                }
+            });
+    }
+
+    @Override
+    public Ancestry ancestry(final String profileId, final double threshold) {
+        checkNotNull(profileId);
+        if (threshold <= 0.5 || threshold >= 1.0) {
+            throw new IllegalArgumentException("threshold must be in the range (0.5, 1.0), exclusive");
+        }
+        return intercept(new Invocation(Call.ANCESTRY, profileId, threshold), new Supplier<Ancestry>() {
+                @Override
+                public Ancestry get() {
+                    return delegate.ancestry(profileId, threshold);
+                }
+            });
+    }
+
+    @Override
+    public double neanderthalProportion(final String profileId) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.NEANDERTHAL_PROPORTION, profileId), new Supplier<Double>() {
+                @Override
+                public Double get() {
+                    return delegate.neanderthalProportion(profileId);
+                }
+            });
+    }
+
+    @Override
+    public Iterator<Relative> relatives(final String profileId) {
+        checkNotNull(profileId);
+        return new PrefetchingPageIterator<Relative>(pageSize, executorService) {
+            @Override
+            List<Relative> fetch(final int offset, final int limit) {
+                return relatives(profileId, offset, limit);
+            }
+        }.start();
+    }
+
+    @Override
+    public List<Relative> relatives(final String profileId, final int offset, final int limit) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.RELATIVES, profileId, offset, limit), new Supplier<List<Relative>>() {
+                @Override
+                public List<Relative> get() {
+                    return delegate.relatives(profileId, offset, limit);
+                }
+            });
+    }
+
+    @Override
+    public List<Risk> risks(final String profileId) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.RISKS, profileId), new Supplier<List<Risk>>() {
+                @Override
+                public List<Risk> get() {
+                    return delegate.risks(profileId);
+                }
+            });
+    }
+
+    @Override
+    public List<Carrier> carriers(final String profileId) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.CARRIERS, profileId), new Supplier<List<Carrier>>() {
+                @Override
+                public List<Carrier> get() {
+                    return delegate.carriers(profileId);
+                }
+            });
+    }
+
+    @Override
+    public List<DrugResponse> drugResponses(final String profileId) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.DRUG_RESPONSES, profileId), new Supplier<List<DrugResponse>>() {
+                @Override
+                public List<DrugResponse> get() {
+                    return delegate.drugResponses(profileId);
+                }
+            });
+    }
+
+    @Override
+    public List<Trait> traits(final String profileId) {
+        checkNotNull(profileId);
+        return intercept(new Invocation(Call.TRAITS, profileId), new Supplier<List<Trait>>() {
+                @Override
+                public List<Trait> get() {
+                    return delegate.traits(profileId);
+                }
+            });
+    }
+}
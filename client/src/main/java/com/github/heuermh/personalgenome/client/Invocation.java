@@ -0,0 +1,99 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.base.Objects;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Invocation of a personal genome API client call, keyed by call, profile id, and parameters.
+ */
+@Immutable
+final class Invocation {
+    private final Call call;
+    private final String profileId;
+    private final List<Object> parameters;
+    private final int hashCode;
+
+
+    /**
+     * Create a new invocation.
+     *
+     * @param call call, must not be null
+     * @param profileId profile id, if any
+     * @param parameters parameters, must not be null and must not contain null
+     */
+    Invocation(final Call call, @Nullable final String profileId, final Object... parameters) {
+        checkNotNull(call);
+        checkNotNull(parameters);
+        this.call = call;
+        this.profileId = profileId;
+        this.parameters = ImmutableList.copyOf(parameters);
+        hashCode = Objects.hashCode(call, profileId, this.parameters);
+    }
+
+
+    Call getCall() {
+        return call;
+    }
+
+    String getProfileId() {
+        return profileId;
+    }
+
+    List<Object> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof Invocation)) {
+            return false;
+        }
+        Invocation invocation = (Invocation) o;
+        return call == invocation.call && Objects.equal(profileId, invocation.profileId) && parameters.equals(invocation.parameters);
+    }
+
+    @Override
+    public String toString() {
+        return call + (profileId == null ? "" : " " + profileId) + (parameters.isEmpty() ? "" : " " + parameters);
+    }
+}
@@ -0,0 +1,508 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.base.Charsets;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Compact location index, stored as parallel primitive arrays sorted by location key.
+ *
+ * <p>Locations are keyed as described in {@link Rsid}.  Chromosome names are stored as
+ * a byte code into a small table of distinct chromosome names.</p>
+ *
+ * <p>The arrays may live on the heap or in a memory-mapped binary index file, see
+ * {@link #write(OutputStream)} and {@link #map(File)}, or be parsed from <code>snps.data.gz</code>,
+ * see {@link LocationIndexParser}.</p>
+ */
+@Immutable
+final class LocationIndex {
+    private final IntBuffer keys;
+    private final IntBuffer indices;
+    private final IntBuffer positions;
+    private final ByteBuffer chromosomes;
+    private final String[] chromosomeNames;
+    private volatile PositionIndex positionIndex;
+    private static final int MAGIC = 0x534e5053;
+    private static final int VERSION = 1;
+
+
+    /**
+     * Create a new location index from the specified arrays, which must already be sorted by key.
+     *
+     * @param keys location keys, sorted, must not be null
+     * @param indices indices, must not be null
+     * @param positions positions, must not be null
+     * @param chromosomes chromosome codes, must not be null
+     * @param chromosomeNames chromosome names by code, must not be null
+     */
+    LocationIndex(final int[] keys, final int[] indices, final int[] positions, final byte[] chromosomes, final String[] chromosomeNames) {
+        checkNotNull(keys);
+        checkNotNull(indices);
+        checkNotNull(positions);
+        checkNotNull(chromosomes);
+        checkNotNull(chromosomeNames);
+        checkArgument(indices.length == keys.length, "indices must be the same length as keys");
+        checkArgument(positions.length == keys.length, "positions must be the same length as keys");
+        checkArgument(chromosomes.length == keys.length, "chromosomes must be the same length as keys");
+        this.keys = IntBuffer.wrap(keys);
+        this.indices = IntBuffer.wrap(indices);
+        this.positions = IntBuffer.wrap(positions);
+        this.chromosomes = ByteBuffer.wrap(chromosomes);
+        this.chromosomeNames = chromosomeNames;
+    }
+
+    /**
+     * Create a new location index from the specified buffers, which must already be sorted by key.
+     *
+     * @param keys location keys, sorted
+     * @param indices indices
+     * @param positions positions
+     * @param chromosomes chromosome codes
+     * @param chromosomeNames chromosome names by code
+     */
+    private LocationIndex(final IntBuffer keys, final IntBuffer indices, final IntBuffer positions, final ByteBuffer chromosomes, final String[] chromosomeNames) {
+        this.keys = keys;
+        this.indices = indices;
+        this.positions = positions;
+        this.chromosomes = chromosomes;
+        this.chromosomeNames = chromosomeNames;
+    }
+
+
+    /**
+     * Return the number of locations in this index.
+     *
+     * @return the number of locations in this index
+     */
+    int size() {
+        return keys.limit();
+    }
+
+    /**
+     * Return the row for the specified location, or <code>-1</code> if no such location exists.
+     *
+     * @param location location
+     * @return the row for the specified location, or <code>-1</code> if no such location exists
+     */
+    int row(final String location) {
+        return row(Rsid.parse(location));
+    }
+
+    /**
+     * Return the row for the specified key, or <code>-1</code> if no such location exists.
+     *
+     * @param key key
+     * @return the row for the specified key, or <code>-1</code> if no such location exists
+     */
+    int row(final int key) {
+        if (key == Rsid.INVALID) {
+            return -1;
+        }
+        int low = 0;
+        int high = keys.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = keys.get(mid);
+            if (midKey < key) {
+                low = mid + 1;
+            }
+            else if (midKey > key) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    int key(final int row) {
+        return keys.get(row);
+    }
+
+    String location(final int row) {
+        return Rsid.format(keys.get(row));
+    }
+
+    int index(final int row) {
+        return indices.get(row);
+    }
+
+    String chromosome(final int row) {
+        return chromosomeNames[chromosomes.get(row)];
+    }
+
+    byte chromosomeCode(final int row) {
+        return chromosomes.get(row);
+    }
+
+    String[] chromosomeNames() {
+        return chromosomeNames.clone();
+    }
+
+    int position(final int row) {
+        return positions.get(row);
+    }
+
+    /**
+     * Return the code for the specified chromosome, or <code>-1</code> if no such chromosome exists.
+     *
+     * @param chromosome chromosome
+     * @return the code for the specified chromosome, or <code>-1</code> if no such chromosome exists
+     */
+    int chromosomeCode(final String chromosome) {
+        for (int i = 0; i < chromosomeNames.length; i++) {
+            if (chromosomeNames[i].equals(chromosome)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the rows on the specified chromosome with positions in the specified range, sorted by position.
+     *
+     * @param chromosome chromosome
+     * @param start range start, inclusive
+     * @param end range end, inclusive
+     * @return the rows on the specified chromosome with positions in the specified range, sorted by position
+     */
+    int[] rows(final String chromosome, final int start, final int end) {
+        int code = chromosomeCode(chromosome);
+        return code < 0 ? new int[0] : positionIndex().rows(code, start, end);
+    }
+
+    /**
+     * Return up to <code>count</code> rows on the specified chromosome nearest to the specified position,
+     * sorted by distance from the position.
+     *
+     * @param chromosome chromosome
+     * @param position position
+     * @param count maximum number of rows to return
+     * @return up to <code>count</code> rows on the specified chromosome nearest to the specified position
+     */
+    int[] nearestRows(final String chromosome, final int position, final int count) {
+        int code = chromosomeCode(chromosome);
+        return code < 0 ? new int[0] : positionIndex().nearestRows(code, position, count);
+    }
+
+    /**
+     * Return the positional index over this location index, creating it on first use.
+     *
+     * @return the positional index over this location index
+     */
+    private PositionIndex positionIndex() {
+        PositionIndex result = positionIndex;
+        if (result == null) {
+            synchronized (this) {
+                result = positionIndex;
+                if (result == null) {
+                    result = new PositionIndex(this);
+                    positionIndex = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return a view of the locations in this index, formatted on demand.
+     *
+     * @return a view of the locations in this index
+     */
+    List<String> locations() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(final int row) {
+                return location(row);
+            }
+
+            @Override
+            public int size() {
+                return keys.limit();
+            }
+        };
+    }
+
+    /**
+     * Write this location index to the specified output stream in binary index file format.
+     *
+     * <p>The format is a header (magic number, version, number of locations, and chromosome
+     * names), padded to a four byte boundary, followed by fixed-width sections for keys,
+     * indices, and positions (four bytes each per location), and chromosome codes (one byte
+     * per location).  All values are big-endian.</p>
+     *
+     * @param outputStream output stream to write to, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    void write(final OutputStream outputStream) throws IOException {
+        checkNotNull(outputStream);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(size());
+        out.writeInt(chromosomeNames.length);
+        for (String chromosomeName : chromosomeNames) {
+            byte[] bytes = chromosomeName.getBytes(Charsets.US_ASCII);
+            out.writeByte(bytes.length);
+            out.write(bytes);
+        }
+        while (out.size() % 4 != 0) {
+            out.writeByte(0);
+        }
+        for (int i = 0, size = size(); i < size; i++) {
+            out.writeInt(keys.get(i));
+        }
+        for (int i = 0, size = size(); i < size; i++) {
+            out.writeInt(indices.get(i));
+        }
+        for (int i = 0, size = size(); i < size; i++) {
+            out.writeInt(positions.get(i));
+        }
+        for (int i = 0, size = size(); i < size; i++) {
+            out.writeByte(chromosomes.get(i));
+        }
+        out.flush();
+    }
+
+
+    /**
+     * Read a new location index from the specified binary index file input stream into a heap buffer.
+     *
+     * @param inputStream binary index file input stream, must not be null
+     * @return a new location index read from the specified input stream
+     * @throws IOException if an I/O error occurs
+     */
+    static LocationIndex read(final InputStream inputStream) throws IOException {
+        checkNotNull(inputStream);
+        try {
+            return read(ByteBuffer.wrap(ByteStreams.toByteArray(inputStream)));
+        }
+        finally {
+            try {
+                inputStream.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Map a new location index from the specified binary index file.  Lookups read directly from
+     * the mapped file, so JVMs mapping the same file share its pages in the operating system page cache.
+     *
+     * @param file binary index file, must not be null
+     * @return a new location index mapped from the specified file
+     * @throws IOException if an I/O error occurs
+     */
+    static LocationIndex map(final File file) throws IOException {
+        checkNotNull(file);
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            // mapping remains valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()));
+        }
+        finally {
+            try {
+                randomAccessFile.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Read a new location index from the specified buffer in binary index file format.
+     *
+     * @param buffer buffer in binary index file format
+     * @return a new location index read from the specified buffer
+     * @throws IOException if the buffer is not in binary index file format
+     */
+    static LocationIndex read(final ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+            throw new IOException("not a location index file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported location index file version " + version);
+        }
+        int size = buffer.getInt();
+        String[] chromosomeNames = new String[buffer.getInt()];
+        for (int i = 0; i < chromosomeNames.length; i++) {
+            byte[] bytes = new byte[buffer.get()];
+            buffer.get(bytes);
+            chromosomeNames[i] = new String(bytes, Charsets.US_ASCII);
+        }
+        int offset = (buffer.position() + 3) & ~3;
+        if (buffer.limit() < offset + 13L * size) {
+            throw new IOException("truncated location index file");
+        }
+        return new LocationIndex(intSection(buffer, offset, size),
+                                 intSection(buffer, offset + 4 * size, size),
+                                 intSection(buffer, offset + 8 * size, size),
+                                 section(buffer, offset + 12 * size, size),
+                                 chromosomeNames);
+    }
+
+    private static ByteBuffer section(final ByteBuffer buffer, final int offset, final int length) {
+        ByteBuffer section = buffer.duplicate();
+        section.position(offset);
+        section.limit(offset + length);
+        return section.slice();
+    }
+
+    private static IntBuffer intSection(final ByteBuffer buffer, final int offset, final int size) {
+        return section(buffer, offset, 4 * size).asIntBuffer();
+    }
+
+    /**
+     * Return true if the specified region of the buffer is equal to the specified bytes.
+     *
+     * @param bytes bytes
+     * @param buffer buffer
+     * @param offset region offset
+     * @param length region length
+     * @return true if the specified region of the buffer is equal to the specified bytes
+     */
+    static boolean regionEquals(final byte[] bytes, final byte[] buffer, final int offset, final int length) {
+        if (bytes.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Location index builder.
+     */
+    static final class Builder {
+        private int size = 0;
+        private int[] keys = new int[1024];
+        private int[] indices = new int[1024];
+        private int[] positions = new int[1024];
+        private byte[] chromosomes = new byte[1024];
+        private String[] chromosomeNames = new String[0];
+        private byte[][] chromosomeNameBytes = new byte[0][];
+
+        Builder add(final int key, final int index, final String chromosome, final int position) {
+            byte[] bytes = chromosome.getBytes(Charsets.US_ASCII);
+            return add(key, index, bytes, 0, bytes.length, position);
+        }
+
+        Builder add(final int key, final int index, final byte[] buffer, final int offset, final int length, final int position) {
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                indices = Arrays.copyOf(indices, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+                chromosomes = Arrays.copyOf(chromosomes, capacity);
+            }
+            keys[size] = key;
+            indices[size] = index;
+            positions[size] = position;
+            chromosomes[size] = chromosomeCode(buffer, offset, length);
+            size++;
+            return this;
+        }
+
+        private byte chromosomeCode(final byte[] buffer, final int offset, final int length) {
+            for (int i = 0; i < chromosomeNameBytes.length; i++) {
+                if (regionEquals(chromosomeNameBytes[i], buffer, offset, length)) {
+                    return (byte) i;
+                }
+            }
+            checkArgument(chromosomeNames.length < Byte.MAX_VALUE, "too many distinct chromosome names");
+            chromosomeNames = Arrays.copyOf(chromosomeNames, chromosomeNames.length + 1);
+            chromosomeNames[chromosomeNames.length - 1] = new String(buffer, offset, length, Charsets.US_ASCII);
+            chromosomeNameBytes = Arrays.copyOf(chromosomeNameBytes, chromosomeNameBytes.length + 1);
+            chromosomeNameBytes[chromosomeNameBytes.length - 1] = Arrays.copyOfRange(buffer, offset, offset + length);
+            return (byte) (chromosomeNames.length - 1);
+        }
+
+        LocationIndex build() {
+            // sort rows by key, breaking ties by insertion order so the last duplicate wins
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) keys[i] << 32) | i;
+            }
+            Arrays.sort(order);
+
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == size - 1 || (int) (order[i] >> 32) != (int) (order[i + 1] >> 32)) {
+                    distinct++;
+                }
+            }
+            int[] sortedKeys = new int[distinct];
+            int[] sortedIndices = new int[distinct];
+            int[] sortedPositions = new int[distinct];
+            byte[] sortedChromosomes = new byte[distinct];
+            for (int i = 0, row = 0; i < size; i++) {
+                if (i == size - 1 || (int) (order[i] >> 32) != (int) (order[i + 1] >> 32)) {
+                    int j = (int) order[i];
+                    sortedKeys[row] = keys[j];
+                    sortedIndices[row] = indices[j];
+                    sortedPositions[row] = positions[j];
+                    sortedChromosomes[row] = chromosomes[j];
+                    row++;
+                }
+            }
+            return new LocationIndex(sortedKeys, sortedIndices, sortedPositions, sortedChromosomes, chromosomeNames.clone());
+        }
+    }
+}
@@ -0,0 +1,359 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import java.util.zip.GZIPInputStream;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Throwables;
+
+import com.google.common.io.ByteStreams;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Parser for the gzipped, tab-delimited <code>snps.data</code> file.
+ *
+ * <p>The file is inflated into a buffer once, split into line-aligned chunks, and the chunks are
+ * parsed and sorted in parallel with a byte scanner that creates no intermediate strings.  The sorted
+ * chunks are then merged into a single location index.  Lines not in the expected
+ * <code>index \t location \t chromosome \t position</code> format are skipped.</p>
+ */
+final class LocationIndexParser {
+    /** Minimum chunk size in bytes, smaller inputs are parsed on fewer threads. */
+    static final int MIN_CHUNK_SIZE = 1024 * 1024;
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private LocationIndexParser() {
+        // empty
+    }
+
+
+    /**
+     * Parse a new location index from the specified gzipped <code>snps.data</code> input stream.
+     *
+     * @param inputStream gzipped <code>snps.data</code> input stream, must not be null
+     * @return a new location index parsed from the specified input stream
+     * @throws IOException if an I/O error occurs
+     */
+    static LocationIndex parse(final InputStream inputStream) throws IOException {
+        return parse(inputStream, null);
+    }
+
+    /**
+     * Parse a new location index from the specified gzipped <code>snps.data</code> input stream,
+     * containing only locations on the specified chromosome.
+     *
+     * @param inputStream gzipped <code>snps.data</code> input stream, must not be null
+     * @param chromosome chromosome to parse, or <code>null</code> to parse all chromosomes
+     * @return a new location index parsed from the specified input stream
+     * @throws IOException if an I/O error occurs
+     */
+    static LocationIndex parse(final InputStream inputStream, final String chromosome) throws IOException {
+        return parse(inflate(inputStream), chromosome);
+    }
+
+    /**
+     * Inflate the specified gzipped <code>snps.data</code> input stream into a buffer.
+     *
+     * @param inputStream gzipped <code>snps.data</code> input stream, must not be null
+     * @return the specified input stream inflated into a buffer
+     * @throws IOException if an I/O error occurs
+     */
+    static byte[] inflate(final InputStream inputStream) throws IOException {
+        checkNotNull(inputStream);
+        try {
+            return ByteStreams.toByteArray(new GZIPInputStream(inputStream));
+        }
+        finally {
+            try {
+                inputStream.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Parse a new location index from the specified inflated <code>snps.data</code> buffer,
+     * containing only locations on the specified chromosome.
+     *
+     * @param buffer inflated <code>snps.data</code> buffer, must not be null
+     * @param chromosome chromosome to parse, or <code>null</code> to parse all chromosomes
+     * @return a new location index parsed from the specified buffer
+     * @throws IOException if an I/O error occurs
+     */
+    static LocationIndex parse(final byte[] buffer, final String chromosome) throws IOException {
+        checkNotNull(buffer);
+        byte[] chromosomeBytes = chromosome == null ? null : chromosome.getBytes(Charsets.US_ASCII);
+        int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), buffer.length / MIN_CHUNK_SIZE));
+        return parse(buffer, chromosomeBytes, chunks);
+    }
+
+    /**
+     * Parse a new location index from the specified buffer in the specified number of parallel chunks.
+     *
+     * @param buffer inflated <code>snps.data</code> buffer
+     * @param chromosome chromosome to parse, or <code>null</code> to parse all chromosomes
+     * @param chunks number of chunks, must be at least one
+     * @return a new location index parsed from the specified buffer
+     * @throws IOException if an I/O error occurs
+     */
+    static LocationIndex parse(final byte[] buffer, final byte[] chromosome, final int chunks) throws IOException {
+        if (chunks < 2) {
+            return parse(buffer, 0, buffer.length, chromosome).build();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(chunks, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("locations-parse-%d").build());
+        try {
+            List<Future<LocationIndex>> futures = new ArrayList<Future<LocationIndex>>(chunks);
+            int start = 0;
+            for (int i = 0; i < chunks; i++) {
+                final int chunkStart = start;
+                final int chunkEnd = (i == chunks - 1) ? buffer.length : Math.max(start, nextLine(buffer, (int) ((long) buffer.length * (i + 1) / chunks)));
+                futures.add(executor.submit(new Callable<LocationIndex>() {
+                        @Override
+                        public LocationIndex call() {
+                            return parse(buffer, chunkStart, chunkEnd, chromosome).build();
+                        }
+                    }));
+                start = chunkEnd;
+            }
+            List<LocationIndex> locationIndices = new ArrayList<LocationIndex>(chunks);
+            for (Future<LocationIndex> future : futures) {
+                locationIndices.add(future.get());
+            }
+            return merge(locationIndices);
+        }
+        catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while parsing locations");
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse the lines in the specified range of the specified buffer.
+     *
+     * @param buffer buffer
+     * @param start range start, inclusive, at the start of a line
+     * @param end range end, exclusive, at the start of a line or the end of the buffer
+     * @param chromosome chromosome to parse, or <code>null</code> to parse all chromosomes
+     * @return a location index builder containing the parsed lines
+     */
+    static LocationIndex.Builder parse(final byte[] buffer, final int start, final int end, final byte[] chromosome) {
+        LocationIndex.Builder builder = new LocationIndex.Builder();
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = indexOf(buffer, (byte) '\n', lineStart, end);
+            int nextLineStart = lineEnd + 1;
+            if (lineEnd > lineStart && buffer[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            int tab1 = indexOf(buffer, (byte) '\t', lineStart, lineEnd);
+            int tab2 = indexOf(buffer, (byte) '\t', tab1 + 1, lineEnd);
+            int tab3 = indexOf(buffer, (byte) '\t', tab2 + 1, lineEnd);
+            if (tab3 < lineEnd && (chromosome == null || LocationIndex.regionEquals(chromosome, buffer, tab2 + 1, tab3 - tab2 - 1))) {
+                int index = parseInt(buffer, lineStart, tab1);
+                int key = key(buffer, tab1 + 1, tab2);
+                int position = parseInt(buffer, tab3 + 1, lineEnd);
+                if (index >= 0 && index <= Integer.MAX_VALUE / 2 && key != Rsid.INVALID && position >= 0) {
+                    builder.add(key, index * 2, buffer, tab2 + 1, tab3 - tab2 - 1, position);
+                }
+            }
+            lineStart = nextLineStart;
+        }
+        return builder;
+    }
+
+    /**
+     * Merge the specified location indices, each sorted by key, into a single location index.  Where
+     * more than one location index contains the same key, the last one wins.
+     *
+     * @param locationIndices location indices to merge
+     * @return a new location index containing the merged location indices
+     */
+    static LocationIndex merge(final List<LocationIndex> locationIndices) {
+        int size = 0;
+        List<String> chromosomeNames = new ArrayList<String>();
+        byte[][] chromosomeCodes = new byte[locationIndices.size()][];
+        for (int i = 0; i < locationIndices.size(); i++) {
+            LocationIndex locationIndex = locationIndices.get(i);
+            size += locationIndex.size();
+            String[] names = locationIndex.chromosomeNames();
+            chromosomeCodes[i] = new byte[names.length];
+            for (int j = 0; j < names.length; j++) {
+                int code = chromosomeNames.indexOf(names[j]);
+                if (code < 0) {
+                    code = chromosomeNames.size();
+                    chromosomeNames.add(names[j]);
+                }
+                chromosomeCodes[i][j] = (byte) code;
+            }
+        }
+
+        int[] keys = new int[size];
+        int[] indices = new int[size];
+        int[] positions = new int[size];
+        byte[] chromosomes = new byte[size];
+        int[] rows = new int[locationIndices.size()];
+        int row = 0;
+        while (true) {
+            int key = 0;
+            int last = -1;
+            for (int i = 0; i < rows.length; i++) {
+                LocationIndex locationIndex = locationIndices.get(i);
+                if (rows[i] < locationIndex.size()) {
+                    int k = locationIndex.key(rows[i]);
+                    if (last < 0 || k <= key) {
+                        key = k;
+                        last = i;
+                    }
+                }
+            }
+            if (last < 0) {
+                break;
+            }
+            LocationIndex locationIndex = locationIndices.get(last);
+            keys[row] = key;
+            indices[row] = locationIndex.index(rows[last]);
+            positions[row] = locationIndex.position(rows[last]);
+            chromosomes[row] = chromosomeCodes[last][locationIndex.chromosomeCode(rows[last])];
+            row++;
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] < locationIndices.get(i).size() && locationIndices.get(i).key(rows[i]) == key) {
+                    rows[i]++;
+                }
+            }
+        }
+        if (row < size) {
+            keys = Arrays.copyOf(keys, row);
+            indices = Arrays.copyOf(indices, row);
+            positions = Arrays.copyOf(positions, row);
+            chromosomes = Arrays.copyOf(chromosomes, row);
+        }
+        return new LocationIndex(keys, indices, positions, chromosomes, chromosomeNames.toArray(new String[chromosomeNames.size()]));
+    }
+
+    /**
+     * Return the key for the location in the specified region of the buffer, or {@link Rsid#INVALID} if the
+     * location is not of the form <code>rs[0-9]+</code> or <code>i[0-9]+</code>.
+     *
+     * @param buffer buffer
+     * @param start region start, inclusive
+     * @param end region end, exclusive
+     * @return the key for the location in the specified region of the buffer, or {@link Rsid#INVALID}
+     */
+    static int key(final byte[] buffer, final int start, final int end) {
+        if (end - start > 2 && buffer[start] == 'r' && buffer[start + 1] == 's') {
+            int value = parseInt(buffer, start + 2, end);
+            return value < 0 ? Rsid.INVALID : value;
+        }
+        if (end - start > 1 && buffer[start] == 'i') {
+            int value = parseInt(buffer, start + 1, end);
+            return value < 0 ? Rsid.INVALID : -value;
+        }
+        return Rsid.INVALID;
+    }
+
+    /**
+     * Parse a non-negative decimal integer from the specified region of the buffer.
+     *
+     * @param buffer buffer
+     * @param start region start, inclusive
+     * @param end region end, exclusive
+     * @return the parsed integer, or <code>-1</code> if the region is empty, contains a non-digit, or overflows
+     */
+    static int parseInt(final byte[] buffer, final int start, final int end) {
+        if (start >= end) {
+            return -1;
+        }
+        long value = 0L;
+        for (int i = start; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10L + digit;
+            if (value > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        return (int) value;
+    }
+
+    /**
+     * Return the index of the first occurrence of the specified value in the specified region of the buffer.
+     *
+     * @param buffer buffer
+     * @param value value to find
+     * @param start region start, inclusive
+     * @param end region end, exclusive
+     * @return the index of the first occurrence of the specified value, or <code>end</code> if not found
+     */
+    private static int indexOf(final byte[] buffer, final byte value, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Return the start of the line following the specified offset.
+     *
+     * @param buffer buffer
+     * @param offset offset
+     * @return the start of the line following the specified offset, or the end of the buffer
+     */
+    private static int nextLine(final byte[] buffer, final int offset) {
+        int newline = indexOf(buffer, (byte) '\n', offset, buffer.length);
+        return newline < buffer.length ? newline + 1 : buffer.length;
+    }
+}
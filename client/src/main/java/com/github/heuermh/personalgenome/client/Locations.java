@@ -23,102 +23,360 @@
 */
 package com.github.heuermh.personalgenome.client;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.zip.GZIPInputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
 
-import javax.annotation.concurrent.Immutable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
 
-import com.google.common.collect.ImmutableMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Throwables;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Locations.
+ *
+ * <p>Locations are loaded lazily, on the first query or on a background thread started by
+ * {@link #preload()} or {@link #preload(String)}, from the first of the following that is available:
+ * <ul>
+ * <li>the binary index file named by the <code>com.github.heuermh.personalgenome.client.locations</code>
+ *     system property, memory-mapped</li>
+ * <li>the binary index file <code>snps.idx</code> on the classpath, memory-mapped if not packaged in a jar</li>
+ * <li>the gzipped <code>snps.data.gz</code> on the classpath, parsed</li>
+ * </ul>
+ * Binary index files are created by {@link LocationsIndexer}.</p>
+ *
+ * <p>Locations may be queried by name, e.g. <code>rs41362547</code>, or by numeric key, see {@link Rsid},
+ * and by chromosome and position range.</p>
+ *
+ * <p>Query methods block only until the data they need has been loaded.  When a chromosome is
+ * preloaded from <code>snps.data.gz</code>, the file is inflated once and that chromosome is parsed
+ * before the rest.</p>
  */
-@Immutable
+@ThreadSafe
 public final class Locations {
-    private static final Map<String, Location> LOCATIONS;
+    private static volatile String preloadChromosome;
+    private static volatile LocationIndex preloaded;
+    private static volatile LocationIndex loaded;
+    private static final AtomicBoolean STARTED = new AtomicBoolean(false);
+    private static final FutureTask<LocationIndex> LOAD = new FutureTask<LocationIndex>(new Callable<LocationIndex>() {
+            @Override
+            public LocationIndex call() throws Exception {
+                LocationIndex locationIndex = load(preloadChromosome);
+                loaded = locationIndex;
+                preloaded = null;
+                return locationIndex;
+            }
+        });
+    static final String INDEX_FILE_PROPERTY = "com.github.heuermh.personalgenome.client.locations";
+    private static final Logger logger = LoggerFactory.getLogger(Locations.class);
+
+
+    /**
+     * Start loading locations on a background thread, if loading has not already started.
+     */
+    public static void preload() {
+        if (STARTED.compareAndSet(false, true)) {
+            Thread thread = new Thread(LOAD, "locations-preload");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
 
-    static {
-        BufferedReader reader = null;
-        HashMap<String, Location> map = new HashMap<String, Location>(1200000);
+    /**
+     * Start loading locations on a background thread, if loading has not already started, loading
+     * locations on the specified chromosome first.  Queries for locations on the specified chromosome
+     * will not block once those have been loaded, while the remaining locations continue loading.
+     *
+     * @param chromosome chromosome to load first, must not be null
+     */
+    public static void preload(final String chromosome) {
+        checkNotNull(chromosome);
+        if (!STARTED.get()) {
+            preloadChromosome = chromosome;
+        }
+        preload();
+    }
+
+    /**
+     * Return true if all locations have been loaded.
+     *
+     * @return true if all locations have been loaded
+     */
+    public static boolean isReady() {
+        return LOAD.isDone();
+    }
+
+    /**
+     * Start loading locations on a background thread if necessary, and wait up to the specified timeout
+     * for all locations to be loaded.
+     *
+     * @param timeout maximum time to wait
+     * @param unit time unit of the timeout argument, must not be null
+     * @return true if all locations have been loaded, false if the timeout elapsed first
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     */
+    public static boolean awaitReady(final long timeout, final TimeUnit unit) throws InterruptedException {
+        checkNotNull(unit);
+        preload();
         try {
-            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Locations.class.getResourceAsStream("snps.data.gz"))));
-            while (reader.ready()) {
-                String line = reader.readLine();
-                if (line == null) {
-                    break;
-                }
-                String[] tokens = line.split("\t");
-                int index = Integer.parseInt(tokens[0]) * 2;
-                String location = tokens[1];
-                String chromosome = tokens[2];
-                int position = Integer.parseInt(tokens[3]);
-                map.put(location, new Location(index, chromosome, position));
-            }
+            LOAD.get(timeout, unit);
+            return true;
         }
-        catch (IOException e) {
-            // ignore
+        catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
         }
-        finally {
-            try {
-                reader.close();
-            }
-            catch (Exception e) {
-                // ignore
-            }
+        catch (TimeoutException e) {
+            return false;
         }
-        LOCATIONS = ImmutableMap.copyOf(map);
     }
 
     public static Iterable<String> locations() {
-        return LOCATIONS.keySet();
+        return await().locations();
     }
 
     public static int index(final String location) {
-        checkNotNull(location);
-        return LOCATIONS.containsKey(location) ? LOCATIONS.get(location).getIndex() : -1;
+        return index(Rsid.parse(location));
+    }
+
+    public static int index(final int rsid) {
+        LocationIndex locationIndex = locationIndex(rsid);
+        int row = locationIndex.row(rsid);
+        return row < 0 ? -1 : locationIndex.index(row);
+    }
+
+    /**
+     * Return the indices of the specified locations, for use with the bulk extraction methods of
+     * {@link Genome} and {@link PackedGenome}.
+     *
+     * @param locations locations, must not be null and must not contain null locations
+     * @return the indices of the specified locations, <code>-1</code> for locations not found
+     */
+    public static int[] indicesOf(final String... locations) {
+        checkNotNull(locations);
+        int[] indices = new int[locations.length];
+        for (int i = 0; i < locations.length; i++) {
+            checkNotNull(locations[i]);
+            indices[i] = index(Rsid.parse(locations[i]));
+        }
+        return indices;
+    }
+
+    /**
+     * Return the indices of the specified location keys, for use with the bulk extraction methods of
+     * {@link Genome} and {@link PackedGenome}.
+     *
+     * @param rsids location keys, must not be null, see {@link Rsid}
+     * @return the indices of the specified location keys, <code>-1</code> for location keys not found
+     */
+    public static int[] indicesOf(final int[] rsids) {
+        checkNotNull(rsids);
+        int[] indices = new int[rsids.length];
+        for (int i = 0; i < rsids.length; i++) {
+            indices[i] = index(rsids[i]);
+        }
+        return indices;
     }
 
     public static String chromosome(final String location) {
-        checkNotNull(location);
-        return LOCATIONS.containsKey(location) ? LOCATIONS.get(location).getChromosome() : null;
+        return chromosome(Rsid.parse(location));
+    }
+
+    public static String chromosome(final int rsid) {
+        LocationIndex locationIndex = locationIndex(rsid);
+        int row = locationIndex.row(rsid);
+        return row < 0 ? null : locationIndex.chromosome(row);
     }
 
     public static int position(final String location) {
-        checkNotNull(location);
-        return LOCATIONS.containsKey(location) ? LOCATIONS.get(location).getPosition() : -1;
+        return position(Rsid.parse(location));
+    }
+
+    public static int position(final int rsid) {
+        LocationIndex locationIndex = locationIndex(rsid);
+        int row = locationIndex.row(rsid);
+        return row < 0 ? -1 : locationIndex.position(row);
     }
 
     /**
-     * Location.
+     * Return the indices of the locations on the specified chromosome with positions in the specified range,
+     * sorted by position.
+     *
+     * @param chromosome chromosome, must not be null
+     * @param start range start, inclusive
+     * @param end range end, inclusive
+     * @return the indices of the locations on the specified chromosome with positions in the specified range,
+     *    sorted by position
      */
-    private static class Location {
-        private final int index;
-        private final String chromosome;
-        private final int position;
+    public static int[] indices(final String chromosome, final int start, final int end) {
+        checkNotNull(chromosome);
+        LocationIndex locationIndex = positionalIndex(chromosome);
+        int[] rows = locationIndex.rows(chromosome, start, end);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = locationIndex.index(rows[i]);
+        }
+        return rows;
+    }
+
+    /**
+     * Return the location keys of the locations on the specified chromosome with positions in the specified range,
+     * sorted by position.
+     *
+     * @param chromosome chromosome, must not be null
+     * @param start range start, inclusive
+     * @param end range end, inclusive
+     * @return the location keys of the locations on the specified chromosome with positions in the specified range,
+     *    sorted by position
+     */
+    public static int[] rsids(final String chromosome, final int start, final int end) {
+        checkNotNull(chromosome);
+        LocationIndex locationIndex = positionalIndex(chromosome);
+        int[] rows = locationIndex.rows(chromosome, start, end);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = locationIndex.key(rows[i]);
+        }
+        return rows;
+    }
+
+    /**
+     * Return the location keys of up to <code>count</code> locations on the specified chromosome nearest to
+     * the specified position, sorted by distance from the position, ties broken by lower position first.
+     *
+     * @param chromosome chromosome, must not be null
+     * @param position position
+     * @param count maximum number of location keys to return, must not be negative
+     * @return the location keys of up to <code>count</code> locations on the specified chromosome nearest to
+     *    the specified position
+     */
+    public static int[] nearest(final String chromosome, final int position, final int count) {
+        checkNotNull(chromosome);
+        checkArgument(count >= 0, "count must not be negative");
+        LocationIndex locationIndex = positionalIndex(chromosome);
+        int[] rows = locationIndex.nearestRows(chromosome, position, count);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = locationIndex.key(rows[i]);
+        }
+        return rows;
+    }
 
-        Location(final int index, final String chromosome, final int position) {
-            this.index = index;
-            this.chromosome = chromosome;
-            this.position = position;
+    /**
+     * Return the location index containing all the locations on the specified chromosome, waiting for
+     * all locations to be loaded only if the chromosome is not the preloaded chromosome.
+     *
+     * @param chromosome chromosome
+     * @return the location index containing all the locations on the specified chromosome
+     */
+    private static LocationIndex positionalIndex(final String chromosome) {
+        LocationIndex locationIndex = loaded;
+        if (locationIndex != null) {
+            return locationIndex;
         }
+        locationIndex = preloaded;
+        if (locationIndex != null && chromosome.equals(preloadChromosome)) {
+            return locationIndex;
+        }
+        return await();
+    }
+
+    /**
+     * Return the location index containing the specified location, waiting for all locations
+     * to be loaded only if the location is not in the preloaded chromosome.
+     *
+     * @param rsid location key
+     * @return the location index containing the specified location
+     */
+    private static LocationIndex locationIndex(final int rsid) {
+        LocationIndex locationIndex = loaded;
+        if (locationIndex != null) {
+            return locationIndex;
+        }
+        locationIndex = preloaded;
+        if (locationIndex != null && locationIndex.row(rsid) >= 0) {
+            return locationIndex;
+        }
+        return await();
+    }
 
-        int getIndex() {
-            return index;
+    /**
+     * Wait for all locations to be loaded, loading them on the current thread if loading has not already started.
+     *
+     * @return the location index containing all locations
+     */
+    private static LocationIndex await() {
+        LocationIndex locationIndex = loaded;
+        if (locationIndex != null) {
+            return locationIndex;
+        }
+        if (STARTED.compareAndSet(false, true)) {
+            LOAD.run();
+        }
+        try {
+            return Uninterruptibles.getUninterruptibly(LOAD);
+        }
+        catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
         }
+    }
 
-        String getChromosome() {
-            return chromosome;
+    private static LocationIndex load(final String chromosome) {
+        try {
+            LocationIndex locationIndex = loadIndex();
+            if (locationIndex != null) {
+                return locationIndex;
+            }
+            byte[] buffer = LocationIndexParser.inflate(Locations.class.getResourceAsStream("snps.data.gz"));
+            if (chromosome != null) {
+                preloaded = LocationIndexParser.parse(buffer, chromosome);
+            }
+            return LocationIndexParser.parse(buffer, null);
+        }
+        catch (IOException e) {
+            logger.warn("could not load locations", e);
         }
+        return new LocationIndex.Builder().build();
+    }
 
-        int getPosition() {
-            return position;
+    private static LocationIndex loadIndex() {
+        String indexFile = System.getProperty(INDEX_FILE_PROPERTY);
+        if (indexFile != null) {
+            try {
+                return LocationIndex.map(new File(indexFile));
+            }
+            catch (IOException e) {
+                logger.warn("could not map location index file " + indexFile + ", falling back to classpath", e);
+            }
+        }
+        URL index = Locations.class.getResource("snps.idx");
+        if (index != null) {
+            try {
+                if ("file".equals(index.getProtocol())) {
+                    return LocationIndex.map(new File(index.toURI()));
+                }
+                return LocationIndex.read(index.openStream());
+            }
+            catch (IOException e) {
+                logger.warn("could not read location index " + index + ", falling back to snps.data.gz", e);
+            }
+            catch (URISyntaxException e) {
+                logger.warn("could not read location index " + index + ", falling back to snps.data.gz", e);
+            }
         }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Create a binary location index file from <code>snps.data.gz</code>.
+ *
+ * <p>Usage: <code>java com.github.heuermh.personalgenome.client.LocationsIndexer snps.idx [snps.data.gz]</code></p>
+ *
+ * <p>If the input file is not specified, <code>snps.data.gz</code> is read from the classpath.</p>
+ */
+public final class LocationsIndexer {
+
+    /**
+     * Private no-arg constructor.
+     */
+    private LocationsIndexer() {
+        // empty
+    }
+
+
+    /**
+     * Main.
+     *
+     * @param args command line arguments, output binary index file and optional input <code>snps.data.gz</code> file
+     * @throws Exception if an error occurs
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: java " + LocationsIndexer.class.getName() + " snps.idx [snps.data.gz]");
+            System.exit(1);
+        }
+        File outputFile = new File(args[0]);
+        InputStream inputStream = args.length > 1 ? new FileInputStream(args[1]) : Locations.class.getResourceAsStream("snps.data.gz");
+        if (inputStream == null) {
+            System.err.println("could not find snps.data.gz on classpath");
+            System.exit(1);
+        }
+        LocationIndex locationIndex = LocationIndexParser.parse(inputStream);
+
+        File parent = outputFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        OutputStream outputStream = null;
+        try {
+            outputStream = new BufferedOutputStream(new FileOutputStream(outputFile));
+            locationIndex.write(outputStream);
+        }
+        finally {
+            try {
+                outputStream.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+}
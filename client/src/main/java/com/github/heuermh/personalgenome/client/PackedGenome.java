@@ -0,0 +1,573 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Genome packed into six bit codes per diploid call.
+ *
+ * <p>Each of the two characters of a call is one of <code>ACGT-_DI</code> and is stored in three bits, the first
+ * character in the high bits of the code, so for example <code>AA</code> is <code>0</code> and <code>__</code>
+ * (not genotyped) is {@link #NOT_GENOTYPED}.  Ten calls are packed into each <code>long</code>, about
+ * 0.8 bytes per call compared to two or four bytes per call for {@link Genome#getValues()}.</p>
+ *
+ * <p>Calls are addressed by the same indices as {@link Genome}, i.e. those returned by {@link Locations#index(String)}.</p>
+ */
+@Immutable
+public final class PackedGenome {
+    private final String profileId;
+    private final int length;
+    private final long[] words;
+
+    /** Code for the not genotyped call <code>__</code>. */
+    public static final int NOT_GENOTYPED = 45;
+
+    /** Code returned for indices without a call. */
+    public static final int NO_CODE = -1;
+
+    /** Characters, in code order. */
+    private static final char[] SYMBOLS = { 'A', 'C', 'G', 'T', '-', '_', 'D', 'I' };
+
+    /** Calls, in code order. */
+    private static final String[] CALLS = new String[64];
+
+    static {
+        for (int code = 0; code < CALLS.length; code++) {
+            CALLS[code] = new String(new char[] { SYMBOLS[code >> 3], SYMBOLS[code & 0x7] });
+        }
+    }
+
+    /** Calls per word. */
+    private static final int CALLS_PER_WORD = 10;
+
+
+    /**
+     * Create a new packed genome.
+     *
+     * @param profileId profile id
+     * @param length length in characters, two per call
+     * @param words packed calls
+     */
+    private PackedGenome(final String profileId, final int length, final long[] words) {
+        this.profileId = profileId;
+        this.length = length;
+        this.words = words;
+    }
+
+
+    public String getProfileId() {
+        return profileId;
+    }
+
+    /**
+     * Return the length of this packed genome in characters, two per call, the same as
+     * the length of {@link Genome#getValues()}.
+     *
+     * @return the length of this packed genome in characters
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Return the code of the call at the specified index, without allocating.
+     *
+     * @param index index
+     * @return the code of the call at the specified index, or {@link #NO_CODE} if the index is out of range
+     */
+    public int code(final int index) {
+        if (index < 0 || index >= length - 1) {
+            return NO_CODE;
+        }
+        int call = index >> 1;
+        return (int) (words[call / CALLS_PER_WORD] >>> ((call % CALLS_PER_WORD) * 6)) & 0x3f;
+    }
+
+    /**
+     * Copy the two characters of the call at the specified index into the specified destination array.
+     * If the index is out of range, <code>__</code> is copied instead.
+     *
+     * @param index index
+     * @param destination destination array, must not be null
+     * @param offset offset into the destination array
+     */
+    public void getChars(final int index, final char[] destination, final int offset) {
+        checkNotNull(destination);
+        int code = code(index);
+        if (code == NO_CODE) {
+            code = NOT_GENOTYPED;
+        }
+        destination[offset] = first(code);
+        destination[offset + 1] = second(code);
+    }
+
+    /**
+     * Copy the calls at the specified indices into the specified destination array, two characters
+     * per index, without allocating.  Indices out of range are copied as <code>__</code>.
+     *
+     * @param indices indices, must not be null, see {@link Locations#indicesOf(String...)}
+     * @param destination destination array, must not be null and must have room for two characters
+     *    per index from the specified offset
+     * @param offset offset into the destination array
+     */
+    public void extract(final int[] indices, final char[] destination, final int offset) {
+        checkNotNull(indices);
+        checkNotNull(destination);
+        checkPositionIndexes(offset, offset + indices.length * 2, destination.length);
+        for (int i = 0, d = offset; i < indices.length; i++, d += 2) {
+            int code = code(indices[i]);
+            if (code == NO_CODE) {
+                code = NOT_GENOTYPED;
+            }
+            destination[d] = first(code);
+            destination[d + 1] = second(code);
+        }
+    }
+
+    /**
+     * Copy the calls at the specified indices into the specified destination array as ASCII bytes, two
+     * bytes per index, without allocating.  Indices out of range are copied as <code>__</code>.
+     *
+     * @param indices indices, must not be null, see {@link Locations#indicesOf(String...)}
+     * @param destination destination array, must not be null and must have room for two bytes
+     *    per index from the specified offset
+     * @param offset offset into the destination array
+     */
+    public void extract(final int[] indices, final byte[] destination, final int offset) {
+        checkNotNull(indices);
+        checkNotNull(destination);
+        checkPositionIndexes(offset, offset + indices.length * 2, destination.length);
+        for (int i = 0, d = offset; i < indices.length; i++, d += 2) {
+            int code = code(indices[i]);
+            if (code == NO_CODE) {
+                code = NOT_GENOTYPED;
+            }
+            destination[d] = (byte) first(code);
+            destination[d + 1] = (byte) second(code);
+        }
+    }
+
+    /**
+     * Copy the codes of the calls at the specified indices into the specified destination array, one
+     * byte per index, without allocating.  Indices out of range are copied as {@link #NO_CODE}.
+     *
+     * @param indices indices, must not be null, see {@link Locations#indicesOf(String...)}
+     * @param destination destination array, must not be null and must have room for one byte
+     *    per index from the specified offset
+     * @param offset offset into the destination array
+     */
+    public void extractCodes(final int[] indices, final byte[] destination, final int offset) {
+        checkNotNull(indices);
+        checkNotNull(destination);
+        checkPositionIndexes(offset, offset + indices.length, destination.length);
+        for (int i = 0, d = offset; i < indices.length; i++, d++) {
+            destination[d] = (byte) code(indices[i]);
+        }
+    }
+
+    /**
+     * Return the call at the specified index.
+     *
+     * @param index index
+     * @return the call at the specified index, or <code>null</code> if the index is out of range
+     */
+    public String getValue(final int index) {
+        int code = code(index);
+        return code == NO_CODE ? null : call(code);
+    }
+
+    public Genotype asGenotype() {
+        return asGenotype(Locations.locations());
+    }
+
+    public Genotype asGenotype(final String... locations) {
+        checkNotNull(locations);
+        Genotype.Builder builder = new Genotype.Builder(locations.length).withProfileId(profileId);
+        for (String location : locations) {
+            checkNotNull(location);
+            String value = getValue(Locations.index(location));
+            if (value != null) {
+                builder.add(location, value);
+            }
+        }
+        return builder.build();
+    }
+
+    public Genotype asGenotype(final int... rsids) {
+        checkNotNull(rsids);
+        Genotype.Builder builder = new Genotype.Builder(rsids.length).withProfileId(profileId);
+        for (int rsid : rsids) {
+            int code = code(Locations.index(rsid));
+            if (code != NO_CODE) {
+                builder.add(rsid, code);
+            }
+        }
+        return builder.build();
+    }
+
+    public Genotype asGenotype(final Iterable<String> locations) {
+        checkNotNull(locations);
+        Genotype.Builder builder = new Genotype.Builder().withProfileId(profileId);
+        for (String location : locations) {
+            checkNotNull(location);
+            String value = getValue(Locations.index(location));
+            if (value != null) {
+                builder.add(location, value);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Project the specified panel onto this packed genome.
+     *
+     * @param panel panel, must not be null
+     * @return the specified panel projected onto this packed genome
+     */
+    public Genotype asGenotype(final Panel panel) {
+        checkNotNull(panel);
+        int[] rsids = panel.sharedRsids();
+        int[] indices = panel.sharedIndices();
+        Genotype.Builder builder = new Genotype.Builder(indices.length).withProfileId(profileId);
+        for (int i = 0; i < indices.length; i++) {
+            int code = code(indices[i]);
+            if (code == NO_CODE) {
+                break;
+            }
+            builder.add(rsids[i], code);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Copy the calls for the specified panel into the specified destination array, two characters
+     * per location in panel order, without allocating.
+     *
+     * @param panel panel, must not be null
+     * @param destination destination array, must not be null and must have room for two characters
+     *    per location in the panel from the specified offset
+     * @param offset offset into the destination array
+     */
+    public void extract(final Panel panel, final char[] destination, final int offset) {
+        checkNotNull(panel);
+        extract(panel.sharedIndices(), destination, offset);
+    }
+
+    /**
+     * Copy the calls for the specified panel into the specified destination array as ASCII bytes, two
+     * bytes per location in panel order, without allocating.
+     *
+     * @param panel panel, must not be null
+     * @param destination destination array, must not be null and must have room for two bytes
+     *    per location in the panel from the specified offset
+     * @param offset offset into the destination array
+     */
+    public void extract(final Panel panel, final byte[] destination, final int offset) {
+        checkNotNull(panel);
+        extract(panel.sharedIndices(), destination, offset);
+    }
+
+    /**
+     * Unpack this packed genome into a genome.
+     *
+     * @return this packed genome unpacked into a genome
+     */
+    public Genome asGenome() {
+        char[] values = new char[length];
+        for (int index = 0; index < length; index += 2) {
+            getChars(index, values, index);
+        }
+        return new Genome(profileId, new String(values));
+    }
+
+    /**
+     * Return the packed calls of this packed genome.  The array is shared, not copied, and must not be modified.
+     *
+     * @return the packed calls of this packed genome
+     */
+    long[] words() {
+        return words;
+    }
+
+    /**
+     * Create and return a new packed genome from the specified packed calls, as returned by {@link #words()}.
+     * The array is not copied.
+     *
+     * @param profileId profile id, must not be null
+     * @param length length in characters, two per call, must be even and at least zero
+     * @param words packed calls, must not be null and must hold exactly <code>length / 2</code> calls
+     * @return a new packed genome from the specified packed calls
+     */
+    static PackedGenome fromWords(final String profileId, final int length, final long[] words) {
+        checkNotNull(profileId);
+        checkNotNull(words);
+        checkArgument(length >= 0 && length % 2 == 0, "length must be even and at least zero");
+        checkArgument(words.length == (length / 2 + CALLS_PER_WORD - 1) / CALLS_PER_WORD, "words must hold exactly length / 2 calls");
+        return new PackedGenome(profileId, length, words);
+    }
+
+    /**
+     * Return the first character of the call with the specified code.
+     *
+     * @param code code
+     * @return the first character of the call with the specified code
+     */
+    public static char first(final int code) {
+        return SYMBOLS[(code >> 3) & 0x7];
+    }
+
+    /**
+     * Return the second character of the call with the specified code.
+     *
+     * @param code code
+     * @return the second character of the call with the specified code
+     */
+    public static char second(final int code) {
+        return SYMBOLS[code & 0x7];
+    }
+
+    /**
+     * Return the code of the call with the specified characters.
+     *
+     * @param first first character, must be one of <code>ACGT-_DI</code>
+     * @param second second character, must be one of <code>ACGT-_DI</code>
+     * @return the code of the call with the specified characters
+     */
+    public static int code(final char first, final char second) {
+        return (symbol(first) << 3) | symbol(second);
+    }
+
+    /**
+     * Pack the specified genome values.
+     *
+     * @param profileId profile id, must not be null
+     * @param values genome values, must not be null, must be of even length, and must contain only
+     *    characters <code>ACGT-_DI</code>
+     * @return the specified genome values packed
+     */
+    public static PackedGenome valueOf(final String profileId, final CharSequence values) {
+        checkNotNull(values);
+        checkArgument(values.length() % 2 == 0, "values must be of even length");
+        return new Builder(values.length()).withProfileId(profileId).append(values).build();
+    }
+
+    /**
+     * Return the three bit symbol for the specified character.
+     *
+     * @param c character
+     * @return the three bit symbol for the specified character
+     * @throws IllegalArgumentException if the character is not one of <code>ACGT-_DI</code>
+     */
+    private static int symbol(final char c) {
+        int symbol = symbolOrNoCode(c);
+        if (symbol == NO_CODE) {
+            throw new IllegalArgumentException("invalid genome character " + c);
+        }
+        return symbol;
+    }
+
+    /**
+     * Return the three bit symbol for the specified character, or {@link #NO_CODE} if the character
+     * is not one of <code>ACGT-_DI</code>.
+     *
+     * @param c character
+     * @return the three bit symbol for the specified character, or {@link #NO_CODE}
+     */
+    private static int symbolOrNoCode(final char c) {
+        switch (c) {
+        case 'A':
+            return 0;
+        case 'C':
+            return 1;
+        case 'G':
+            return 2;
+        case 'T':
+            return 3;
+        case '-':
+            return 4;
+        case '_':
+            return 5;
+        case 'D':
+            return 6;
+        case 'I':
+            return 7;
+        default:
+            return NO_CODE;
+        }
+    }
+
+    /**
+     * Return the code of the specified call, or {@link #NO_CODE} if the call is not two
+     * characters of <code>ACGT-_DI</code>.
+     *
+     * @param value call
+     * @return the code of the specified call, or {@link #NO_CODE}
+     */
+    static int encode(final CharSequence value) {
+        return value.length() == 2 ? encode(value.charAt(0), value.charAt(1)) : NO_CODE;
+    }
+
+    /**
+     * Return the code of the call with the specified characters, or {@link #NO_CODE} if either character
+     * is not one of <code>ACGT-_DI</code>.
+     *
+     * @param first first character
+     * @param second second character
+     * @return the code of the call with the specified characters, or {@link #NO_CODE}
+     */
+    static int encode(final char first, final char second) {
+        int firstSymbol = symbolOrNoCode(first);
+        int secondSymbol = symbolOrNoCode(second);
+        return (firstSymbol == NO_CODE || secondSymbol == NO_CODE) ? NO_CODE : (firstSymbol << 3) | secondSymbol;
+    }
+
+    /**
+     * Return the call with the specified code as a shared string instance.
+     *
+     * @param code code
+     * @return the call with the specified code as a shared string instance
+     */
+    static String call(final int code) {
+        return CALLS[code & 0x3f];
+    }
+
+
+    /**
+     * Packed genome builder, accepting genome values in arbitrary chunks.
+     */
+    @NotThreadSafe
+    public static final class Builder {
+        private String profileId;
+        private long[] words;
+        private int calls;
+        private int pending = -1;
+
+
+        /**
+         * Create a new packed genome builder.
+         */
+        public Builder() {
+            this(2 * 1024 * 1024);
+        }
+
+        /**
+         * Create a new packed genome builder with the specified expected length in characters.
+         *
+         * @param expectedLength expected length in characters, must not be negative
+         */
+        public Builder(final int expectedLength) {
+            checkArgument(expectedLength >= 0, "expectedLength must not be negative");
+            words = new long[Math.max(1, (expectedLength / 2 + CALLS_PER_WORD - 1) / CALLS_PER_WORD)];
+        }
+
+
+        /**
+         * Return this packed genome builder configured with the specified profile id.
+         *
+         * @param profileId profile id, must not be null
+         * @return this packed genome builder configured with the specified profile id
+         */
+        public Builder withProfileId(final String profileId) {
+            checkNotNull(profileId);
+            this.profileId = profileId;
+            return this;
+        }
+
+        /**
+         * Append the specified genome character.
+         *
+         * @param c genome character, must be one of <code>ACGT-_DI</code>
+         * @return this packed genome builder
+         */
+        public Builder append(final char c) {
+            int symbol = symbol(c);
+            if (pending < 0) {
+                pending = symbol;
+                return this;
+            }
+            int word = calls / CALLS_PER_WORD;
+            if (word == words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            words[word] |= ((long) ((pending << 3) | symbol)) << ((calls % CALLS_PER_WORD) * 6);
+            calls++;
+            pending = -1;
+            return this;
+        }
+
+        /**
+         * Append the specified range of genome characters.
+         *
+         * @param values genome characters, must not be null
+         * @param offset offset into the genome characters
+         * @param length number of genome characters to append
+         * @return this packed genome builder
+         */
+        public Builder append(final char[] values, final int offset, final int length) {
+            checkNotNull(values);
+            for (int i = offset, end = offset + length; i < end; i++) {
+                append(values[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Append the specified genome characters.
+         *
+         * @param values genome characters, must not be null
+         * @return this packed genome builder
+         */
+        public Builder append(final CharSequence values) {
+            checkNotNull(values);
+            for (int i = 0, length = values.length(); i < length; i++) {
+                append(values.charAt(i));
+            }
+            return this;
+        }
+
+        /**
+         * Build and return a new packed genome.
+         *
+         * @return a new packed genome
+         * @throws NullPointerException if no profile id has been provided
+         * @throws IllegalStateException if an odd number of genome characters have been appended
+         */
+        public PackedGenome build() {
+            checkNotNull(profileId, "profileId must not be null");
+            if (pending >= 0) {
+                throw new IllegalStateException("odd number of genome characters");
+            }
+            int size = (calls + CALLS_PER_WORD - 1) / CALLS_PER_WORD;
+            return new PackedGenome(profileId, calls * 2, size == words.length ? words.clone() : Arrays.copyOf(words, size));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+/**
+ * Personal genome API client that can also return genomes packed into six bit codes per call.
+ *
+ * <p>Packed genomes are kept on this separate interface so that implementations of
+ * {@link PersonalGenomeClient} written before it was added remain valid.  The clients in this
+ * package implement it.</p>
+ */
+public interface PackedGenomeClient extends PersonalGenomeClient {
+
+    /**
+     * Return the genome for the specified profile packed into six bit codes per call.
+     *
+     * <p>Scope required: <code>genomes</code></p>
+     *
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return the genome for the specified profile packed into six bit codes per call
+     *
+     * @throws AccessDeniedException if the resource owner or authorization server denied the request
+     * @throws InvalidClientException if client authentication failed (e.g. unknown client, no client credentials
+     *    included, multiple client credentials included, or unsupported credentials type)
+     * @throws InvalidRequestException if request is missing a required parameter, includes an unsupported parameter
+     *    or parameter value, or is otherwise malformed
+     * @throws InvalidScopeException if the requested scope is invalid, unknown, or malformed
+     */
+    PackedGenome packedGenome(String profileId);
+}
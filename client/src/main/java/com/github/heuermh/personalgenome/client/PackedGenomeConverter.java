@@ -0,0 +1,43 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import java.io.InputStream;
+
+/**
+ * Converter that can also parse genomes packed into six bit codes per call.
+ *
+ * <p>Packed genomes are kept on this separate interface so that implementations of
+ * {@link PersonalGenomeConverter} written before it was added remain valid.</p>
+ */
+public interface PackedGenomeConverter extends PersonalGenomeConverter {
+
+    /**
+     * Parse the specified input stream and return packed genomes.
+     *
+     * @param inputStream input stream, must not be null
+     * @return the specified input stream parsed into packed genomes
+     */
+    PackedGenome parsePackedGenomes(InputStream inputStream);
+}
@@ -0,0 +1,59 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Packed genome utility methods.
+ */
+final class PackedGenomes {
+
+    /**
+     * Private no-arg constructor.
+     */
+    private PackedGenomes() {
+        // empty
+    }
+
+
+    /**
+     * Return the genome for the specified profile packed into six bit codes per call, from the specified
+     * client if it is a {@link PackedGenomeClient}, otherwise by packing the genome it returns.
+     *
+     * @param client personal genome API client, must not be null
+     * @param profileId identifier for profile associated with current user, must not be null
+     * @return the genome for the specified profile packed into six bit codes per call, or <code>null</code>
+     *    if the client returned none
+     */
+    static PackedGenome packedGenome(final PersonalGenomeClient client, final String profileId) {
+        checkNotNull(client);
+        checkNotNull(profileId);
+        if (client instanceof PackedGenomeClient) {
+            return ((PackedGenomeClient) client).packedGenome(profileId);
+        }
+        Genome genome = client.genome(profileId);
+        return genome == null ? null : PackedGenome.valueOf(genome.getProfileId(), genome.getValues());
+    }
+}
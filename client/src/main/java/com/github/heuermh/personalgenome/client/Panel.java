@@ -0,0 +1,241 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Panel of locations resolved once against {@link Locations}, for projecting many genomes.
+ *
+ * <p>Resolved locations are held in the order of their indices, so projecting a panel reads the values of a genome
+ * sequentially.  Locations that did not resolve are available from {@link #unresolved()}.  Duplicate
+ * locations are included once.</p>
+ */
+@Immutable
+public final class Panel {
+    private final int[] rsids;
+    private final int[] indices;
+    private final List<String> unresolved;
+
+
+    /**
+     * Create a new panel.
+     *
+     * @param rsids resolved location keys, in index order
+     * @param indices indices, in ascending order
+     * @param unresolved unresolved locations
+     */
+    private Panel(final int[] rsids, final int[] indices, final List<String> unresolved) {
+        this.rsids = rsids;
+        this.indices = indices;
+        this.unresolved = unresolved;
+    }
+
+
+    /**
+     * Return the number of resolved locations in this panel.
+     *
+     * @return the number of resolved locations in this panel
+     */
+    public int size() {
+        return rsids.length;
+    }
+
+    /**
+     * Return the location key of the resolved location at the specified position in this panel.
+     *
+     * @param i position, must be at least zero and less than {@link #size()}
+     * @return the location key of the resolved location at the specified position in this panel
+     */
+    public int rsid(final int i) {
+        return rsids[i];
+    }
+
+    /**
+     * Return the resolved location at the specified position in this panel.
+     *
+     * @param i position, must be at least zero and less than {@link #size()}
+     * @return the resolved location at the specified position in this panel
+     */
+    public String location(final int i) {
+        return Rsid.format(rsids[i]);
+    }
+
+    /**
+     * Return the index of the resolved location at the specified position in this panel.
+     *
+     * @param i position, must be at least zero and less than {@link #size()}
+     * @return the index of the resolved location at the specified position in this panel
+     */
+    public int index(final int i) {
+        return indices[i];
+    }
+
+    /**
+     * Return the location keys of the resolved locations in this panel, in index order.
+     *
+     * @return the location keys of the resolved locations in this panel, in index order
+     */
+    public int[] rsids() {
+        return rsids.clone();
+    }
+
+    /**
+     * Return the indices of the resolved locations in this panel, in ascending order.
+     *
+     * @return the indices of the resolved locations in this panel, in ascending order
+     */
+    public int[] indices() {
+        return indices.clone();
+    }
+
+    /**
+     * Return the locations that did not resolve, in the order they were provided.
+     *
+     * @return the locations that did not resolve, in the order they were provided
+     */
+    public List<String> unresolved() {
+        return unresolved;
+    }
+
+    /**
+     * Return the location keys of the resolved locations in this panel without copying.
+     *
+     * @return the location keys of the resolved locations in this panel without copying
+     */
+    int[] sharedRsids() {
+        return rsids;
+    }
+
+    /**
+     * Return the indices of the resolved locations in this panel without copying.
+     *
+     * @return the indices of the resolved locations in this panel without copying
+     */
+    int[] sharedIndices() {
+        return indices;
+    }
+
+    /**
+     * Create and return a new panel for the specified locations.
+     *
+     * @param locations locations, must not be null and must not contain null locations
+     * @return a new panel for the specified locations
+     */
+    public static Panel of(final String... locations) {
+        checkNotNull(locations);
+        return of(Arrays.asList(locations));
+    }
+
+    /**
+     * Create and return a new panel for the specified locations.
+     *
+     * @param locations locations, must not be null and must not contain null locations
+     * @return a new panel for the specified locations
+     */
+    public static Panel of(final Iterable<String> locations) {
+        checkNotNull(locations);
+        Resolver resolver = new Resolver();
+        for (String location : locations) {
+            checkNotNull(location);
+            int rsid = Rsid.parse(location);
+            if (rsid == Rsid.INVALID) {
+                resolver.unresolved(location);
+            }
+            else {
+                resolver.resolve(rsid);
+            }
+        }
+        return resolver.build();
+    }
+
+    /**
+     * Create and return a new panel for the specified location keys.
+     *
+     * @param rsids location keys, must not be null and must not contain {@link Rsid#INVALID}, see {@link Rsid}
+     * @return a new panel for the specified location keys
+     */
+    public static Panel of(final int[] rsids) {
+        checkNotNull(rsids);
+        Resolver resolver = new Resolver();
+        for (int rsid : rsids) {
+            checkArgument(rsid != Rsid.INVALID, "rsids must not contain INVALID");
+            resolver.resolve(rsid);
+        }
+        return resolver.build();
+    }
+
+
+    /**
+     * Resolver.
+     */
+    private static final class Resolver {
+        private int size;
+        private long[] resolved = new long[64];
+        private final Set<Integer> seen = new HashSet<Integer>();
+        private final Set<String> unresolved = new LinkedHashSet<String>();
+
+
+        void resolve(final int rsid) {
+            if (!seen.add(rsid)) {
+                return;
+            }
+            int index = Locations.index(rsid);
+            if (index < 0) {
+                unresolved.add(Rsid.format(rsid));
+                return;
+            }
+            if (size == resolved.length) {
+                resolved = Arrays.copyOf(resolved, size * 2);
+            }
+            resolved[size++] = ((long) index << 32) | (rsid & 0xffffffffL);
+        }
+
+        void unresolved(final String location) {
+            unresolved.add(location);
+        }
+
+        Panel build() {
+            Arrays.sort(resolved, 0, size);
+            int[] rsids = new int[size];
+            int[] indices = new int[size];
+            for (int i = 0; i < size; i++) {
+                indices[i] = (int) (resolved[i] >> 32);
+                rsids[i] = (int) resolved[i];
+            }
+            return new Panel(rsids, indices, ImmutableList.copyOf(unresolved));
+        }
+    }
+}
@@ -181,7 +181,8 @@ public interface PersonalGenomeClient {
 
     /**
      * Return an iterator over the relatives on 23andMe for the specified profile.  The iterator will
-     * fetch lazily from 23andMe every 100 relatives.
+     * fetch lazily from 23andMe a page of relatives at a time, 100 relatives per page by default.
+     * Implementations may fetch the next page in the background while the current page is consumed.
      *
      * <p>Scope required: <code>relatives:write</code></p>
      *
@@ -0,0 +1,40 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+/**
+ * Personal genome API transport, builds, authorizes, and executes requests on behalf of
+ * {@link TransportPersonalGenomeClient}.
+ */
+public interface PersonalGenomeTransport {
+
+    /**
+     * Execute a GET request for the specified path and return its response.  Callers must close
+     * the response body stream once read.
+     *
+     * @param path path and query relative to the API base URL, e.g. <code>names/c3a110/</code>, must not be null
+     * @return the response to the request
+     */
+    TransportResponse get(String path);
+}
@@ -0,0 +1,137 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Positional index over a location index, with rows grouped by chromosome and sorted by position.
+ */
+@Immutable
+final class PositionIndex {
+    private final int[][] positions;
+    private final int[][] rows;
+
+
+    /**
+     * Create a new positional index over the specified location index.
+     *
+     * @param locationIndex location index
+     */
+    PositionIndex(final LocationIndex locationIndex) {
+        int chromosomes = locationIndex.chromosomeNames().length;
+        int[] counts = new int[chromosomes];
+        for (int row = 0, size = locationIndex.size(); row < size; row++) {
+            counts[locationIndex.chromosomeCode(row)]++;
+        }
+        long[][] order = new long[chromosomes][];
+        for (int code = 0; code < chromosomes; code++) {
+            order[code] = new long[counts[code]];
+        }
+        int[] offsets = new int[chromosomes];
+        for (int row = 0, size = locationIndex.size(); row < size; row++) {
+            byte code = locationIndex.chromosomeCode(row);
+            order[code][offsets[code]++] = ((long) locationIndex.position(row) << 32) | row;
+        }
+        positions = new int[chromosomes][];
+        rows = new int[chromosomes][];
+        for (int code = 0; code < chromosomes; code++) {
+            Arrays.sort(order[code]);
+            positions[code] = new int[counts[code]];
+            rows[code] = new int[counts[code]];
+            for (int i = 0; i < counts[code]; i++) {
+                positions[code][i] = (int) (order[code][i] >> 32);
+                rows[code][i] = (int) order[code][i];
+            }
+        }
+    }
+
+
+    /**
+     * Return the rows on the specified chromosome with positions in the specified range, sorted by position.
+     *
+     * @param code chromosome code
+     * @param start range start, inclusive
+     * @param end range end, inclusive
+     * @return the rows on the specified chromosome with positions in the specified range, sorted by position
+     */
+    int[] rows(final int code, final int start, final int end) {
+        if (end < start) {
+            return new int[0];
+        }
+        int from = lowerBound(positions[code], start);
+        int to = end == Integer.MAX_VALUE ? positions[code].length : lowerBound(positions[code], end + 1);
+        return Arrays.copyOfRange(rows[code], from, to);
+    }
+
+    /**
+     * Return up to <code>count</code> rows on the specified chromosome nearest to the specified position,
+     * sorted by distance from the position, ties broken by lower position first.
+     *
+     * @param code chromosome code
+     * @param position position
+     * @param count maximum number of rows to return
+     * @return up to <code>count</code> rows on the specified chromosome nearest to the specified position
+     */
+    int[] nearestRows(final int code, final int position, final int count) {
+        int[] chromosomePositions = positions[code];
+        int[] nearest = new int[Math.min(count, chromosomePositions.length)];
+        int right = lowerBound(chromosomePositions, position);
+        int left = right - 1;
+        for (int i = 0; i < nearest.length; i++) {
+            if (right >= chromosomePositions.length
+                || (left >= 0 && (long) position - chromosomePositions[left] <= (long) chromosomePositions[right] - position)) {
+                nearest[i] = rows[code][left--];
+            }
+            else {
+                nearest[i] = rows[code][right++];
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Return the index of the first value greater than or equal to the specified value.
+     *
+     * @param values sorted values
+     * @param value value
+     * @return the index of the first value greater than or equal to the specified value
+     */
+    private static int lowerBound(final int[] values, final int value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.google.common.base.Throwables;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Iterator over pages of results, fetching the next page in the background while the current page is consumed.
+ * Pages may hold fewer results than requested without being the last; iteration ends at the first empty page.
+ * Without an executor service, each page is fetched on the calling thread once the previous page is consumed.
+ *
+ * @param <T> result type
+ */
+@NotThreadSafe
+abstract class PrefetchingPageIterator<T> implements Iterator<T> {
+    private final int pageSize;
+    private final ListeningExecutorService executorService;
+    private int offset;
+    private boolean exhausted;
+    private Iterator<T> page;
+    private ListenableFuture<List<T>> next;
+
+
+    /**
+     * Create a new prefetching page iterator.
+     *
+     * @param pageSize page size, must be at least one
+     * @param executorService executor service to prefetch pages on, or <code>null</code> to fetch lazily
+     */
+    PrefetchingPageIterator(final int pageSize, final ListeningExecutorService executorService) {
+        this.pageSize = pageSize;
+        this.executorService = executorService;
+    }
+
+
+    /**
+     * Fetch and return up to <code>limit</code> results, starting from the specified offset.
+     *
+     * @param offset offset
+     * @param limit limit
+     * @return up to <code>limit</code> results, starting from the specified offset
+     */
+    abstract List<T> fetch(int offset, int limit);
+
+    /**
+     * Fetch the first page on the calling thread, so that failures are thrown to the caller immediately.
+     *
+     * @return this prefetching page iterator
+     */
+    PrefetchingPageIterator<T> start() {
+        accept(fetch(0, pageSize));
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (page == null) {
+            start();
+        }
+        while (!page.hasNext()) {
+            if (exhausted) {
+                return false;
+            }
+            List<T> results = next == null ? fetch(offset, pageSize) : await(next);
+            next = null;
+            accept(results);
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Accept the specified page as the current page, and start prefetching the next page if the specified page
+     * is not empty.
+     *
+     * @param results page of results
+     * @throws PersonalGenomeClientException if the specified page is null, e.g. because it could not be parsed
+     */
+    private void accept(final List<T> results) {
+        if (results == null) {
+            throw new PersonalGenomeClientException("could not read page of results at offset " + offset);
+        }
+        page = results.iterator();
+        offset += results.size();
+        if (results.isEmpty()) {
+            exhausted = true;
+        }
+        else if (executorService != null) {
+            final int nextOffset = offset;
+            next = executorService.submit(new Callable<List<T>>() {
+                    @Override
+                    public List<T> call() {
+                        return fetch(nextOffset, pageSize);
+                    }
+                });
+        }
+    }
+
+    private static <T> List<T> await(final ListenableFuture<List<T>> future) {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PersonalGenomeClientException("interrupted waiting for next page");
+        }
+    }
+}
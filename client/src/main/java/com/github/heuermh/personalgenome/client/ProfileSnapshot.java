@@ -0,0 +1,192 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Snapshot of the results of one or more calls for a profile, with per-call failures.
+ */
+@Immutable
+public final class ProfileSnapshot {
+    private final String profileId;
+    private final Map<Call, Object> results;
+    private final Map<Call, Throwable> failures;
+
+    /** Result types by call.  {@link Call#RELATIVES} holds all relatives, see {@link PersonalGenomeClient#relatives(String)}. */
+    private static final Map<Call, Class<?>> RESULT_TYPES = Maps.immutableEnumMap(ImmutableMap.<Call, Class<?>>builder()
+        .put(Call.NAMES, UserName.class)
+        .put(Call.HAPLOGROUPS, Haplogroup.class)
+        .put(Call.GENOME, Genome.class)
+        .put(Call.PACKED_GENOME, PackedGenome.class)
+        .put(Call.ANCESTRY, Ancestry.class)
+        .put(Call.NEANDERTHAL_PROPORTION, Double.class)
+        .put(Call.RELATIVES, List.class)
+        .put(Call.RISKS, List.class)
+        .put(Call.CARRIERS, List.class)
+        .put(Call.DRUG_RESPONSES, List.class)
+        .put(Call.TRAITS, List.class)
+        .build());
+
+    /** Calls a profile snapshot may contain, all but {@link Call#USER} and {@link Call#GENOTYPES}. */
+    public static final Set<Call> CALLS = RESULT_TYPES.keySet();
+
+
+    /**
+     * Create a new profile snapshot.
+     *
+     * @param profileId profile id, must not be null
+     * @param results results by call, must not be null, must only contain calls in {@link #CALLS}, and each
+     *    result must not be null and must be of the result type of its call
+     * @param failures failures by call, must not be null and must not contain any call in results
+     */
+    public ProfileSnapshot(final String profileId, final Map<Call, ?> results, final Map<Call, ? extends Throwable> failures) {
+        checkNotNull(profileId);
+        checkNotNull(results);
+        checkNotNull(failures);
+        this.profileId = profileId;
+
+        EnumMap<Call, Object> resultsCopy = new EnumMap<Call, Object>(Call.class);
+        for (Map.Entry<Call, ?> entry : results.entrySet()) {
+            Call call = checkNotNull(entry.getKey());
+            Object result = checkNotNull(entry.getValue());
+            Class<?> type = RESULT_TYPES.get(call);
+            checkArgument(type != null, "%s is not a profile snapshot call", call);
+            checkArgument(type.isInstance(result), "result for %s must be a %s", call, type.getSimpleName());
+            resultsCopy.put(call, result instanceof List ? ImmutableList.copyOf((List<?>) result) : result);
+        }
+        EnumMap<Call, Throwable> failuresCopy = new EnumMap<Call, Throwable>(Call.class);
+        for (Map.Entry<Call, ? extends Throwable> entry : failures.entrySet()) {
+            Call call = checkNotNull(entry.getKey());
+            checkArgument(!resultsCopy.containsKey(call), "%s must not have both a result and a failure", call);
+            failuresCopy.put(call, checkNotNull(entry.getValue()));
+        }
+        this.results = Maps.immutableEnumMap(resultsCopy);
+        this.failures = Maps.immutableEnumMap(failuresCopy);
+    }
+
+
+    public String getProfileId() {
+        return profileId;
+    }
+
+    /**
+     * Return true if this snapshot contains a result for the specified call.
+     *
+     * @param call call
+     * @return true if this snapshot contains a result for the specified call
+     */
+    public boolean contains(final Call call) {
+        return results.containsKey(call);
+    }
+
+    /**
+     * Return true if no call failed.
+     *
+     * @return true if no call failed
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    /**
+     * Return the failures in this snapshot, by call.
+     *
+     * @return the failures in this snapshot, by call
+     */
+    public Map<Call, Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Return the failure for the specified call, if any.
+     *
+     * @param call call
+     * @return the failure for the specified call, or <code>null</code> if the call did not fail
+     */
+    public Throwable getFailure(final Call call) {
+        return failures.get(call);
+    }
+
+    public UserName getNames() {
+        return (UserName) results.get(Call.NAMES);
+    }
+
+    public Haplogroup getHaplogroups() {
+        return (Haplogroup) results.get(Call.HAPLOGROUPS);
+    }
+
+    public Genome getGenome() {
+        return (Genome) results.get(Call.GENOME);
+    }
+
+    public PackedGenome getPackedGenome() {
+        return (PackedGenome) results.get(Call.PACKED_GENOME);
+    }
+
+    public Ancestry getAncestry() {
+        return (Ancestry) results.get(Call.ANCESTRY);
+    }
+
+    public Double getNeanderthalProportion() {
+        return (Double) results.get(Call.NEANDERTHAL_PROPORTION);
+    }
+
+    public List<Relative> getRelatives() {
+        return list(Call.RELATIVES);
+    }
+
+    public List<Risk> getRisks() {
+        return list(Call.RISKS);
+    }
+
+    public List<Carrier> getCarriers() {
+        return list(Call.CARRIERS);
+    }
+
+    public List<DrugResponse> getDrugResponses() {
+        return list(Call.DRUG_RESPONSES);
+    }
+
+    public List<Trait> getTraits() {
+        return list(Call.TRAITS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> list(final Call call) {
+        return (List<T>) results.get(call);
+    }
+}
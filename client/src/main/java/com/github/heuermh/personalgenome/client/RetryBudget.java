@@ -0,0 +1,101 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Retry budget, limits retries to a ratio of calls so that retries cannot amplify an outage.
+ *
+ * <p>
+ * Each call deposits <code>ratio</code> into the budget and each retry withdraws one, up to a balance
+ * of <code>reserve</code>, which the budget starts with.  Once the reserve is spent, at most
+ * <code>ratio</code> retries are made per call.  Share one retry budget between clients to bound
+ * retries across all of them.
+ * </p>
+ */
+@ThreadSafe
+public final class RetryBudget {
+    private final double ratio;
+    private final int reserve;
+    private double balance;
+    /** Default ratio of retries to calls. */
+    static final double DEFAULT_RATIO = 0.1d;
+    /** Default reserve of retries. */
+    static final int DEFAULT_RESERVE = 10;
+
+
+    /**
+     * Create a new retry budget with default ratio and reserve.
+     */
+    public RetryBudget() {
+        this(DEFAULT_RATIO, DEFAULT_RESERVE);
+    }
+
+    /**
+     * Create a new retry budget.
+     *
+     * @param ratio ratio of retries to calls, must be in the range [0.0, 1.0]
+     * @param reserve reserve of retries, must be at least zero
+     */
+    public RetryBudget(final double ratio, final int reserve) {
+        checkArgument(ratio >= 0.0d && ratio <= 1.0d, "ratio must be in the range [0.0, 1.0]");
+        checkArgument(reserve >= 0, "reserve must be at least zero");
+        this.ratio = ratio;
+        this.reserve = reserve;
+        this.balance = reserve;
+    }
+
+
+    /**
+     * Deposit one call into this retry budget.
+     */
+    public synchronized void deposit() {
+        balance = Math.min(Math.max(reserve, 1.0d), balance + ratio);
+    }
+
+    /**
+     * Withdraw one retry from this retry budget, if available.
+     *
+     * @return true if a retry was withdrawn
+     */
+    public synchronized boolean tryWithdraw() {
+        if (balance >= 1.0d) {
+            balance -= 1.0d;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return the balance of this retry budget, in retries.
+     *
+     * @return the balance of this retry budget, in retries
+     */
+    public synchronized double balance() {
+        return balance;
+    }
+}
@@ -0,0 +1,245 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+
+import java.util.Random;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Supplier;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Personal genome API client decorator that retries calls failing with transient errors.
+ *
+ * <p>
+ * All personal genome API calls are idempotent GET requests.  Calls failing with a
+ * {@link TemporarilyUnavailableException} or with an I/O error, such as a connection reset or timeout,
+ * are retried up to a maximum number of attempts, after a random delay between zero and an exponentially
+ * growing upper bound (full jitter).  Each retry withdraws from a {@link RetryBudget}; once the budget is
+ * spent, the last failure is thrown without further retries.
+ * </p>
+ */
+@ThreadSafe
+public final class RetryingPersonalGenomeClient extends InterceptingPersonalGenomeClient {
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final RetryBudget budget;
+    private final Random random = new Random();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+    private final Logger logger = LoggerFactory.getLogger(RetryingPersonalGenomeClient.class);
+    /** Default maximum number of attempts per call. */
+    static final int DEFAULT_MAX_ATTEMPTS = 4;
+    /** Default base delay in milliseconds. */
+    static final long DEFAULT_BASE_DELAY = 100L;
+    /** Default maximum delay in milliseconds. */
+    static final long DEFAULT_MAX_DELAY = 10000L;
+
+
+    /**
+     * Create a new retrying personal genome API client with default attempts, delays, and retry budget.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     */
+    public RetryingPersonalGenomeClient(final PersonalGenomeClient delegate) {
+        this(delegate, DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, new RetryBudget());
+    }
+
+    /**
+     * Create a new retrying personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param maxAttempts maximum number of attempts per call, including the first, must be at least one
+     * @param baseDelay upper bound of the delay before the first retry, in milliseconds, must be at least zero
+     * @param maxDelay maximum upper bound of the delay before a retry, in milliseconds, must be at least
+     *    <code>baseDelay</code>
+     * @param budget retry budget, must not be null
+     */
+    public RetryingPersonalGenomeClient(final PersonalGenomeClient delegate,
+                                        final int maxAttempts,
+                                        final long baseDelay,
+                                        final long maxDelay,
+                                        final RetryBudget budget) {
+        this(delegate, maxAttempts, baseDelay, maxDelay, budget, DEFAULT_PAGE_SIZE, null);
+    }
+
+    /**
+     * Create a new retrying personal genome API client.
+     *
+     * @param delegate delegate personal genome API client, must not be null
+     * @param maxAttempts maximum number of attempts per call, including the first, must be at least one
+     * @param baseDelay upper bound of the delay before the first retry, in milliseconds, must be at least zero
+     * @param maxDelay maximum upper bound of the delay before a retry, in milliseconds, must be at least
+     *    <code>baseDelay</code>
+     * @param budget retry budget, must not be null
+     * @param pageSize number of relatives per page for {@link #relatives(String)}, must be at least one
+     * @param executorService executor service to prefetch pages of relatives on, or <code>null</code>
+     *    to fetch each page lazily on the calling thread
+     */
+    public RetryingPersonalGenomeClient(final PersonalGenomeClient delegate,
+                                        final int maxAttempts,
+                                        final long baseDelay,
+                                        final long maxDelay,
+                                        final RetryBudget budget,
+                                        final int pageSize,
+                                        @Nullable final ListeningExecutorService executorService) {
+        super(delegate, pageSize, executorService);
+        checkArgument(maxAttempts > 0, "maxAttempts must be at least one");
+        checkArgument(baseDelay >= 0L, "baseDelay must be at least zero");
+        checkArgument(maxDelay >= baseDelay, "maxDelay must be at least baseDelay");
+        checkNotNull(budget);
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.budget = budget;
+    }
+
+
+    @Override
+    <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+        calls.incrementAndGet();
+        budget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return supplier.get();
+            }
+            catch (RuntimeException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    throw e;
+                }
+                if (!budget.tryWithdraw()) {
+                    budgetExhausted.incrementAndGet();
+                    throw e;
+                }
+                long delay = delay(attempt);
+                logger.info("retrying " + invocation.getCall() + " call in " + delay + " ms after attempt " + attempt + " failed: " + e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(delay);
+                }
+                catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                retries.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Return a random delay before the retry following the specified attempt, between zero and
+     * <code>min(maxDelay, baseDelay * 2^(attempt - 1))</code> milliseconds.
+     *
+     * @param attempt attempt, at least one
+     * @return a random delay before the retry following the specified attempt
+     */
+    long delay(final int attempt) {
+        long bound = baseDelay;
+        for (int i = 1; i < attempt && bound < maxDelay; i++) {
+            bound *= 2L;
+        }
+        bound = Math.min(maxDelay, bound);
+        return bound == 0L ? 0L : (long) (random.nextDouble() * (bound + 1L));
+    }
+
+    /**
+     * Return the number of calls.
+     *
+     * @return the number of calls
+     */
+    public long calls() {
+        return calls.get();
+    }
+
+    /**
+     * Return the number of retries.
+     *
+     * @return the number of retries
+     */
+    public long retries() {
+        return retries.get();
+    }
+
+    /**
+     * Return the number of calls that failed after the maximum number of attempts.
+     *
+     * @return the number of calls that failed after the maximum number of attempts
+     */
+    public long exhausted() {
+        return exhausted.get();
+    }
+
+    /**
+     * Return the number of calls that failed without retry because the retry budget was spent.
+     *
+     * @return the number of calls that failed without retry because the retry budget was spent
+     */
+    public long budgetExhausted() {
+        return budgetExhausted.get();
+    }
+
+    /**
+     * Return true if the specified exception is transient, that is if it is a
+     * {@link TemporarilyUnavailableException} or is caused by an I/O error.
+     *
+     * @param e exception
+     * @return true if the specified exception is transient
+     */
+    static boolean isRetryable(final RuntimeException e) {
+        if (e instanceof TemporarilyUnavailableException) {
+            return true;
+        }
+        if (e instanceof PersonalGenomeClientException) {
+            return false;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Numeric location keys.
+ *
+ * <p>A location with the <code>rs</code> prefix, e.g. <code>rs41362547</code>, is keyed by its positive
+ * numeric id, and a location with the <code>i</code> prefix, e.g. <code>i5053906</code>, by its negated
+ * numeric id.  Keys order and hash as plain <code>int</code>s, so they can be used in sorted arrays and
+ * primitive collections in place of location strings.  {@link #INVALID} (zero) is never a valid key.</p>
+ */
+@Immutable
+public final class Rsid {
+    /** Invalid key, returned by {@link #parse(String)} for locations not of the form <code>rs[0-9]+</code> or <code>i[0-9]+</code>. */
+    public static final int INVALID = 0;
+
+
+    /**
+     * Private no-arg constructor.
+     */
+    private Rsid() {
+        // empty
+    }
+
+
+    /**
+     * Return the key for the specified <code>rs</code> id.
+     *
+     * @param id <code>rs</code> id, must be greater than zero
+     * @return the key for the specified <code>rs</code> id
+     */
+    public static int rs(final int id) {
+        checkArgument(id > 0, "id must be greater than zero");
+        return id;
+    }
+
+    /**
+     * Return the key for the specified internal (<code>i</code>) id.
+     *
+     * @param id internal id, must be greater than zero
+     * @return the key for the specified internal id
+     */
+    public static int internal(final int id) {
+        checkArgument(id > 0, "id must be greater than zero");
+        return -id;
+    }
+
+    /**
+     * Return true if the specified key is for an internal (<code>i</code>) id.
+     *
+     * @param rsid key
+     * @return true if the specified key is for an internal id
+     */
+    public static boolean isInternal(final int rsid) {
+        return rsid < 0;
+    }
+
+    /**
+     * Return the key for the specified location, or {@link #INVALID} if the location
+     * is not of the form <code>rs[1-9][0-9]*</code> or <code>i[1-9][0-9]*</code>.  Zero-padded
+     * locations such as <code>rs007</code> are not valid, so that each key formats back to the
+     * location it was parsed from.
+     *
+     * @param location location, must not be null
+     * @return the key for the specified location, or {@link #INVALID} if the location is not valid
+     */
+    public static int parse(final String location) {
+        checkNotNull(location);
+        int length = location.length();
+        int start;
+        boolean internal;
+        if (length > 2 && location.charAt(0) == 'r' && location.charAt(1) == 's') {
+            start = 2;
+            internal = false;
+        }
+        else if (length > 1 && location.charAt(0) == 'i') {
+            start = 1;
+            internal = true;
+        }
+        else {
+            return INVALID;
+        }
+        if (location.charAt(start) == '0') {
+            return INVALID;
+        }
+        long value = 0L;
+        for (int i = start; i < length; i++) {
+            char c = location.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            value = value * 10L + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                return INVALID;
+            }
+        }
+        return internal ? (int) -value : (int) value;
+    }
+
+    /**
+     * Return the location for the specified key.
+     *
+     * @param rsid key, must not be {@link #INVALID}
+     * @return the location for the specified key
+     */
+    public static String format(final int rsid) {
+        return appendTo(new StringBuilder(12), rsid).toString();
+    }
+
+    /**
+     * Append the location for the specified key to the specified string builder.
+     *
+     * @param sb string builder to append to, must not be null
+     * @param rsid key, must not be {@link #INVALID}
+     * @return the specified string builder
+     */
+    public static StringBuilder appendTo(final StringBuilder sb, final int rsid) {
+        checkNotNull(sb);
+        checkArgument(rsid != INVALID, "rsid must not be INVALID");
+        return rsid < 0 ? sb.append('i').append(-(long) rsid) : sb.append("rs").append(rsid);
+    }
+}
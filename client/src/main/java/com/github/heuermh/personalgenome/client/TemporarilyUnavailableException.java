@@ -0,0 +1,54 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+/**
+ * Temporarily unavailable exception, thrown for throttling (<code>429</code>) and server error
+ * (<code>5xx</code>) responses.  The request may succeed if retried later.
+ */
+public final class TemporarilyUnavailableException extends PersonalGenomeClientException {
+    private final int code;
+
+
+    /**
+     * Create a new temporarily unavailable exception with the specified response code and error description.
+     *
+     * @param code response code
+     * @param description error description
+     */
+    public TemporarilyUnavailableException(final int code, final String description) {
+        super(description);
+        this.code = code;
+    }
+
+
+    /**
+     * Return the response code for this temporarily unavailable exception.
+     *
+     * @return the response code for this temporarily unavailable exception
+     */
+    public int getCode() {
+        return code;
+    }
+}
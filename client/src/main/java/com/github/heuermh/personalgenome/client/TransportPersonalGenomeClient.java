@@ -0,0 +1,359 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.InputStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
+
+import com.google.common.collect.Iterables;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of PersonalGenomeClient that sends requests with a pluggable personal genome transport.
+ */
+@ThreadSafe
+public final class TransportPersonalGenomeClient implements PackedGenomeClient {
+    private final PersonalGenomeTransport transport;
+    private final PersonalGenomeConverter converter;
+    private final int chunkSize;
+    private final int pageSize;
+    private final ListeningExecutorService executorService;
+    private final Logger logger = LoggerFactory.getLogger(TransportPersonalGenomeClient.class);
+    private static final String USER_URL = "user";
+    private static final String NAMES_URL = "names/%s/";
+    private static final String HAPLOGROUPS_URL = "haplogroups/%s/";
+    private static final String GENOTYPE_URL = "genotype/%s/?locations=%s";
+    private static final String GENOMES_URL = "genomes/%s/";
+    private static final String ANCESTRY_URL = "ancestry/%s/?threshold=%f";
+    private static final String NEANDERTHAL_URL = "neanderthal/%s/";
+    private static final String RELATIVES_URL = "relatives/%s/?limit=%d&offset=%d";
+    private static final String RISKS_URL = "risks/%s/";
+    private static final String CARRIERS_URL = "carriers/%s/";
+    private static final String DRUG_RESPONSES_URL = "drug_responses/%s/";
+    private static final String TRAITS_URL = "traits/%s/";
+    /** Default maximum number of locations per genotype request, keeping request URLs well under 2000 characters. */
+    public static final int DEFAULT_CHUNK_SIZE = 100;
+    /** Default maximum number of concurrent genotype and relatives page requests. */
+    public static final int DEFAULT_PARALLELISM = 4;
+    /** Default number of relatives per page. */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+
+    /**
+     * Create a new transport personal genome client.
+     *
+     * @param transport personal genome transport, must not be null
+     * @param converter converter, must not be null
+     */
+    public TransportPersonalGenomeClient(final PersonalGenomeTransport transport, final PersonalGenomeConverter converter) {
+        this(transport, converter, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Create a new transport personal genome client which splits genotype requests into chunks of at most
+     * <code>chunkSize</code> locations, issues at most <code>parallelism</code> requests concurrently, and
+     * fetches relatives <code>pageSize</code> at a time.
+     *
+     * <p>
+     * Each client created with this constructor has its own executor service of daemon threads, which
+     * exit once idle.  To bound concurrent requests across many clients, share one executor service with
+     * {@link #TransportPersonalGenomeClient(PersonalGenomeTransport, PersonalGenomeConverter, ExecutorService, int, int)}.
+     * </p>
+     *
+     * @param transport personal genome transport, must not be null
+     * @param converter converter, must not be null
+     * @param chunkSize maximum number of locations per genotype request, must be at least one
+     * @param parallelism maximum number of concurrent requests, must be at least one
+     * @param pageSize number of relatives per page, must be at least one
+     */
+    public TransportPersonalGenomeClient(final PersonalGenomeTransport transport,
+                                         final PersonalGenomeConverter converter,
+                                         final int chunkSize,
+                                         final int parallelism,
+                                         final int pageSize) {
+        this(transport, converter, createExecutorService(parallelism), chunkSize, pageSize);
+    }
+
+    /**
+     * Create a new transport personal genome client which splits genotype requests into chunks of at most
+     * <code>chunkSize</code> locations, issues concurrent genotype and relatives page requests on the
+     * specified executor service, and fetches relatives <code>pageSize</code> at a time.  The executor
+     * service may be shared between clients and is not shut down by this client.
+     *
+     * @param transport personal genome transport, must not be null
+     * @param converter converter, must not be null
+     * @param executorService executor service for concurrent requests, must not be null
+     * @param chunkSize maximum number of locations per genotype request, must be at least one
+     * @param pageSize number of relatives per page, must be at least one
+     */
+    public TransportPersonalGenomeClient(final PersonalGenomeTransport transport,
+                                         final PersonalGenomeConverter converter,
+                                         final ExecutorService executorService,
+                                         final int chunkSize,
+                                         final int pageSize) {
+        checkNotNull(transport);
+        checkNotNull(converter);
+        checkNotNull(executorService);
+        checkArgument(chunkSize > 0, "chunkSize must be at least one");
+        checkArgument(pageSize > 0, "pageSize must be at least one");
+        this.transport = transport;
+        this.converter = converter;
+        this.executorService = MoreExecutors.listeningDecorator(executorService);
+        this.chunkSize = chunkSize;
+        this.pageSize = pageSize;
+    }
+
+
+    @Override
+    public User user() {
+        return converter.parseUser(get(USER_URL, "user"));
+    }
+
+    @Override
+    public UserName names(final String profileId) {
+        checkNotNull(profileId);
+        return converter.parseNames(get(String.format(NAMES_URL, profileId), "names"));
+    }
+
+    @Override
+    public Haplogroup haplogroups(final String profileId) {
+        checkNotNull(profileId);
+        return converter.parseHaplogroups(get(String.format(HAPLOGROUPS_URL, profileId), "haplogroups"));
+    }
+
+    @Override
+    public Genotype genotypes(final String profileId, final String... locations) {
+        checkNotNull(profileId);
+        checkNotNull(locations);
+        return genotypesWithScopes(profileId, scopes(Arrays.asList(locations), chunkSize));
+    }
+
+    @Override
+    public Genotype genotypes(final String profileId, final Iterable<String> locations) {
+        checkNotNull(profileId);
+        checkNotNull(locations);
+        return genotypesWithScopes(profileId, scopes(locations, chunkSize));
+    }
+
+    /**
+     * Split the specified locations into scopes of at most <code>chunkSize</code> locations each.
+     *
+     * @param locations locations
+     * @param chunkSize maximum number of locations per scope
+     * @return the specified locations split into scopes, at least one
+     */
+    static List<String> scopes(final Iterable<String> locations, final int chunkSize) {
+        List<String> scopes = new ArrayList<String>();
+        for (List<String> chunk : Iterables.partition(locations, chunkSize)) {
+            scopes.add(Joiner.on(" ").join(chunk));
+        }
+        if (scopes.isEmpty()) {
+            scopes.add("");
+        }
+        return scopes;
+    }
+
+    Genotype genotypesWithScopes(final String profileId, final List<String> scopes) {
+        if (scopes.size() == 1) {
+            return genotypesWithScope(profileId, scopes.get(0));
+        }
+        List<ListenableFuture<Genotype>> futures = new ArrayList<ListenableFuture<Genotype>>(scopes.size());
+        for (final String scope : scopes) {
+            futures.add(executorService.submit(new Callable<Genotype>() {
+                    @Override
+                    public Genotype call() {
+                        return genotypesWithScope(profileId, scope);
+                    }
+                }));
+        }
+        ListenableFuture<List<Genotype>> all = Futures.allAsList(futures);
+        List<Genotype> genotypes;
+        try {
+            genotypes = all.get();
+        }
+        catch (ExecutionException e) {
+            all.cancel(true);
+            throw Throwables.propagate(e.getCause());
+        }
+        catch (InterruptedException e) {
+            all.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PersonalGenomeClientException("interrupted waiting for genotype");
+        }
+        Genotype.Builder builder = new Genotype.Builder().withProfileId(profileId);
+        for (int i = 0; i < genotypes.size(); i++) {
+            Genotype genotype = genotypes.get(i);
+            if (genotype == null) {
+                throw new PersonalGenomeClientException("could not read genotype for locations " + scopes.get(i));
+            }
+            builder.addAll(genotype);
+        }
+        return builder.build();
+    }
+
+    Genotype genotypesWithScope(final String profileId, final String scope) {
+        return converter.parseGenotypes(get(String.format(GENOTYPE_URL, profileId, scope), "genotype"));
+    }
+
+    @Override
+    public Genome genome(final String profileId) {
+        checkNotNull(profileId);
+        return converter.parseGenomes(get(String.format(GENOMES_URL, profileId), "genomes"));
+    }
+
+    @Override
+    public PackedGenome packedGenome(final String profileId) {
+        checkNotNull(profileId);
+        InputStream inputStream = get(String.format(GENOMES_URL, profileId), "genomes");
+        if (converter instanceof PackedGenomeConverter) {
+            return ((PackedGenomeConverter) converter).parsePackedGenomes(inputStream);
+        }
+        Genome genome = converter.parseGenomes(inputStream);
+        return genome == null ? null : PackedGenome.valueOf(genome.getProfileId(), genome.getValues());
+    }
+
+    @Override
+    public Ancestry ancestry(final String profileId, final double threshold) {
+        checkNotNull(profileId);
+        if (threshold <= 0.5 || threshold >= 1.0) {
+            throw new IllegalArgumentException("threshold must be in the range (0.5, 1.0), exclusive");
+        }
+        return converter.parseAncestry(get(String.format(ANCESTRY_URL, profileId, threshold), "ancestry"));
+    }
+
+    @Override
+    public double neanderthalProportion(final String profileId) {
+        checkNotNull(profileId);
+        return converter.parseNeanderthalProportion(get(String.format(NEANDERTHAL_URL, profileId), "neanderthal proportion"));
+    }
+
+    @Override
+    public Iterator<Relative> relatives(final String profileId) {
+        checkNotNull(profileId);
+        return new PrefetchingPageIterator<Relative>(pageSize, executorService) {
+            @Override
+            List<Relative> fetch(final int offset, final int limit) {
+                return relatives(profileId, offset, limit);
+            }
+        }.start();
+    }
+
+    @Override
+    public List<Relative> relatives(final String profileId, final int offset, final int limit) {
+        checkNotNull(profileId);
+        // note limit and offset are in a different order here
+        return converter.parseRelatives(get(String.format(RELATIVES_URL, profileId, limit, offset), "relatives"));
+    }
+
+    @Override
+    public List<Risk> risks(final String profileId) {
+        checkNotNull(profileId);
+        return converter.parseRisks(get(String.format(RISKS_URL, profileId), "risks"));
+    }
+
+    @Override
+    public List<Carrier> carriers(final String profileId) {
+        checkNotNull(profileId);
+        return converter.parseCarriers(get(String.format(CARRIERS_URL, profileId), "carriers"));
+    }
+
+    @Override
+    public List<DrugResponse> drugResponses(final String profileId) {
+        checkNotNull(profileId);
+        return converter.parseDrugResponses(get(String.format(DRUG_RESPONSES_URL, profileId), "drug responses"));
+    }
+
+    @Override
+    public List<Trait> traits(final String profileId) {
+        checkNotNull(profileId);
+        return converter.parseTraits(get(String.format(TRAITS_URL, profileId), "traits"));
+    }
+
+    /**
+     * Execute a GET request for the specified path and return its response body stream if successful.
+     *
+     * @param path path and query relative to the API base URL
+     * @param call call name, for logging
+     * @return the response body stream
+     * @throws PersonalGenomeClientException parsed from the response body if the request was not successful
+     * @throws TemporarilyUnavailableException if the response was a throttling or server error response
+     */
+    InputStream get(final String path, final String call) {
+        TransportResponse response = transport.get(path);
+        int code = response.getCode();
+
+        if (code == 200) {
+            logger.trace(call + " call ok");
+            return response.getStream();
+        }
+        logger.warn("could not call " + call + ", response code " + code);
+        PersonalGenomeClientException exception = converter.parseException(response.getStream());
+        if (code == 429 || code >= 500) {
+            throw new TemporarilyUnavailableException(code, exception.getMessage());
+        }
+        throw exception;
+    }
+
+    /**
+     * Create and return a new executor service with the specified number of daemon threads, which exit once idle.
+     *
+     * @param parallelism number of threads, must be at least one
+     * @return a new executor service with the specified number of daemon threads
+     */
+    public static ExecutorService createExecutorService(final int parallelism) {
+        checkArgument(parallelism > 0, "parallelism must be at least one");
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("personal-genome-client-%d").build());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+}
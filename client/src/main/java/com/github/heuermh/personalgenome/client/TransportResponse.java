@@ -0,0 +1,71 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.InputStream;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * HTTP transport response, a status code and body stream.
+ */
+@Immutable
+public final class TransportResponse {
+    private final int code;
+    private final InputStream stream;
+
+
+    /**
+     * Create a new HTTP transport response.
+     *
+     * @param code status code
+     * @param stream body stream, must not be null
+     */
+    public TransportResponse(final int code, final InputStream stream) {
+        checkNotNull(stream);
+        this.code = code;
+        this.stream = stream;
+    }
+
+
+    /**
+     * Return the status code for this response.
+     *
+     * @return the status code for this response
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Return the body stream for this response.
+     *
+     * @return the body stream for this response
+     */
+    public InputStream getStream() {
+        return stream;
+    }
+}
@@ -29,10 +29,8 @@ import java.io.InputStream;
 import java.io.IOException;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import com.fasterxml.jackson.core.JsonFactory;
@@ -50,9 +48,10 @@ import com.github.heuermh.personalgenome.client.InvalidClientException;
 import com.github.heuermh.personalgenome.client.InvalidRequestException;
 import com.github.heuermh.personalgenome.client.InvalidScopeException;
 import com.github.heuermh.personalgenome.client.MaternalTerminalSnp;
+import com.github.heuermh.personalgenome.client.PackedGenome;
+import com.github.heuermh.personalgenome.client.PackedGenomeConverter;
 import com.github.heuermh.personalgenome.client.PaternalTerminalSnp;
 import com.github.heuermh.personalgenome.client.PersonalGenomeClientException;
-import com.github.heuermh.personalgenome.client.PersonalGenomeConverter;
 import com.github.heuermh.personalgenome.client.Profile;
 import com.github.heuermh.personalgenome.client.ProfileName;
 import com.github.heuermh.personalgenome.client.Relative;
@@ -68,7 +67,7 @@ import org.slf4j.LoggerFactory;
 /**
  * Converter for <code>application/json</code> mime type implemented using Jackson.
  */
-public final class JacksonPersonalGenomeConverter implements PersonalGenomeConverter {
+public final class JacksonPersonalGenomeConverter implements PackedGenomeConverter {
     private final JsonFactory jsonFactory;
     private final Logger logger = LoggerFactory.getLogger(JacksonPersonalGenomeConverter.class);
 
@@ -89,7 +88,8 @@ public final class JacksonPersonalGenomeConverter implements PersonalGenomeConve
 
             String error = null;
             String errorDescription = null;
-            while (parser.nextToken() != JsonToken.END_OBJECT) {
+            // error responses may have empty or truncated bodies, e.g. from a proxy, so stop at end of input
+            for (JsonToken token = parser.nextToken(); token != null && token != JsonToken.END_OBJECT; token = parser.nextToken()) {
                 String field = parser.getCurrentName();
                 parser.nextToken();
 
@@ -359,25 +359,24 @@ public final class JacksonPersonalGenomeConverter implements PersonalGenomeConve
             parser = jsonFactory.createParser(inputStream);
             parser.nextToken();
 
-            String id = null;
             String location = null;
             String interpretation = null;
-            Map<String, String> values = new HashMap<String, String>();
+            Genotype.Builder builder = new Genotype.Builder();
 
             while (parser.nextToken() != JsonToken.END_OBJECT) {
                 String field = parser.getCurrentName();
                 parser.nextToken();
 
                 if ("id".equals(field)) {
-                    id = parser.getText();
+                    builder.withProfileId(parser.getText());
                 }
                 else {
                     location = field;
                     interpretation = parser.getText();
-                    values.put(location, interpretation);
+                    builder.add(location, interpretation);
                 }
             }
-            return new Genotype(id, values);
+            return builder.build();
         }
         catch (IOException e) {
             logger.warn("could not parse genotypes");
@@ -442,6 +441,26 @@ public final class JacksonPersonalGenomeConverter implements PersonalGenomeConve
         return null;
     }
 
+    @Override
+    public PackedGenome parsePackedGenomes(final InputStream inputStream) {
+        checkNotNull(inputStream);
+        try {
+            return new PackedGenomeParser(inputStream).parse();
+        }
+        catch (IOException e) {
+            logger.warn("could not parse packed genomes", e);
+        }
+        finally {
+            try {
+                inputStream.close();
+            }
+            catch (Exception e) {
+                // ignored
+            }
+        }
+        return null;
+    }
+
     List<Ancestry> parseSubPopulation(final String id, final List<Ancestry> ancestries, final JsonParser parser) throws IOException {
         String label = null;
         double proportion = 0.0d;
@@ -0,0 +1,295 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.converter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.github.heuermh.personalgenome.client.PackedGenome;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Streaming parser for the <code>genomes</code> response, encoding the <code>genome</code> value into a
+ * packed genome as it is read.
+ *
+ * <p>Jackson buffers each string value in full before it can be read, which for a ~2 million character
+ * genome means several copies of the value on the heap at once.  This parser instead reads the response
+ * through a small character buffer, so the peak memory per genome is the packed genome itself.</p>
+ */
+@NotThreadSafe
+final class PackedGenomeParser {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+
+
+    /**
+     * Create a new packed genome parser for the specified input stream.
+     *
+     * @param inputStream input stream, must not be null
+     */
+    PackedGenomeParser(final InputStream inputStream) {
+        checkNotNull(inputStream);
+        reader = new InputStreamReader(inputStream, Charsets.UTF_8);
+    }
+
+
+    /**
+     * Parse the input stream and return a packed genome.
+     *
+     * @return the input stream parsed into a packed genome
+     * @throws IOException if an I/O error occurs or the input stream is not a valid <code>genomes</code> response
+     */
+    PackedGenome parse() throws IOException {
+        PackedGenome.Builder builder = new PackedGenome.Builder();
+        boolean hasId = false;
+        boolean hasGenome = false;
+        expect('{');
+        int c = next();
+        if (c != '}') {
+            position--;
+            while (true) {
+                expect('"');
+                String field = readString();
+                expect(':');
+                c = next();
+                if ("id".equals(field) && c == '"') {
+                    builder.withProfileId(readString());
+                    hasId = true;
+                }
+                else if ("genome".equals(field) && c == '"') {
+                    readGenome(builder);
+                    hasGenome = true;
+                }
+                else {
+                    position--;
+                    skipValue();
+                }
+                c = next();
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw unexpected(c);
+                }
+            }
+        }
+        if (!hasId) {
+            throw new IOException("missing id field");
+        }
+        if (!hasGenome) {
+            throw new IOException("missing genome field");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Read the remainder of a string value into the specified packed genome builder.
+     *
+     * @param builder packed genome builder
+     * @throws IOException if an I/O error occurs or the string value contains invalid genome characters
+     */
+    private void readGenome(final PackedGenome.Builder builder) throws IOException {
+        try {
+            while (true) {
+                int start = position;
+                while (position < limit) {
+                    char c = buffer[position];
+                    if (c == '"' || c == '\\') {
+                        break;
+                    }
+                    position++;
+                }
+                builder.append(buffer, start, position - start);
+                if (position < limit) {
+                    if (buffer[position++] == '"') {
+                        return;
+                    }
+                    builder.append(readEscape());
+                }
+                else if (!fill()) {
+                    throw new EOFException("unterminated genome value");
+                }
+            }
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Read the remainder of a string value.
+     *
+     * @return the remainder of a string value
+     * @throws IOException if an I/O error occurs
+     */
+    private String readString() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return sb.toString();
+            }
+            sb.append(c == '\\' ? readEscape() : (char) c);
+        }
+    }
+
+    /**
+     * Read the remainder of an escape sequence.
+     *
+     * @return the escaped character
+     * @throws IOException if an I/O error occurs or the escape sequence is invalid
+     */
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+        case '"':
+        case '\\':
+        case '/':
+            return (char) c;
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case 'u':
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(read(), 16);
+                if (digit < 0) {
+                    throw new IOException("invalid unicode escape");
+                }
+                value = (value << 4) | digit;
+            }
+            return (char) value;
+        default:
+            throw unexpected(c);
+        }
+    }
+
+    /**
+     * Skip a value of any type.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            int c = next();
+            if (c == '"') {
+                readString();
+            }
+            else if (c == '{' || c == '[') {
+                depth++;
+            }
+            else if (c == '}' || c == ']') {
+                depth--;
+            }
+            else if (depth == 0) {
+                while (true) {
+                    c = read();
+                    if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                        position--;
+                        break;
+                    }
+                }
+            }
+        }
+        while (depth > 0);
+    }
+
+    /**
+     * Read the next non-whitespace character and fail if it is not the specified character.
+     *
+     * @param expected expected character
+     * @throws IOException if an I/O error occurs or the next non-whitespace character is not the specified character
+     */
+    private void expect(final char expected) throws IOException {
+        int c = next();
+        if (c != expected) {
+            throw unexpected(c);
+        }
+    }
+
+    /**
+     * Read and return the next non-whitespace character.
+     *
+     * @return the next non-whitespace character
+     * @throws IOException if an I/O error occurs
+     */
+    private int next() throws IOException {
+        int c = read();
+        while (Character.isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    /**
+     * Read and return the next character.
+     *
+     * @return the next character
+     * @throws IOException if an I/O error occurs or the end of the input stream has been reached
+     */
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException("unexpected end of input");
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Fill the buffer.
+     *
+     * @return true if any characters were read
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read < 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private static IOException unexpected(final int c) {
+        return new IOException("unexpected character " + (char) c);
+    }
+}
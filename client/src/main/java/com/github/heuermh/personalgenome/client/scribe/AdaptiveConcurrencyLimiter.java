@@ -0,0 +1,156 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Concurrency limiter with additive increase, multiplicative decrease (AIMD) of its limit.
+ *
+ * <p>Each success below the latency tolerance grows the limit by <code>1 / limit</code>, about one per
+ * limit's worth of successes.  Each success above the latency tolerance shrinks the limit by a tenth, and
+ * each overload (throttling or server error response, or failed request) halves it.  The limit stays
+ * between one and the maximum limit.</p>
+ *
+ * <p>Latency is measured against a baseline per route, so that slow endpoints do not shrink the limit
+ * because of fast ones.  The baseline drops to any lower latency and otherwise decays towards recent
+ * latencies, so that a single fast outlier does not hold it down for good.</p>
+ */
+@ThreadSafe
+final class AdaptiveConcurrencyLimiter {
+    private final int maximumLimit;
+    private final double tolerance;
+    private double limit;
+    private int inFlight;
+    private final Map<String, Double> baselines = new HashMap<String, Double>();
+    /** Multiplicative decrease on latency above the tolerance. */
+    static final double LATENCY_BACKOFF = 0.9d;
+    /** Multiplicative decrease on overload. */
+    static final double OVERLOAD_BACKOFF = 0.5d;
+    /** Fraction of the distance to a higher latency the baseline moves per success. */
+    static final double BASELINE_DECAY = 0.01d;
+
+
+    /**
+     * Create a new adaptive concurrency limiter.
+     *
+     * @param initialLimit initial limit, must be at least one and at most <code>maximumLimit</code>
+     * @param maximumLimit maximum limit, must be at least one
+     * @param tolerance latency tolerance, as a multiple of the baseline latency, must be greater than one
+     */
+    AdaptiveConcurrencyLimiter(final int initialLimit, final int maximumLimit, final double tolerance) {
+        checkArgument(maximumLimit > 0, "maximumLimit must be at least one");
+        checkArgument(initialLimit > 0 && initialLimit <= maximumLimit, "initialLimit must be at least one and at most maximumLimit");
+        checkArgument(tolerance > 1.0d, "tolerance must be greater than one");
+        this.limit = initialLimit;
+        this.maximumLimit = maximumLimit;
+        this.tolerance = tolerance;
+    }
+
+
+    /**
+     * Wait until fewer than the limit of requests are in flight, then count one more in flight.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Count one less in flight.
+     */
+    synchronized void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Record a success on the specified route with the specified latency.
+     *
+     * @param route route
+     * @param latency latency in nanoseconds
+     */
+    synchronized void onSuccess(final String route, final long latency) {
+        double sample = Math.max(1L, latency);
+        Double baseline = baselines.get(route);
+        if (baseline == null || sample < baseline) {
+            baseline = sample;
+        }
+        else {
+            baseline = baseline + BASELINE_DECAY * (sample - baseline);
+        }
+        baselines.put(route, baseline);
+        if (sample > tolerance * baseline) {
+            limit = Math.max(1.0d, limit * LATENCY_BACKOFF);
+        }
+        else {
+            limit = Math.min(maximumLimit, limit + 1.0d / limit);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Record an overload.
+     */
+    synchronized void onOverload() {
+        limit = Math.max(1.0d, limit * OVERLOAD_BACKOFF);
+    }
+
+    /**
+     * Return the baseline latency for the specified route.
+     *
+     * @param route route
+     * @return the baseline latency for the specified route, in nanoseconds, or <code>null</code> if none
+     */
+    synchronized Double baseline(final String route) {
+        return baselines.get(route);
+    }
+
+    /**
+     * Return the current limit.
+     *
+     * @return the current limit
+     */
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Return the number of requests in flight.
+     *
+     * @return the number of requests in flight
+     */
+    synchronized int inFlight() {
+        return inFlight;
+    }
+}
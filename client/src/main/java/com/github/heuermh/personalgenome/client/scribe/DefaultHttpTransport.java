@@ -0,0 +1,84 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.github.heuermh.personalgenome.client.TransportResponse;
+
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Response;
+
+/**
+ * HTTP transport that sends requests with Scribe.
+ */
+@Immutable
+public final class DefaultHttpTransport implements HttpTransport {
+    private final int connectTimeout;
+    private final int readTimeout;
+
+
+    /**
+     * Create a new default HTTP transport without timeouts.
+     */
+    public DefaultHttpTransport() {
+        this(0, 0);
+    }
+
+    /**
+     * Create a new default HTTP transport with the specified timeouts.
+     *
+     * @param connectTimeout connect timeout in milliseconds, or <code>0</code> for no timeout
+     * @param readTimeout read timeout in milliseconds, or <code>0</code> for no timeout
+     */
+    public DefaultHttpTransport(final int connectTimeout, final int readTimeout) {
+        checkArgument(connectTimeout >= 0, "connectTimeout must be at least zero");
+        checkArgument(readTimeout >= 0, "readTimeout must be at least zero");
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+
+    @Override
+    public TransportResponse send(final OAuthRequest request) {
+        checkNotNull(request);
+        if (connectTimeout > 0) {
+            request.setConnectTimeout(connectTimeout, TimeUnit.MILLISECONDS);
+        }
+        if (readTimeout > 0) {
+            request.setReadTimeout(readTimeout, TimeUnit.MILLISECONDS);
+        }
+        Response response = request.send();
+        InputStream stream = response.getStream();
+        return new TransportResponse(response.getCode(), stream == null ? new ByteArrayInputStream(new byte[0]) : stream);
+    }
+}
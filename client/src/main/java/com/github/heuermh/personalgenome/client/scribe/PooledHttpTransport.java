@@ -0,0 +1,217 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.github.heuermh.personalgenome.client.TransportResponse;
+
+import org.scribe.exceptions.OAuthConnectionException;
+
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Request;
+import org.scribe.model.Verb;
+
+/**
+ * HTTP transport with connect and read timeouts that limits the number of connections per route
+ * (scheme, host, and port) and reuses them through the JDK keep-alive cache.
+ *
+ * <p>
+ * A connection is held from the time a request is sent until its response body stream is read to the
+ * end or closed, at which point it is returned to the keep-alive cache, saving a TLS handshake for the
+ * next request on the same route.  The JDK caches at most <code>http.maxConnections</code> idle
+ * connections per route, five by default, so that system property should be at least
+ * <code>maxConnectionsPerRoute</code>.  A request waits at most the connect timeout for a connection
+ * when all connections for its route are in use.
+ * </p>
+ */
+@ThreadSafe
+public final class PooledHttpTransport implements HttpTransport {
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final int maxConnectionsPerRoute;
+    private final ConcurrentMap<String, Semaphore> routes = new ConcurrentHashMap<String, Semaphore>();
+    /** Default connect timeout in milliseconds. */
+    static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+    /** Default read timeout in milliseconds. */
+    static final int DEFAULT_READ_TIMEOUT = 60000;
+    /** Default maximum number of connections per route, the size of the JDK keep-alive cache per route. */
+    static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 5;
+
+
+    /**
+     * Create a new pooled HTTP transport with default timeouts and connections per route.
+     */
+    public PooledHttpTransport() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+    }
+
+    /**
+     * Create a new pooled HTTP transport.
+     *
+     * @param connectTimeout connect timeout in milliseconds, also the longest to wait for a connection when
+     *    all connections for the route are in use, or <code>0</code> for no timeout
+     * @param readTimeout read timeout in milliseconds, or <code>0</code> for no timeout
+     * @param maxConnectionsPerRoute maximum number of connections per route, must be at least one
+     */
+    public PooledHttpTransport(final int connectTimeout, final int readTimeout, final int maxConnectionsPerRoute) {
+        checkArgument(connectTimeout >= 0, "connectTimeout must be at least zero");
+        checkArgument(readTimeout >= 0, "readTimeout must be at least zero");
+        checkArgument(maxConnectionsPerRoute > 0, "maxConnectionsPerRoute must be at least one");
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+
+    @Override
+    public TransportResponse send(final OAuthRequest request) {
+        checkNotNull(request);
+        URL url = null;
+        try {
+            url = new URL(request.getCompleteUrl());
+        }
+        catch (IOException e) {
+            throw new OAuthConnectionException(e);
+        }
+        final Semaphore permits = permits(url);
+        try {
+            if (connectTimeout == 0) {
+                permits.acquire();
+            }
+            else if (!permits.tryAcquire(connectTimeout, TimeUnit.MILLISECONDS)) {
+                throw new OAuthConnectionException(new IOException("timed out waiting for a connection to " + route(url)));
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuthConnectionException(e);
+        }
+
+        boolean sent = false;
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod(request.getVerb().name());
+            connection.setConnectTimeout(connectTimeout);
+            connection.setReadTimeout(readTimeout);
+            connection.setUseCaches(false);
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+            if (request.getVerb() == Verb.PUT || request.getVerb() == Verb.POST) {
+                writeBody(request, connection);
+            }
+            int code = connection.getResponseCode();
+            InputStream stream = code < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (stream == null) {
+                stream = new ByteArrayInputStream(new byte[0]);
+            }
+            TransportResponse response = new TransportResponse(code, new ReleasingInputStream(stream) {
+                    @Override
+                    void release() {
+                        permits.release();
+                    }
+                });
+            sent = true;
+            return response;
+        }
+        catch (IOException e) {
+            throw new OAuthConnectionException(e);
+        }
+        finally {
+            if (!sent) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Return the connection permits for the route of the specified URL.
+     *
+     * @param url URL
+     * @return the connection permits for the route of the specified URL
+     */
+    Semaphore permits(final URL url) {
+        String route = route(url);
+        Semaphore permits = routes.get(route);
+        if (permits == null) {
+            Semaphore created = new Semaphore(maxConnectionsPerRoute);
+            permits = routes.putIfAbsent(route, created);
+            if (permits == null) {
+                permits = created;
+            }
+        }
+        return permits;
+    }
+
+    /**
+     * Return the route (scheme, host, and port) of the specified URL.
+     *
+     * @param url URL
+     * @return the route of the specified URL
+     */
+    static String route(final URL url) {
+        return url.getProtocol() + "://" + url.getHost() + ":" + (url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+    }
+
+    private static void writeBody(final OAuthRequest request, final HttpURLConnection connection) throws IOException {
+        byte[] body = request.getBodyContents().getBytes(request.getCharset());
+        if (connection.getRequestProperty("Content-Type") == null) {
+            connection.setRequestProperty("Content-Type", Request.DEFAULT_CONTENT_TYPE);
+        }
+        connection.setRequestProperty("Content-Length", String.valueOf(body.length));
+        connection.setDoOutput(true);
+        OutputStream outputStream = null;
+        try {
+            outputStream = connection.getOutputStream();
+            outputStream.write(body);
+        }
+        finally {
+            try {
+                outputStream.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -23,9 +23,12 @@
 */
 package com.github.heuermh.personalgenome.client.scribe;
 
+import java.util.concurrent.ExecutorService;
+
 import com.fasterxml.jackson.core.JsonFactory;
 
 import com.github.heuermh.personalgenome.client.PersonalGenomeConverter;
+import com.github.heuermh.personalgenome.client.TransportPersonalGenomeClient;
 import com.github.heuermh.personalgenome.client.converter.JacksonPersonalGenomeConverter;
 
 import com.google.inject.AbstractModule;
@@ -39,8 +42,15 @@ import org.scribe.oauth.OAuthService;
 
 /**
  * Scribe module.
+ *
+ * <p>The executor service provided, bound with the binding annotation
+ * <code>@Named(ScribeModule.EXECUTOR_SERVICE)</code>, is shared by all clients created by the provided
+ * factory; it is owned by the injector and should be shut down by the application when no longer needed.</p>
  */
 public final class ScribeModule extends AbstractModule {
+    /** Name of the binding annotation for the executor service shared by clients, <code>personal-genome-client</code>. */
+    public static final String EXECUTOR_SERVICE = "personal-genome-client";
+
 
     @Override
     protected void configure() {
@@ -66,8 +76,27 @@ public final class ScribeModule extends AbstractModule {
             .build();
     }
 
+    @Provides @Singleton
+    static HttpTransport createHttpTransport() {
+        return new ThrottlingHttpTransport(new PooledHttpTransport());
+    }
+
     @Provides @Singleton
     static PersonalGenomeConverter createPersonalGenomeConverter(final JsonFactory jsonFactory) {
         return new JacksonPersonalGenomeConverter(jsonFactory);
     }
-}
\ No newline at end of file
+
+    @Provides @Singleton @Named(EXECUTOR_SERVICE)
+    static ExecutorService createExecutorService() {
+        return TransportPersonalGenomeClient.createExecutorService(ScribePersonalGenomeClient.DEFAULT_PARALLELISM);
+    }
+
+    @Provides @Singleton
+    static ScribePersonalGenomeClientFactory createPersonalGenomeClientFactory(final OAuthService service,
+                                                                               final PersonalGenomeConverter converter,
+                                                                               final HttpTransport transport,
+                                                                               @Named(EXECUTOR_SERVICE) final ExecutorService executorService) {
+        return new ScribePersonalGenomeClientFactory(service, converter, transport, executorService, ScribePersonalGenomeClient.DEFAULT_BASE_URL,
+                                                     ScribePersonalGenomeClient.DEFAULT_CHUNK_SIZE, ScribePersonalGenomeClient.DEFAULT_PAGE_SIZE);
+    }
+}
@@ -23,12 +23,13 @@
 */
 package com.github.heuermh.personalgenome.client.scribe;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Iterator;
 import java.util.List;
 
-import com.google.common.base.Joiner;
+import java.util.concurrent.ExecutorService;
 
 import com.github.heuermh.personalgenome.client.Ancestry;
 import com.github.heuermh.personalgenome.client.Carrier;
@@ -36,271 +37,262 @@ import com.github.heuermh.personalgenome.client.DrugResponse;
 import com.github.heuermh.personalgenome.client.Genome;
 import com.github.heuermh.personalgenome.client.Genotype;
 import com.github.heuermh.personalgenome.client.Haplogroup;
-import com.github.heuermh.personalgenome.client.PersonalGenomeClient;
+import com.github.heuermh.personalgenome.client.PackedGenome;
+import com.github.heuermh.personalgenome.client.PackedGenomeClient;
 import com.github.heuermh.personalgenome.client.PersonalGenomeConverter;
 import com.github.heuermh.personalgenome.client.Relative;
 import com.github.heuermh.personalgenome.client.Risk;
 import com.github.heuermh.personalgenome.client.Trait;
+import com.github.heuermh.personalgenome.client.TransportPersonalGenomeClient;
 import com.github.heuermh.personalgenome.client.User;
 import com.github.heuermh.personalgenome.client.UserName;
 
 import org.scribe.model.OAuthRequest;
-import org.scribe.model.Response;
 import org.scribe.model.Token;
-import org.scribe.model.Verb;
-import org.scribe.oauth.OAuthService;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.scribe.oauth.OAuthService;
 
 /**
  * Implementation of PersonalGenomeClient based on Scribe.
  *
  * See <a href="https://github.com/fernandezpablo85/scribe-java">https://github.com/fernandezpablo85/scribe-java</a>
  */
-public final class ScribePersonalGenomeClient implements PersonalGenomeClient {
-    private final Token accessToken;
-    private final OAuthService service;
-    private final PersonalGenomeConverter converter;
-    private final Logger logger = LoggerFactory.getLogger(ScribePersonalGenomeClient.class);
-    private static final String USER_URL = "https://api.23andme.com/1/user";
-    private static final String NAMES_URL = "https://api.23andme.com/1/names/%s/";
-    private static final String HAPLOGROUPS_URL = "https://api.23andme.com/1/haplogroups/%s/";
-    private static final String GENOTYPE_URL = "https://api.23andme.com/1/genotype/%s/?locations=%s";
-    private static final String GENOMES_URL = "https://api.23andme.com/1/genomes/%s/";
-    private static final String ANCESTRY_URL = "https://api.23andme.com/1/ancestry/%s/?threshold=%f";
-    private static final String NEANDERTHAL_URL = "https://api.23andme.com/1/neanderthal/%s/";
-    private static final String RELATIVES_URL = "https://api.23andme.com/1/relatives/%s/?limit=%f&offset=%f";
-    private static final String RISKS_URL = "https://api.23andme.com/1/risks/%s/";
-    private static final String CARRIERS_URL = "https://api.23andme.com/1/carriers/%s/";
-    private static final String DRUG_RESPONSES_URL = "https://api.23andme.com/1/drug_responses/%s/";
-    private static final String TRAITS_URL = "https://api.23andme.com/1/traits/%s/";
+public final class ScribePersonalGenomeClient implements PackedGenomeClient {
+    private final ScribePersonalGenomeTransport transport;
+    private final TransportPersonalGenomeClient client;
+    /** Default base URL for API requests. */
+    static final String DEFAULT_BASE_URL = "https://api.23andme.com/1/";
+    /** Default maximum number of locations per genotype request, keeping request URLs well under 2000 characters. */
+    static final int DEFAULT_CHUNK_SIZE = TransportPersonalGenomeClient.DEFAULT_CHUNK_SIZE;
+    /** Default maximum number of concurrent genotype and relatives page requests. */
+    static final int DEFAULT_PARALLELISM = TransportPersonalGenomeClient.DEFAULT_PARALLELISM;
+    /** Default number of relatives per page. */
+    static final int DEFAULT_PAGE_SIZE = TransportPersonalGenomeClient.DEFAULT_PAGE_SIZE;
 
     //@Inject
     public ScribePersonalGenomeClient(final Token accessToken, final OAuthService service, final PersonalGenomeConverter converter) {
+        this(accessToken, service, converter, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Create a new Scribe personal genome client which sends requests with the specified HTTP transport.
+     *
+     * @param accessToken access token, must not be null
+     * @param service OAuth service, must not be null
+     * @param converter converter, must not be null
+     * @param transport HTTP transport, must not be null
+     */
+    public ScribePersonalGenomeClient(final Token accessToken,
+                                      final OAuthService service,
+                                      final PersonalGenomeConverter converter,
+                                      final HttpTransport transport) {
+        this(accessToken, service, converter, transport, DEFAULT_BASE_URL, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Create a new Scribe personal genome client which splits genotype requests into chunks of at most
+     * <code>chunkSize</code> locations, issuing at most <code>parallelism</code> chunks concurrently.
+     *
+     * @param accessToken access token, must not be null
+     * @param service OAuth service, must not be null
+     * @param converter converter, must not be null
+     * @param chunkSize maximum number of locations per genotype request, must be at least one
+     * @param parallelism maximum number of concurrent requests, must be at least one
+     */
+    public ScribePersonalGenomeClient(final Token accessToken,
+                                      final OAuthService service,
+                                      final PersonalGenomeConverter converter,
+                                      final int chunkSize,
+                                      final int parallelism) {
+        this(accessToken, service, converter, chunkSize, parallelism, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Create a new Scribe personal genome client which splits genotype requests into chunks of at most
+     * <code>chunkSize</code> locations, issuing at most <code>parallelism</code> requests concurrently, and
+     * which fetches relatives <code>pageSize</code> at a time.
+     *
+     * @param accessToken access token, must not be null
+     * @param service OAuth service, must not be null
+     * @param converter converter, must not be null
+     * @param chunkSize maximum number of locations per genotype request, must be at least one
+     * @param parallelism maximum number of concurrent requests, must be at least one
+     * @param pageSize number of relatives per page, must be at least one
+     */
+    public ScribePersonalGenomeClient(final Token accessToken,
+                                      final OAuthService service,
+                                      final PersonalGenomeConverter converter,
+                                      final int chunkSize,
+                                      final int parallelism,
+                                      final int pageSize) {
+        this(accessToken, service, converter, DEFAULT_BASE_URL, chunkSize, parallelism, pageSize);
+    }
+
+    /**
+     * Create a new Scribe personal genome client which sends requests to the API at <code>baseUrl</code>,
+     * splits genotype requests into chunks of at most <code>chunkSize</code> locations, issues at most
+     * <code>parallelism</code> requests concurrently, and fetches relatives <code>pageSize</code> at a time.
+     *
+     * @param accessToken access token, must not be null
+     * @param service OAuth service, must not be null
+     * @param converter converter, must not be null
+     * @param baseUrl base URL for API requests, e.g. <code>https://api.23andme.com/1/</code>, must not be null
+     *    and must end with <code>/</code>
+     * @param chunkSize maximum number of locations per genotype request, must be at least one
+     * @param parallelism maximum number of concurrent requests, must be at least one
+     * @param pageSize number of relatives per page, must be at least one
+     */
+    public ScribePersonalGenomeClient(final Token accessToken,
+                                      final OAuthService service,
+                                      final PersonalGenomeConverter converter,
+                                      final String baseUrl,
+                                      final int chunkSize,
+                                      final int parallelism,
+                                      final int pageSize) {
+        this(accessToken, service, converter, new DefaultHttpTransport(), baseUrl, chunkSize, parallelism, pageSize);
+    }
+
+    /**
+     * Create a new Scribe personal genome client which sends requests with the specified HTTP transport
+     * to the API at <code>baseUrl</code>, splits genotype requests into chunks of at most <code>chunkSize</code>
+     * locations, issues at most <code>parallelism</code> requests concurrently, and fetches relatives
+     * <code>pageSize</code> at a time.
+     *
+     * @param accessToken access token, must not be null
+     * @param service OAuth service, must not be null
+     * @param converter converter, must not be null
+     * @param transport HTTP transport, must not be null
+     * @param baseUrl base URL for API requests, e.g. <code>https://api.23andme.com/1/</code>, must not be null
+     *    and must end with <code>/</code>
+     * @param chunkSize maximum number of locations per genotype request, must be at least one
+     * @param parallelism maximum number of concurrent requests, must be at least one
+     * @param pageSize number of relatives per page, must be at least one
+     */
+    public ScribePersonalGenomeClient(final Token accessToken,
+                                      final OAuthService service,
+                                      final PersonalGenomeConverter converter,
+                                      final HttpTransport transport,
+                                      final String baseUrl,
+                                      final int chunkSize,
+                                      final int parallelism,
+                                      final int pageSize) {
+        this(accessToken, service, converter, transport, TransportPersonalGenomeClient.createExecutorService(parallelism), baseUrl, chunkSize, pageSize);
+    }
+
+    /**
+     * Create a new Scribe personal genome client which sends requests with the specified HTTP transport
+     * to the API at <code>baseUrl</code>, splits genotype requests into chunks of at most <code>chunkSize</code>
+     * locations, issues concurrent requests on the specified executor service, and fetches relatives
+     * <code>pageSize</code> at a time.  The executor service may be shared between clients and is not shut
+     * down by this client.
+     *
+     * @param accessToken access token, must not be null
+     * @param service OAuth service, must not be null
+     * @param converter converter, must not be null
+     * @param transport HTTP transport, must not be null
+     * @param executorService executor service for concurrent requests, must not be null
+     * @param baseUrl base URL for API requests, e.g. <code>https://api.23andme.com/1/</code>, must not be null
+     *    and must end with <code>/</code>
+     * @param chunkSize maximum number of locations per genotype request, must be at least one
+     * @param pageSize number of relatives per page, must be at least one
+     */
+    public ScribePersonalGenomeClient(final Token accessToken,
+                                      final OAuthService service,
+                                      final PersonalGenomeConverter converter,
+                                      final HttpTransport transport,
+                                      final ExecutorService executorService,
+                                      final String baseUrl,
+                                      final int chunkSize,
+                                      final int pageSize) {
         checkNotNull(accessToken);
         checkNotNull(service);
         checkNotNull(converter);
-        this.accessToken = accessToken;
-        this.service = service;
-        this.converter = converter;
+        checkNotNull(transport);
+        checkNotNull(executorService);
+        checkNotNull(baseUrl);
+        checkArgument(baseUrl.endsWith("/"), "baseUrl must end with /");
+        checkArgument(chunkSize > 0, "chunkSize must be at least one");
+        checkArgument(pageSize > 0, "pageSize must be at least one");
+        this.transport = new ScribePersonalGenomeTransport(accessToken, service, transport, baseUrl);
+        client = new TransportPersonalGenomeClient(this.transport, converter, executorService, chunkSize, pageSize);
     }
 
     @Override
     public User user() {
-        OAuthRequest request = createAndSignRequest(USER_URL);
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("user call ok");
-            return converter.parseUser(response.getStream());
-        }
-        logger.warn("could not call user, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.user();
     }
 
     @Override
     public UserName names(final String profileId) {
-        checkNotNull(profileId);
-        OAuthRequest request = createAndSignRequest(String.format(NAMES_URL, profileId));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("names call ok");
-            return converter.parseNames(response.getStream());
-        }
-        logger.warn("could not call names, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.names(profileId);
     }
 
     @Override
     public Haplogroup haplogroups(final String profileId) {
-        checkNotNull(profileId);
-        OAuthRequest request = createAndSignRequest(String.format(HAPLOGROUPS_URL, profileId));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("haplogroups call ok");
-            return converter.parseHaplogroups(response.getStream());
-        }
-        logger.warn("could not call haplogroups, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.haplogroups(profileId);
     }
 
     @Override
     public Genotype genotypes(final String profileId, final String... locations) {
-        checkNotNull(profileId);
-        checkNotNull(locations);
-        return genotypesWithScope(profileId, Joiner.on(" ").join(locations));
+        return client.genotypes(profileId, locations);
     }
 
     @Override
     public Genotype genotypes(final String profileId, final Iterable<String> locations) {
-        checkNotNull(profileId);
-        checkNotNull(locations);
-        return genotypesWithScope(profileId, Joiner.on(" ").join(locations));
+        return client.genotypes(profileId, locations);
     }
 
-    Genotype genotypesWithScope(final String profileId, final String scope) {
-        OAuthRequest request = createAndSignRequest(String.format(GENOTYPE_URL, profileId, scope));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("genotype call ok");
-            return converter.parseGenotypes(response.getStream());
-        }
-        logger.warn("could not call genotype, response code " + code);
-        throw converter.parseException(response.getStream());
+    @Override
+    public Genome genome(final String profileId) {
+        return client.genome(profileId);
     }
 
     @Override
-    public Genome genome(final String profileId) {
-        checkNotNull(profileId);
-        OAuthRequest request = createAndSignRequest(String.format(GENOMES_URL, profileId));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("genomes call ok");
-            return converter.parseGenomes(response.getStream());
-        }
-        logger.warn("could not call genomes, response code " + code);
-        throw converter.parseException(response.getStream());
+    public PackedGenome packedGenome(final String profileId) {
+        return client.packedGenome(profileId);
     }
 
     @Override
     public Ancestry ancestry(final String profileId, final double threshold) {
-        checkNotNull(profileId);
-        if (threshold <= 0.5 || threshold >= 1.0) {
-            throw new IllegalArgumentException("threshold must be in the range (0.5, 1.0), exclusive");
-        }
-        OAuthRequest request = createAndSignRequest(String.format(ANCESTRY_URL, profileId, threshold));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("ancestry call ok");
-            return converter.parseAncestry(response.getStream());
-        }
-        logger.warn("could not call ancestry, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.ancestry(profileId, threshold);
     }
 
     @Override
     public double neanderthalProportion(final String profileId) {
-        checkNotNull(profileId);
-        OAuthRequest request = createAndSignRequest(String.format(NEANDERTHAL_URL, profileId));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("neanderthal proportion call ok");
-            return converter.parseNeanderthalProportion(response.getStream());
-        }
-        logger.warn("could not call neanderthal proportion, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.neanderthalProportion(profileId);
     }
 
     @Override
     public Iterator<Relative> relatives(final String profileId) {
-        checkNotNull(profileId);
-        // todo: used chunked iterator
-        OAuthRequest request = createAndSignRequest(String.format(RELATIVES_URL, profileId, 0, 100));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("relatives call ok");
-            return converter.parseRelatives(response.getStream()).iterator();
-        }
-        logger.warn("could not call relatives, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.relatives(profileId);
     }
 
     @Override
     public List<Relative> relatives(final String profileId, final int offset, final int limit) {
-        checkNotNull(profileId);
-        // note limit and offset are in a different order here
-        OAuthRequest request = createAndSignRequest(String.format(RELATIVES_URL, profileId, limit, offset));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("relatives call ok");
-            return converter.parseRelatives(response.getStream());
-        }
-        logger.warn("could not call relatives, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.relatives(profileId, offset, limit);
     }
 
     @Override
     public List<Risk> risks(final String profileId) {
-        checkNotNull(profileId);
-        OAuthRequest request = createAndSignRequest(String.format(RISKS_URL, profileId));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("risks call ok");
-            return converter.parseRisks(response.getStream());
-        }
-        logger.warn("could not call risks, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.risks(profileId);
     }
 
     @Override
     public List<Carrier> carriers(final String profileId) {
-        checkNotNull(profileId);
-        OAuthRequest request = createAndSignRequest(String.format(CARRIERS_URL, profileId));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("carriers call ok");
-            return converter.parseCarriers(response.getStream());
-        }
-        logger.warn("could not call carriers, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.carriers(profileId);
     }
 
     @Override
     public List<DrugResponse> drugResponses(final String profileId) {
-        checkNotNull(profileId);
-        OAuthRequest request = createAndSignRequest(String.format(DRUG_RESPONSES_URL, profileId));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("drug responses call ok");
-            return converter.parseDrugResponses(response.getStream());
-        }
-        logger.warn("could not call drug responses, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.drugResponses(profileId);
     }
 
     @Override
     public List<Trait> traits(final String profileId) {
-        checkNotNull(profileId);
-        OAuthRequest request = createAndSignRequest(String.format(TRAITS_URL, profileId));
-        Response response = request.send();
-        int code = response.getCode();
-
-        if (code == 200) {
-            logger.trace("traits call ok");
-            return converter.parseTraits(response.getStream());
-        }
-        logger.warn("could not call traits, response code " + code);
-        throw converter.parseException(response.getStream());
+        return client.traits(profileId);
     }
 
     OAuthRequest createAndSignRequest(final String url) {
-        OAuthRequest request = new OAuthRequest(Verb.GET, url);
-        request.addHeader("Authorization", String.format("Bearer %s", accessToken.getToken()));
-        service.signRequest(accessToken, request);
-        return request;
+        return transport.createAndSignRequest(url);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,160 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.github.heuermh.personalgenome.client.PersonalGenomeClient;
+import com.github.heuermh.personalgenome.client.PersonalGenomeClientFactory;
+import com.github.heuermh.personalgenome.client.PersonalGenomeConverter;
+import com.github.heuermh.personalgenome.client.TransportPersonalGenomeClient;
+
+import org.scribe.model.Token;
+
+import org.scribe.oauth.OAuthService;
+
+/**
+ * Factory for Scribe personal genome API clients sharing an OAuth service, converter, HTTP transport,
+ * and executor service.
+ *
+ * <p>
+ * All clients created by a factory issue their concurrent requests on the same executor service, so
+ * parallelism is bounded across all of them.  An executor service created by the factory is shut down
+ * when the factory is closed; one provided to the factory is not.
+ * </p>
+ */
+@ThreadSafe
+public final class ScribePersonalGenomeClientFactory implements PersonalGenomeClientFactory, Closeable {
+    private final OAuthService service;
+    private final PersonalGenomeConverter converter;
+    private final HttpTransport transport;
+    private final ExecutorService executorService;
+    private final boolean ownsExecutorService;
+    private final String baseUrl;
+    private final int chunkSize;
+    private final int pageSize;
+
+
+    /**
+     * Create a new Scribe personal genome client factory.
+     *
+     * @param service OAuth service, must not be null
+     * @param converter converter, must not be null
+     */
+    public ScribePersonalGenomeClientFactory(final OAuthService service, final PersonalGenomeConverter converter) {
+        this(service, converter, new DefaultHttpTransport(), ScribePersonalGenomeClient.DEFAULT_BASE_URL, ScribePersonalGenomeClient.DEFAULT_CHUNK_SIZE,
+             ScribePersonalGenomeClient.DEFAULT_PARALLELISM, ScribePersonalGenomeClient.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Create a new Scribe personal genome client factory with its own executor service, shut down when
+     * this factory is closed.
+     *
+     * @param service OAuth service, must not be null
+     * @param converter converter, must not be null
+     * @param transport HTTP transport shared by the clients created, must not be null
+     * @param baseUrl base URL for API requests, must not be null and must end with <code>/</code>
+     * @param chunkSize maximum number of locations per genotype request, must be at least one
+     * @param parallelism maximum number of concurrent requests across all clients created, must be at least one
+     * @param pageSize number of relatives per page, must be at least one
+     */
+    public ScribePersonalGenomeClientFactory(final OAuthService service,
+                                             final PersonalGenomeConverter converter,
+                                             final HttpTransport transport,
+                                             final String baseUrl,
+                                             final int chunkSize,
+                                             final int parallelism,
+                                             final int pageSize) {
+        this(service, converter, transport, TransportPersonalGenomeClient.createExecutorService(parallelism), true, baseUrl, chunkSize, pageSize);
+    }
+
+    /**
+     * Create a new Scribe personal genome client factory sharing the specified executor service, which is
+     * not shut down when this factory is closed.
+     *
+     * @param service OAuth service, must not be null
+     * @param converter converter, must not be null
+     * @param transport HTTP transport shared by the clients created, must not be null
+     * @param executorService executor service shared by the clients created, must not be null
+     * @param baseUrl base URL for API requests, must not be null and must end with <code>/</code>
+     * @param chunkSize maximum number of locations per genotype request, must be at least one
+     * @param pageSize number of relatives per page, must be at least one
+     */
+    public ScribePersonalGenomeClientFactory(final OAuthService service,
+                                             final PersonalGenomeConverter converter,
+                                             final HttpTransport transport,
+                                             final ExecutorService executorService,
+                                             final String baseUrl,
+                                             final int chunkSize,
+                                             final int pageSize) {
+        this(service, converter, transport, executorService, false, baseUrl, chunkSize, pageSize);
+    }
+
+    private ScribePersonalGenomeClientFactory(final OAuthService service,
+                                              final PersonalGenomeConverter converter,
+                                              final HttpTransport transport,
+                                              final ExecutorService executorService,
+                                              final boolean ownsExecutorService,
+                                              final String baseUrl,
+                                              final int chunkSize,
+                                              final int pageSize) {
+        checkNotNull(service);
+        checkNotNull(converter);
+        checkNotNull(transport);
+        checkNotNull(executorService);
+        checkNotNull(baseUrl);
+        checkArgument(baseUrl.endsWith("/"), "baseUrl must end with /");
+        checkArgument(chunkSize > 0, "chunkSize must be at least one");
+        checkArgument(pageSize > 0, "pageSize must be at least one");
+        this.service = service;
+        this.converter = converter;
+        this.transport = transport;
+        this.executorService = executorService;
+        this.ownsExecutorService = ownsExecutorService;
+        this.baseUrl = baseUrl;
+        this.chunkSize = chunkSize;
+        this.pageSize = pageSize;
+    }
+
+
+    @Override
+    public PersonalGenomeClient create(final String accessToken) {
+        checkNotNull(accessToken);
+        return new ScribePersonalGenomeClient(new Token(accessToken, ""), service, converter, transport, executorService, baseUrl, chunkSize, pageSize);
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutorService) {
+            executorService.shutdown();
+        }
+    }
+}
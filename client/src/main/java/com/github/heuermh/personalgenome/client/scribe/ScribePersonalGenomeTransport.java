@@ -0,0 +1,88 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.github.heuermh.personalgenome.client.PersonalGenomeTransport;
+import com.github.heuermh.personalgenome.client.TransportResponse;
+
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+
+import org.scribe.oauth.OAuthService;
+
+/**
+ * Personal genome transport that builds and signs requests with Scribe and sends them with an HTTP transport.
+ */
+@ThreadSafe
+public final class ScribePersonalGenomeTransport implements PersonalGenomeTransport {
+    private final Token accessToken;
+    private final OAuthService service;
+    private final HttpTransport transport;
+    private final String baseUrl;
+
+
+    /**
+     * Create a new Scribe personal genome transport.
+     *
+     * @param accessToken access token, must not be null
+     * @param service OAuth service, must not be null
+     * @param transport HTTP transport, must not be null
+     * @param baseUrl base URL for API requests, e.g. <code>https://api.23andme.com/1/</code>, must not be null
+     *    and must end with <code>/</code>
+     */
+    public ScribePersonalGenomeTransport(final Token accessToken,
+                                         final OAuthService service,
+                                         final HttpTransport transport,
+                                         final String baseUrl) {
+        checkNotNull(accessToken);
+        checkNotNull(service);
+        checkNotNull(transport);
+        checkNotNull(baseUrl);
+        checkArgument(baseUrl.endsWith("/"), "baseUrl must end with /");
+        this.accessToken = accessToken;
+        this.service = service;
+        this.transport = transport;
+        this.baseUrl = baseUrl;
+    }
+
+
+    @Override
+    public TransportResponse get(final String path) {
+        checkNotNull(path);
+        return transport.send(createAndSignRequest(baseUrl + path));
+    }
+
+    OAuthRequest createAndSignRequest(final String url) {
+        OAuthRequest request = new OAuthRequest(Verb.GET, url);
+        request.addHeader("Authorization", String.format("Bearer %s", accessToken.getToken()));
+        service.signRequest(accessToken, request);
+        return request;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.github.heuermh.personalgenome.client.TransportResponse;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+import org.scribe.exceptions.OAuthConnectionException;
+
+import org.scribe.model.OAuthRequest;
+
+/**
+ * HTTP transport decorator that limits the rate of requests, globally and per access token, and adapts
+ * the number of requests in flight to the responses of the server.
+ *
+ * <p>Requests wait for a permit from the rate limiter of their access token, identified by their
+ * <code>Authorization</code> header, then from the global rate limiter, then for room under the
+ * concurrency limit.  The concurrency limit halves on throttling (<code>429</code>) and server error
+ * (<code>5xx</code>) responses and failed requests, shrinks as the latency of successful (<code>2xx</code>)
+ * responses grows against a baseline per route, and grows again on success; see
+ * {@link AdaptiveConcurrencyLimiter}.  Other responses leave the limit unchanged.  A route is the host
+ * and the path segments without digits, so requests for different profiles share a route.  A request
+ * is in flight until its response body stream is read to the end or closed.</p>
+ */
+@ThreadSafe
+public final class ThrottlingHttpTransport implements HttpTransport {
+    private final HttpTransport delegate;
+    private final RateLimiter global;
+    private final LoadingCache<String, RateLimiter> perToken;
+    private final AdaptiveConcurrencyLimiter concurrency;
+    /** Default global rate, in requests per second. */
+    static final double DEFAULT_GLOBAL_RATE = 50.0d;
+    /** Default rate per access token, in requests per second. */
+    static final double DEFAULT_PER_TOKEN_RATE = 10.0d;
+    /** Default initial concurrency limit. */
+    static final int DEFAULT_INITIAL_LIMIT = 4;
+    /** Default maximum concurrency limit. */
+    static final int DEFAULT_MAXIMUM_LIMIT = 32;
+    /** Default latency tolerance, as a multiple of the baseline latency. */
+    static final double DEFAULT_TOLERANCE = 3.0d;
+
+
+    /**
+     * Create a new throttling HTTP transport with default rates and concurrency limits.
+     *
+     * @param delegate delegate HTTP transport, must not be null
+     */
+    public ThrottlingHttpTransport(final HttpTransport delegate) {
+        this(delegate, DEFAULT_GLOBAL_RATE, DEFAULT_PER_TOKEN_RATE, DEFAULT_INITIAL_LIMIT, DEFAULT_MAXIMUM_LIMIT);
+    }
+
+    /**
+     * Create a new throttling HTTP transport.
+     *
+     * @param delegate delegate HTTP transport, must not be null
+     * @param globalRate global rate, in requests per second, must be greater than zero
+     * @param perTokenRate rate per access token, in requests per second, must be greater than zero
+     * @param initialLimit initial concurrency limit, must be at least one and at most <code>maximumLimit</code>
+     * @param maximumLimit maximum concurrency limit, must be at least one
+     */
+    public ThrottlingHttpTransport(final HttpTransport delegate,
+                                   final double globalRate,
+                                   final double perTokenRate,
+                                   final int initialLimit,
+                                   final int maximumLimit) {
+        checkNotNull(delegate);
+        checkArgument(globalRate > 0.0d, "globalRate must be greater than zero");
+        checkArgument(perTokenRate > 0.0d, "perTokenRate must be greater than zero");
+        this.delegate = delegate;
+        this.global = RateLimiter.create(globalRate);
+        this.perToken = CacheBuilder.newBuilder()
+            .expireAfterAccess(1L, TimeUnit.HOURS)
+            .build(new CacheLoader<String, RateLimiter>() {
+                    @Override
+                    public RateLimiter load(final String token) {
+                        return RateLimiter.create(perTokenRate);
+                    }
+                });
+        this.concurrency = new AdaptiveConcurrencyLimiter(initialLimit, maximumLimit, DEFAULT_TOLERANCE);
+    }
+
+
+    @Override
+    public TransportResponse send(final OAuthRequest request) {
+        checkNotNull(request);
+        perToken.getUnchecked(Strings.nullToEmpty(request.getHeaders().get("Authorization"))).acquire();
+        global.acquire();
+        try {
+            concurrency.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuthConnectionException(e);
+        }
+
+        boolean sent = false;
+        try {
+            long start = System.nanoTime();
+            TransportResponse response = delegate.send(request);
+            int code = response.getCode();
+            if (isOverloaded(code)) {
+                concurrency.onOverload();
+            }
+            else if (code >= 200 && code < 300) {
+                concurrency.onSuccess(route(request.getCompleteUrl()), System.nanoTime() - start);
+            }
+            TransportResponse throttledResponse = new TransportResponse(response.getCode(), new ReleasingInputStream(response.getStream()) {
+                    @Override
+                    void release() {
+                        concurrency.release();
+                    }
+                });
+            sent = true;
+            return throttledResponse;
+        }
+        catch (RuntimeException e) {
+            concurrency.onOverload();
+            throw e;
+        }
+        finally {
+            if (!sent) {
+                concurrency.release();
+            }
+        }
+    }
+
+    /**
+     * Return the current concurrency limit.
+     *
+     * @return the current concurrency limit
+     */
+    public int limit() {
+        return concurrency.limit();
+    }
+
+    /**
+     * Return the number of requests in flight.
+     *
+     * @return the number of requests in flight
+     */
+    public int inFlight() {
+        return concurrency.inFlight();
+    }
+
+    /**
+     * Return true if the specified status code is a throttling or server error response.
+     *
+     * @param code status code
+     * @return true if the specified status code is a throttling or server error response
+     */
+    static boolean isOverloaded(final int code) {
+        return code == 429 || code >= 500;
+    }
+
+    /**
+     * Return the route for the specified URL, its host and port and the path segments without digits.
+     *
+     * @param url URL
+     * @return the route for the specified URL
+     */
+    static String route(final String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = url.indexOf('?', start);
+        StringBuilder sb = new StringBuilder();
+        for (String segment : Splitter.on('/').split(end < 0 ? url.substring(start) : url.substring(start, end))) {
+            if (sb.length() == 0) {
+                sb.append(segment);
+            }
+            else if (!segment.isEmpty() && !CharMatcher.DIGIT.matchesAnyOf(segment)) {
+                sb.append("/");
+                sb.append(segment);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,264 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.github.heuermh.personalgenome.client.PersonalGenomeClient;
+import com.github.heuermh.personalgenome.client.PersonalGenomeClientFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk sync engine, runs a sync task for each of a stream of (access token, profile) work items
+ * on a bounded worker pool.
+ *
+ * <p>
+ * At most <code>parallelism</code> work items are synced concurrently, and at most
+ * <code>concurrencyPerToken</code> of those share an access token.  Work items for an access token
+ * already at its limit are queued per token rather than blocking the other tokens, and the number of
+ * work items read ahead of the workers is bounded so the stream of work items may be arbitrarily long.
+ * </p>
+ * <p>
+ * Profiles are recorded in the checkpoint once synced and skipped by later runs, so a run that crashed
+ * or was interrupted may be resumed by running again with the same checkpoint.  Failed profiles are
+ * not recorded and are retried by later runs.
+ * </p>
+ */
+@ThreadSafe
+public final class BulkSync {
+    private final PersonalGenomeClientFactory clientFactory;
+    private final SyncTask task;
+    private final Checkpoint checkpoint;
+    private final int parallelism;
+    private final int concurrencyPerToken;
+    private final Logger logger = LoggerFactory.getLogger(BulkSync.class);
+    /** Default maximum number of work items synced concurrently. */
+    static final int DEFAULT_PARALLELISM = 16;
+    /** Default maximum number of work items synced concurrently per access token. */
+    static final int DEFAULT_CONCURRENCY_PER_TOKEN = 2;
+
+
+    /**
+     * Create a new bulk sync engine with default concurrency limits.
+     *
+     * @param clientFactory client factory, must not be null
+     * @param task sync task, must not be null
+     * @param checkpoint checkpoint, must not be null
+     */
+    public BulkSync(final PersonalGenomeClientFactory clientFactory, final SyncTask task, final Checkpoint checkpoint) {
+        this(clientFactory, task, checkpoint, DEFAULT_PARALLELISM, DEFAULT_CONCURRENCY_PER_TOKEN);
+    }
+
+    /**
+     * Create a new bulk sync engine.
+     *
+     * @param clientFactory client factory, must not be null
+     * @param task sync task, must not be null
+     * @param checkpoint checkpoint, must not be null
+     * @param parallelism maximum number of work items synced concurrently, must be at least one
+     * @param concurrencyPerToken maximum number of work items synced concurrently per access token,
+     *    must be at least one
+     */
+    public BulkSync(final PersonalGenomeClientFactory clientFactory,
+                    final SyncTask task,
+                    final Checkpoint checkpoint,
+                    final int parallelism,
+                    final int concurrencyPerToken) {
+        checkNotNull(clientFactory);
+        checkNotNull(task);
+        checkNotNull(checkpoint);
+        checkArgument(parallelism > 0, "parallelism must be at least one");
+        checkArgument(concurrencyPerToken > 0, "concurrencyPerToken must be at least one");
+        this.clientFactory = clientFactory;
+        this.task = task;
+        this.checkpoint = checkpoint;
+        this.parallelism = parallelism;
+        this.concurrencyPerToken = concurrencyPerToken;
+    }
+
+
+    /**
+     * Sync the specified work items, blocking until all have been synced or have failed.
+     *
+     * @param items work items to sync, must not be null
+     * @return the result of this run
+     * @throws InterruptedException if interrupted while waiting, in which case in-flight work items
+     *    are interrupted and not recorded as synced
+     */
+    public SyncResult run(final Iterable<SyncItem> items) throws InterruptedException {
+        checkNotNull(items);
+        return run(items.iterator());
+    }
+
+    /**
+     * Sync the specified work items, blocking until all have been synced or have failed.
+     *
+     * @param items work items to sync, must not be null
+     * @return the result of this run
+     * @throws InterruptedException if interrupted while waiting, in which case in-flight work items
+     *    are interrupted and not recorded as synced
+     */
+    public SyncResult run(final Iterator<SyncItem> items) throws InterruptedException {
+        checkNotNull(items);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("personal-genome-sync-%d").build());
+        try {
+            return new Run(executor).run(items);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Per-token scheduling state.
+     */
+    private static final class TokenState {
+        private int active;
+        private final LinkedList<SyncItem> pending = new LinkedList<SyncItem>();
+    }
+
+    /**
+     * State of a single run.
+     */
+    private final class Run {
+        private final ExecutorService executor;
+        /** Permits for work items read ahead of the workers, running or queued. */
+        private final int readAhead = parallelism * 2;
+        private final Semaphore permits = new Semaphore(readAhead);
+        private final Map<String, TokenState> tokens = new HashMap<String, TokenState>();
+        private final AtomicInteger synced = new AtomicInteger();
+        private int skipped = 0;
+        private final Map<String, Throwable> failures = new ConcurrentHashMap<String, Throwable>();
+
+
+        Run(final ExecutorService executor) {
+            this.executor = executor;
+        }
+
+
+        SyncResult run(final Iterator<SyncItem> items) throws InterruptedException {
+            while (items.hasNext()) {
+                SyncItem item = items.next();
+                checkNotNull(item);
+                if (checkpoint.isSynced(item.getProfileId())) {
+                    skipped++;
+                    continue;
+                }
+                permits.acquire();
+                dispatch(item);
+            }
+            permits.acquire(readAhead);
+            SyncResult result = new SyncResult(synced.get(), skipped, failures);
+            logger.info("synced " + result.getSynced() + " profiles, skipped " + result.getSkipped() + ", failed " + result.getFailed());
+            return result;
+        }
+
+        void dispatch(final SyncItem item) {
+            synchronized (tokens) {
+                TokenState state = tokens.get(item.getAccessToken());
+                if (state == null) {
+                    state = new TokenState();
+                    tokens.put(item.getAccessToken(), state);
+                }
+                if (state.active < concurrencyPerToken) {
+                    state.active++;
+                    submit(item);
+                }
+                else {
+                    state.pending.add(item);
+                }
+            }
+        }
+
+        void submit(final SyncItem item) {
+            executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            sync(item);
+                        }
+                        finally {
+                            complete(item);
+                        }
+                    }
+                });
+        }
+
+        void sync(final SyncItem item) {
+            String profileId = item.getProfileId();
+            try {
+                PersonalGenomeClient client = clientFactory.create(item.getAccessToken());
+                task.sync(client, profileId);
+                checkpoint.synced(profileId);
+                synced.incrementAndGet();
+            }
+            catch (Exception e) {
+                logger.warn("could not sync profile " + profileId, e);
+                failures.put(profileId, e);
+            }
+        }
+
+        void complete(final SyncItem item) {
+            SyncItem next = null;
+            synchronized (tokens) {
+                TokenState state = tokens.get(item.getAccessToken());
+                next = state.pending.poll();
+                if (next == null) {
+                    state.active--;
+                    if (state.active == 0) {
+                        tokens.remove(item.getAccessToken());
+                    }
+                }
+            }
+            if (next != null) {
+                submit(next);
+            }
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import java.io.IOException;
+
+/**
+ * Bulk sync checkpoint, records which profiles have been synced so that a run may be resumed.
+ */
+public interface Checkpoint {
+
+    /**
+     * Return true if the profile with the specified profile id has been synced.
+     *
+     * @param profileId profile id
+     * @return true if the profile with the specified profile id has been synced
+     */
+    boolean isSynced(String profileId);
+
+    /**
+     * Record the profile with the specified profile id as synced.
+     *
+     * @param profileId profile id
+     * @throws IOException if an I/O error occurs
+     */
+    void synced(String profileId) throws IOException;
+}
@@ -0,0 +1,163 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Checkpoint that appends the ids of synced profiles to a file, one per line, flushing after each.
+ * A partially written last line, left by a run that crashed mid-write, is discarded when the file
+ * is read again.
+ */
+@ThreadSafe
+public final class FileCheckpoint implements Checkpoint, Closeable {
+    private final Set<String> synced;
+    private final Writer writer;
+
+
+    /**
+     * Create a new file checkpoint, reading the ids of profiles synced by previous runs from the
+     * specified file if it exists.
+     *
+     * @param file file, must not be null
+     * @throws IOException if an I/O error occurs
+     */
+    public FileCheckpoint(final File file) throws IOException {
+        checkNotNull(file);
+        synced = new HashSet<String>();
+        if (file.exists()) {
+            long complete = read(file, synced);
+            if (complete < file.length()) {
+                truncate(file, complete);
+            }
+        }
+        writer = new OutputStreamWriter(new FileOutputStream(file, true), Charsets.UTF_8);
+    }
+
+
+    @Override
+    public synchronized boolean isSynced(final String profileId) {
+        return synced.contains(profileId);
+    }
+
+    @Override
+    public synchronized void synced(final String profileId) throws IOException {
+        checkNotNull(profileId);
+        checkArgument(profileId.indexOf('\n') < 0, "profileId must not contain line breaks");
+        if (synced.add(profileId)) {
+            writer.write(profileId);
+            writer.write("\n");
+            writer.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Read complete lines from the specified file into the specified set of profile ids.
+     *
+     * @param file file to read
+     * @param synced set of profile ids to add to
+     * @return the length in bytes of the complete lines read
+     * @throws IOException if an I/O error occurs
+     */
+    static long read(final File file, final Set<String> synced) throws IOException {
+        InputStream inputStream = null;
+        try {
+            inputStream = new BufferedInputStream(new FileInputStream(file));
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = 0L;
+            long complete = 0L;
+            int b;
+            while ((b = inputStream.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    if (line.size() > 0) {
+                        synced.add(new String(line.toByteArray(), Charsets.UTF_8));
+                        line.reset();
+                    }
+                    complete = position;
+                }
+                else {
+                    line.write(b);
+                }
+            }
+            return complete;
+        }
+        finally {
+            try {
+                inputStream.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Truncate the specified file to the specified length.
+     *
+     * @param file file to truncate
+     * @param length length in bytes
+     * @throws IOException if an I/O error occurs
+     */
+    static void truncate(final File file, final long length) throws IOException {
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            randomAccessFile.setLength(length);
+        }
+        finally {
+            try {
+                randomAccessFile.close();
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+}
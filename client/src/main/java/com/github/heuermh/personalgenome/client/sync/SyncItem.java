@@ -0,0 +1,75 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Bulk sync work item, a profile and the access token with which to read it.
+ */
+@Immutable
+public final class SyncItem {
+    private final String accessToken;
+    private final String profileId;
+
+
+    /**
+     * Create a new sync work item.
+     *
+     * @param accessToken access token, must not be null
+     * @param profileId profile id, must not be null
+     */
+    public SyncItem(final String accessToken, final String profileId) {
+        checkNotNull(accessToken);
+        checkNotNull(profileId);
+        this.accessToken = accessToken;
+        this.profileId = profileId;
+    }
+
+
+    /**
+     * Return the access token for this sync work item.
+     *
+     * @return the access token for this sync work item
+     */
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    /**
+     * Return the profile id for this sync work item.
+     *
+     * @return the profile id for this sync work item
+     */
+    public String getProfileId() {
+        return profileId;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncItem[" + profileId + "]";
+    }
+}
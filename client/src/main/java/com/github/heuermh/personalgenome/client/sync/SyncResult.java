@@ -0,0 +1,106 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+
+import javax.annotation.concurrent.Immutable;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Result of a bulk sync run.
+ */
+@Immutable
+public final class SyncResult {
+    private final int synced;
+    private final int skipped;
+    private final Map<String, Throwable> failures;
+
+
+    /**
+     * Create a new bulk sync result.
+     *
+     * @param synced number of profiles synced, must be at least zero
+     * @param skipped number of profiles skipped as already synced by a previous run, must be at least zero
+     * @param failures map of failures keyed by profile id, must not be null
+     */
+    public SyncResult(final int synced, final int skipped, final Map<String, ? extends Throwable> failures) {
+        checkArgument(synced >= 0, "synced must be at least zero");
+        checkArgument(skipped >= 0, "skipped must be at least zero");
+        checkNotNull(failures);
+        this.synced = synced;
+        this.skipped = skipped;
+        this.failures = ImmutableMap.<String, Throwable>copyOf(failures);
+    }
+
+
+    /**
+     * Return the number of profiles synced.
+     *
+     * @return the number of profiles synced
+     */
+    public int getSynced() {
+        return synced;
+    }
+
+    /**
+     * Return the number of profiles skipped as already synced by a previous run.
+     *
+     * @return the number of profiles skipped as already synced by a previous run
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Return the number of profiles that failed to sync.
+     *
+     * @return the number of profiles that failed to sync
+     */
+    public int getFailed() {
+        return failures.size();
+    }
+
+    /**
+     * Return an immutable map of failures keyed by profile id.
+     *
+     * @return an immutable map of failures keyed by profile id
+     */
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Return true if no profile failed to sync.
+     *
+     * @return true if no profile failed to sync
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import com.github.heuermh.personalgenome.client.PersonalGenomeClient;
+
+/**
+ * Bulk sync task, run once per sync work item.
+ */
+public interface SyncTask {
+
+    /**
+     * Sync the profile with the specified profile id using the specified client.  Implementations
+     * should be idempotent, a profile may be synced again if a run is interrupted before its progress
+     * is checkpointed.
+     *
+     * @param client personal genome API client bound to the access token of the work item
+     * @param profileId profile id
+     * @throws Exception if the profile could not be synced
+     */
+    void sync(PersonalGenomeClient client, String profileId) throws Exception;
+}
@@ -87,6 +87,11 @@ public abstract class AbstractPersonalGenomeClientTest {
         client.genome(null);
     }
 
+    @Test(expected=NullPointerException.class)
+    public void testPackedGenomeNullProfileId() {
+        ((PackedGenomeClient) client).packedGenome(null);
+    }
+
     @Test(expected=NullPointerException.class)
     public void testAncestryNullProfileId() {
         client.ancestry(null, 0.9d);
@@ -0,0 +1,238 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.mockito.invocation.InvocationOnMock;
+
+import org.mockito.stubbing.Answer;
+
+/**
+ * Unit test for BulkheadPersonalGenomeClient.
+ */
+public final class BulkheadPersonalGenomeClientTest extends AbstractPersonalGenomeClientTest {
+    private UserName userName;
+
+    @Mock
+    private PersonalGenomeClient delegate;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        super.setUp();
+        userName = new UserName("profileId", "first", "last", ImmutableList.<ProfileName>of());
+    }
+
+    @Override
+    protected PersonalGenomeClient createPersonalGenomeClient() {
+        return new BulkheadPersonalGenomeClient(delegate);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDelegate() {
+        new BulkheadPersonalGenomeClient(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new BulkheadPersonalGenomeClient(delegate, Collections.<Call, ExecutorService>emptyMap(), 0, null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullExecutorServices() {
+        new BulkheadPersonalGenomeClient(delegate, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCreateExecutorServiceInvalidThreads() {
+        BulkheadPersonalGenomeClient.createExecutorService("test-%d", 0, 1, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCreateExecutorServiceInvalidQueueLimit() {
+        BulkheadPersonalGenomeClient.createExecutorService("test-%d", 1, -1, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testCreateExecutorServiceNullRejectedExecutionHandler() {
+        BulkheadPersonalGenomeClient.createExecutorService("test-%d", 1, 1, null);
+    }
+
+    @Test
+    public void testRunsOnGroupExecutorService() {
+        final AtomicReference<String> threadName = new AtomicReference<String>();
+        when(delegate.names("profileId")).thenAnswer(new Answer<UserName>() {
+                @Override
+                public UserName answer(final InvocationOnMock invocation) {
+                    threadName.set(Thread.currentThread().getName());
+                    return userName;
+                }
+            });
+        assertSame(userName, client.names("profileId"));
+        assertTrue(threadName.get().startsWith("personal-genome-client-metadata-"));
+    }
+
+    @Test
+    public void testCallWithoutExecutorServiceRunsOnCallingThread() {
+        client = new BulkheadPersonalGenomeClient(delegate, ImmutableMap.<Call, ExecutorService>of());
+        final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+        when(delegate.names("profileId")).thenAnswer(new Answer<UserName>() {
+                @Override
+                public UserName answer(final InvocationOnMock invocation) {
+                    thread.set(Thread.currentThread());
+                    return userName;
+                }
+            });
+        assertSame(userName, client.names("profileId"));
+        assertSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    public void testExceptionPropagated() {
+        when(delegate.names("profileId")).thenThrow(new AccessDeniedException("denied"));
+        try {
+            client.names("profileId");
+            fail("expected AccessDeniedException");
+        }
+        catch (AccessDeniedException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBulkDoesNotBlockMetadata() throws Exception {
+        ExecutorService bulk = BulkheadPersonalGenomeClient.createExecutorService("test-bulk-%d", 1, 1, new ThreadPoolExecutor.AbortPolicy());
+        ExecutorService metadata = BulkheadPersonalGenomeClient.createExecutorService("test-metadata-%d", 1, 1, new ThreadPoolExecutor.AbortPolicy());
+        client = new BulkheadPersonalGenomeClient(delegate, ImmutableMap.of(Call.GENOME, bulk, Call.NAMES, metadata));
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(delegate.genome("profileId")).thenAnswer(new Answer<Genome>() {
+                @Override
+                public Genome answer(final InvocationOnMock invocation) throws Exception {
+                    started.countDown();
+                    release.await(5L, TimeUnit.SECONDS);
+                    return new Genome("profileId", "AACC");
+                }
+            });
+        when(delegate.names("profileId")).thenReturn(userName);
+
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            Future<Genome> first = submitGenome(callers);
+            assertTrue(started.await(5L, TimeUnit.SECONDS));
+            Future<Genome> queued = submitGenome(callers);
+            TimeUnit.MILLISECONDS.sleep(50L);
+
+            try {
+                client.genome("profileId");
+                fail("expected RejectedExecutionException");
+            }
+            catch (RejectedExecutionException e) {
+                // expected
+            }
+            assertSame(userName, client.names("profileId"));
+
+            release.countDown();
+            assertEquals("AACC", first.get(5L, TimeUnit.SECONDS).getValues());
+            assertEquals("AACC", queued.get(5L, TimeUnit.SECONDS).getValues());
+        }
+        finally {
+            release.countDown();
+            callers.shutdownNow();
+            bulk.shutdownNow();
+            metadata.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCallerRunsPolicy() throws Exception {
+        ExecutorService bulk = BulkheadPersonalGenomeClient.createExecutorService("test-bulk-%d", 1, 0, new ThreadPoolExecutor.CallerRunsPolicy());
+        client = new BulkheadPersonalGenomeClient(delegate, ImmutableMap.of(Call.GENOME, bulk));
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(delegate.genome("profileId")).thenAnswer(new Answer<Genome>() {
+                @Override
+                public Genome answer(final InvocationOnMock invocation) throws Exception {
+                    if (started.getCount() > 0L) {
+                        started.countDown();
+                        release.await(5L, TimeUnit.SECONDS);
+                    }
+                    return new Genome("profileId", "AACC");
+                }
+            });
+
+        ExecutorService callers = Executors.newFixedThreadPool(1);
+        try {
+            Future<Genome> first = submitGenome(callers);
+            assertTrue(started.await(5L, TimeUnit.SECONDS));
+            assertEquals("AACC", client.genome("profileId").getValues());
+            release.countDown();
+            assertEquals("AACC", first.get(5L, TimeUnit.SECONDS).getValues());
+        }
+        finally {
+            release.countDown();
+            callers.shutdownNow();
+            bulk.shutdownNow();
+        }
+    }
+
+    private Future<Genome> submitGenome(final ExecutorService executorService) {
+        return executorService.submit(new Callable<Genome>() {
+                @Override
+                public Genome call() {
+                    return client.genome("profileId");
+                }
+            });
+    }
+}
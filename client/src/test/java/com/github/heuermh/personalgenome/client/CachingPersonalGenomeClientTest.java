@@ -0,0 +1,250 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Strings;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.mockito.invocation.InvocationOnMock;
+
+import org.mockito.stubbing.Answer;
+
+/**
+ * Unit test for CachingPersonalGenomeClient.
+ */
+public final class CachingPersonalGenomeClientTest extends AbstractPersonalGenomeClientTest {
+    private CachingPersonalGenomeClient cachingClient;
+
+    @Mock
+    private PersonalGenomeClient delegate;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        super.setUp();
+        cachingClient = (CachingPersonalGenomeClient) client;
+    }
+
+    @Override
+    protected PersonalGenomeClient createPersonalGenomeClient() {
+        return new CachingPersonalGenomeClient(delegate);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDelegate() {
+        new CachingPersonalGenomeClient(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new CachingPersonalGenomeClient(delegate, CachingPersonalGenomeClient.DEFAULT_TTLS, 0L, 0, null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullTtls() {
+        new CachingPersonalGenomeClient(delegate, null, 1L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidTtl() {
+        new CachingPersonalGenomeClient(delegate, ImmutableMap.of(Call.GENOME, 0L), 1L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidMaximumWeight() {
+        new CachingPersonalGenomeClient(delegate, ImmutableMap.of(Call.GENOME, 1L), -1L);
+    }
+
+    @Test
+    public void testGenomeCached() {
+        Genome genome = new Genome("profileId", "AACC");
+        when(delegate.genome("profileId")).thenReturn(genome);
+
+        assertSame(genome, client.genome("profileId"));
+        assertSame(genome, client.genome("profileId"));
+        verify(delegate, times(1)).genome("profileId");
+        assertEquals(1L, cachingClient.stats().hitCount());
+        assertEquals(1L, cachingClient.stats().missCount());
+    }
+
+    @Test
+    public void testKeyedByProfileIdAndParameters() {
+        when(delegate.ancestry("profileId", 0.75d)).thenReturn(new Ancestry("profileId", "label", 1.0d, 0.0d, ImmutableList.<Ancestry>of()));
+        when(delegate.ancestry("profileId", 0.9d)).thenReturn(new Ancestry("profileId", "label", 1.0d, 0.0d, ImmutableList.<Ancestry>of()));
+
+        client.ancestry("profileId", 0.75d);
+        client.ancestry("profileId", 0.9d);
+        client.ancestry("profileId", 0.75d);
+        verify(delegate, times(1)).ancestry("profileId", 0.75d);
+        verify(delegate, times(1)).ancestry("profileId", 0.9d);
+        assertEquals(2L, cachingClient.size());
+    }
+
+    @Test
+    public void testRisksNotCached() {
+        client.risks("profileId");
+        client.risks("profileId");
+        verify(delegate, times(2)).risks("profileId");
+        assertEquals(0L, cachingClient.stats().requestCount());
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        client = new CachingPersonalGenomeClient(delegate, ImmutableMap.of(Call.HAPLOGROUPS, 20L, Call.GENOME, 60000L), 1024L * 1024L);
+        when(delegate.haplogroups("profileId")).thenReturn(new Haplogroup("profileId", "paternal", "maternal", null, ImmutableList.<MaternalTerminalSnp>of()));
+
+        client.haplogroups("profileId");
+        client.haplogroups("profileId");
+        verify(delegate, times(1)).haplogroups("profileId");
+        TimeUnit.MILLISECONDS.sleep(40L);
+        client.haplogroups("profileId");
+        verify(delegate, times(2)).haplogroups("profileId");
+    }
+
+    @Test
+    public void testWeightEviction() {
+        cachingClient = new CachingPersonalGenomeClient(delegate, CachingPersonalGenomeClient.DEFAULT_TTLS, 3000L);
+        when(delegate.genome("profile1")).thenReturn(new Genome("profile1", Strings.repeat("AC", 500)));
+        when(delegate.genome("profile2")).thenReturn(new Genome("profile2", Strings.repeat("AC", 500)));
+
+        cachingClient.genome("profile1");
+        cachingClient.genome("profile2");
+        assertEquals(1L, cachingClient.size());
+        assertEquals(1L, cachingClient.stats().evictionCount());
+        cachingClient.genome("profile2");
+        verify(delegate, times(1)).genome("profile2");
+    }
+
+    @Test
+    public void testWeigh() {
+        assertTrue(CachingPersonalGenomeClient.weigh(new Genome("profileId", Strings.repeat("AC", 1000000))) > 2000000);
+        assertTrue(CachingPersonalGenomeClient.weigh(new Genome("profileId", Strings.repeat("AC", 1000000))) > CachingPersonalGenomeClient.weigh(new UserName("id", "first", "last", ImmutableList.<ProfileName>of())));
+        assertTrue(CachingPersonalGenomeClient.weigh(0.03d) < CachingPersonalGenomeClient.weigh(new UserName("id", "first", "last", ImmutableList.<ProfileName>of())));
+    }
+
+    @Test
+    public void testExceptionNotCached() {
+        when(delegate.names("profileId")).thenThrow(new AccessDeniedException("denied")).thenReturn(new UserName("profileId", "first", "last", ImmutableList.<ProfileName>of()));
+        try {
+            client.names("profileId");
+            fail("expected AccessDeniedException");
+        }
+        catch (AccessDeniedException e) {
+            // expected
+        }
+        assertEquals("profileId", client.names("profileId").getId());
+        assertEquals("profileId", client.names("profileId").getId());
+        verify(delegate, times(2)).names("profileId");
+    }
+
+    @Test
+    public void testNullNotCached() {
+        assertNull(client.genome("profileId"));
+        assertNull(client.genome("profileId"));
+        verify(delegate, times(2)).genome("profileId");
+    }
+
+    @Test
+    public void testConcurrentMissesCoalesced() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Genome genome = new Genome("profileId", "AACC");
+        when(delegate.genome("profileId")).thenAnswer(new Answer<Genome>() {
+                @Override
+                public Genome answer(final InvocationOnMock invocation) throws Exception {
+                    release.await(5L, TimeUnit.SECONDS);
+                    return genome;
+                }
+            });
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Genome>> futures = new ArrayList<Future<Genome>>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executorService.submit(new Callable<Genome>() {
+                        @Override
+                        public Genome call() {
+                            return client.genome("profileId");
+                        }
+                    }));
+            }
+            TimeUnit.MILLISECONDS.sleep(100L);
+            release.countDown();
+            for (Future<Genome> future : futures) {
+                assertSame(genome, future.get(5L, TimeUnit.SECONDS));
+            }
+            verify(delegate, times(1)).genome("profileId");
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGetIfPresent() {
+        Genome genome = new Genome("profileId", "AACC");
+        when(delegate.genome("profileId")).thenReturn(genome);
+        assertNull(cachingClient.getIfPresent(new Invocation(Call.GENOME, "profileId")));
+        client.genome("profileId");
+        assertSame(genome, cachingClient.getIfPresent(new Invocation(Call.GENOME, "profileId")));
+        assertNull(cachingClient.getIfPresent(new Invocation(Call.GENOME, "otherProfileId")));
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        when(delegate.genome("profileId")).thenReturn(new Genome("profileId", "AACC"));
+        client.genome("profileId");
+        cachingClient.invalidateAll();
+        client.genome("profileId");
+        verify(delegate, times(2)).genome("profileId");
+    }
+}
@@ -0,0 +1,158 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for CircuitBreaker.
+ */
+public final class CircuitBreakerTest {
+    private static final long FAST = 0L;
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1L);
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidFailureRateThreshold() {
+        new CircuitBreaker(0.0d, 100L, 0.5d, 4, 100L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidSlowCallDuration() {
+        new CircuitBreaker(0.5d, -1L, 0.5d, 4, 100L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidSlowCallRateThreshold() {
+        new CircuitBreaker(0.5d, 100L, 1.1d, 4, 100L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidWindowSize() {
+        new CircuitBreaker(0.5d, 100L, 0.5d, 0, 100L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidOpenDuration() {
+        new CircuitBreaker(0.5d, 100L, 0.5d, 4, -1L);
+    }
+
+    @Test
+    public void testClosed() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testFailureRateOpens() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0.5d, 100L, 1.0d, 4, 60000L);
+        record(circuitBreaker, false, FAST);
+        record(circuitBreaker, true, FAST);
+        record(circuitBreaker, false, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        record(circuitBreaker, true, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testFailureRateBelowThresholdStaysClosed() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0.5d, 100L, 1.0d, 4, 60000L);
+        for (int i = 0; i < 20; i++) {
+            record(circuitBreaker, i % 4 == 0, FAST);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testSlowCallRateOpens() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(1.0d, 100L, 0.5d, 4, 60000L);
+        record(circuitBreaker, false, SLOW);
+        record(circuitBreaker, false, FAST);
+        record(circuitBreaker, false, SLOW);
+        record(circuitBreaker, false, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenCloses() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0.5d, 100L, 1.0d, 2, 20L);
+        record(circuitBreaker, true, FAST);
+        record(circuitBreaker, true, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        TimeUnit.MILLISECONDS.sleep(40L);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        assertTrue(circuitBreaker.tryAcquire());
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess(FAST);
+        circuitBreaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testHalfOpenReopens() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0.5d, 100L, 1.0d, 2, 20L);
+        record(circuitBreaker, true, FAST);
+        record(circuitBreaker, true, FAST);
+        TimeUnit.MILLISECONDS.sleep(40L);
+
+        record(circuitBreaker, false, FAST);
+        record(circuitBreaker, true, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testHalfOpenIgnored() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(0.5d, 100L, 1.0d, 1, 20L);
+        record(circuitBreaker, true, FAST);
+        TimeUnit.MILLISECONDS.sleep(40L);
+
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+        circuitBreaker.onIgnored();
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private static void record(final CircuitBreaker circuitBreaker, final boolean failure, final long duration) {
+        assertTrue(circuitBreaker.tryAcquire());
+        if (failure) {
+            circuitBreaker.onFailure(duration);
+        }
+        else {
+            circuitBreaker.onSuccess(duration);
+        }
+    }
+}
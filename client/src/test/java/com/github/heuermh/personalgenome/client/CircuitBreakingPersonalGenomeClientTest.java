@@ -0,0 +1,167 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Unit test for CircuitBreakingPersonalGenomeClient.
+ */
+public final class CircuitBreakingPersonalGenomeClientTest extends AbstractPersonalGenomeClientTest {
+    private CircuitBreakingPersonalGenomeClient circuitBreakingClient;
+    private UserName userName;
+
+    @Mock
+    private PersonalGenomeClient delegate;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        super.setUp();
+        circuitBreakingClient = (CircuitBreakingPersonalGenomeClient) client;
+        userName = new UserName("profileId", "first", "last", ImmutableList.<ProfileName>of());
+    }
+
+    @Override
+    protected PersonalGenomeClient createPersonalGenomeClient() {
+        return new CircuitBreakingPersonalGenomeClient(delegate, 0.5d, 60000L, 1.0d, 2, 60000L);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDelegate() {
+        new CircuitBreakingPersonalGenomeClient(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new CircuitBreakingPersonalGenomeClient(delegate, 0.5d, 1000L, 0.5d, 10, 1000L, 0, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidWindowSize() {
+        new CircuitBreakingPersonalGenomeClient(delegate, 0.5d, 1L, 0.5d, 0, 1L);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testCircuitBreakerNullCall() {
+        circuitBreakingClient.circuitBreaker(null);
+    }
+
+    @Test
+    public void testOpensOnTransientFailures() {
+        when(delegate.names("profileId")).thenThrow(new TemporarilyUnavailableException(503, "unavailable"));
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.names("profileId");
+                fail("expected TemporarilyUnavailableException");
+            }
+            catch (TemporarilyUnavailableException e) {
+                // expected
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakingClient.circuitBreaker(Call.NAMES).getState());
+        try {
+            client.names("profileId");
+            fail("expected CircuitBreakerOpenException");
+        }
+        catch (CircuitBreakerOpenException e) {
+            // expected
+        }
+        verify(delegate, times(2)).names("profileId");
+    }
+
+    @Test
+    public void testPerCall() {
+        when(delegate.names("profileId")).thenThrow(new TemporarilyUnavailableException(503, "unavailable"));
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.names("profileId");
+            }
+            catch (TemporarilyUnavailableException e) {
+                // expected
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakingClient.circuitBreaker(Call.NAMES).getState());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakingClient.circuitBreaker(Call.RISKS).getState());
+        client.risks("profileId");
+        verify(delegate).risks("profileId");
+    }
+
+    @Test
+    public void testNonTransientFailuresDoNotOpen() {
+        when(delegate.names("profileId")).thenThrow(new AccessDeniedException("denied"));
+        for (int i = 0; i < 4; i++) {
+            try {
+                client.names("profileId");
+                fail("expected AccessDeniedException");
+            }
+            catch (AccessDeniedException e) {
+                // expected
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakingClient.circuitBreaker(Call.NAMES).getState());
+    }
+
+    @Test
+    public void testFallbackToDelegateCache() {
+        CachingPersonalGenomeClient cache = new CachingPersonalGenomeClient(delegate);
+        client = circuitBreakingClient = new CircuitBreakingPersonalGenomeClient(cache, 0.5d, 60000L, 1.0d, 2, 60000L);
+        when(delegate.names("profileId")).thenReturn(userName);
+        when(delegate.names("otherProfileId")).thenThrow(new TemporarilyUnavailableException(503, "unavailable"));
+
+        assertSame(userName, client.names("profileId"));
+        try {
+            client.names("otherProfileId");
+            fail("expected TemporarilyUnavailableException");
+        }
+        catch (TemporarilyUnavailableException e) {
+            // expected
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakingClient.circuitBreaker(Call.NAMES).getState());
+        assertSame(userName, client.names("profileId"));
+        try {
+            client.names("otherProfileId");
+            fail("expected CircuitBreakerOpenException");
+        }
+        catch (CircuitBreakerOpenException e) {
+            // expected
+        }
+        verify(delegate, times(1)).names("profileId");
+        verify(delegate, times(1)).names("otherProfileId");
+    }
+}
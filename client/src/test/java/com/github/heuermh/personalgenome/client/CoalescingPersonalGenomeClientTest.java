@@ -0,0 +1,225 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.mockito.invocation.InvocationOnMock;
+
+import org.mockito.stubbing.Answer;
+
+/**
+ * Unit test for CoalescingPersonalGenomeClient.
+ */
+public final class CoalescingPersonalGenomeClientTest extends AbstractPersonalGenomeClientTest {
+    private CoalescingPersonalGenomeClient coalescingClient;
+    private CountDownLatch started;
+    private CountDownLatch release;
+
+    @Mock
+    private PersonalGenomeClient delegate;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        super.setUp();
+        coalescingClient = (CoalescingPersonalGenomeClient) client;
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    @Override
+    protected PersonalGenomeClient createPersonalGenomeClient() {
+        return new CoalescingPersonalGenomeClient(delegate);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDelegate() {
+        new CoalescingPersonalGenomeClient(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new CoalescingPersonalGenomeClient(delegate, 0, null);
+    }
+
+    @Test
+    public void testSequentialCallsNotCoalesced() {
+        Genome genome = new Genome("profileId", "AACC");
+        when(delegate.genome("profileId")).thenReturn(genome);
+
+        assertSame(genome, client.genome("profileId"));
+        assertSame(genome, client.genome("profileId"));
+        verify(delegate, times(2)).genome("profileId");
+        assertEquals(0, coalescingClient.inFlight());
+    }
+
+    @Test
+    public void testConcurrentCallsCoalesced() throws Exception {
+        final Genome genome = new Genome("profileId", "AACC");
+        when(delegate.genome("profileId")).thenAnswer(new Answer<Genome>() {
+                @Override
+                public Genome answer(final InvocationOnMock invocation) throws Exception {
+                    started.countDown();
+                    release.await(5L, TimeUnit.SECONDS);
+                    return genome;
+                }
+            });
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Genome>> futures = submitGenome(executorService, "profileId", 4);
+            assertTrue(started.await(5L, TimeUnit.SECONDS));
+            TimeUnit.MILLISECONDS.sleep(100L);
+            assertEquals(1, coalescingClient.inFlight());
+            release.countDown();
+            for (Future<Genome> future : futures) {
+                assertSame(genome, future.get(5L, TimeUnit.SECONDS));
+            }
+            verify(delegate, times(1)).genome("profileId");
+            assertEquals(0, coalescingClient.inFlight());
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentCallsDifferentProfileIdsNotCoalesced() throws Exception {
+        when(delegate.genome("profile1")).thenReturn(new Genome("profile1", "AACC"));
+        when(delegate.genome("profile2")).thenAnswer(new Answer<Genome>() {
+                @Override
+                public Genome answer(final InvocationOnMock invocation) throws Exception {
+                    started.countDown();
+                    release.await(5L, TimeUnit.SECONDS);
+                    return new Genome("profile2", "AACC");
+                }
+            });
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Genome>> futures = submitGenome(executorService, "profile2", 1);
+            assertTrue(started.await(5L, TimeUnit.SECONDS));
+            assertEquals("profile1", client.genome("profile1").getProfileId());
+            release.countDown();
+            assertEquals("profile2", futures.get(0).get(5L, TimeUnit.SECONDS).getProfileId());
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentCallsShareException() throws Exception {
+        when(delegate.genome("profileId")).thenAnswer(new Answer<Genome>() {
+                @Override
+                public Genome answer(final InvocationOnMock invocation) throws Exception {
+                    started.countDown();
+                    release.await(5L, TimeUnit.SECONDS);
+                    throw new AccessDeniedException("denied");
+                }
+            });
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Genome>> futures = submitGenome(executorService, "profileId", 4);
+            assertTrue(started.await(5L, TimeUnit.SECONDS));
+            TimeUnit.MILLISECONDS.sleep(100L);
+            release.countDown();
+            for (Future<Genome> future : futures) {
+                try {
+                    future.get(5L, TimeUnit.SECONDS);
+                    fail("expected AccessDeniedException");
+                }
+                catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof AccessDeniedException);
+                }
+            }
+            verify(delegate, times(1)).genome("profileId");
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExceptionNotKept() {
+        when(delegate.names("profileId")).thenThrow(new AccessDeniedException("denied")).thenReturn(new UserName("profileId", "first", "last", ImmutableList.<ProfileName>of()));
+        try {
+            client.names("profileId");
+            fail("expected AccessDeniedException");
+        }
+        catch (AccessDeniedException e) {
+            // expected
+        }
+        assertEquals("profileId", client.names("profileId").getId());
+        assertEquals(0, coalescingClient.inFlight());
+    }
+
+    @Test
+    public void testListResultImmutable() {
+        List<Risk> risks = new ArrayList<Risk>();
+        when(delegate.risks("profileId")).thenReturn(risks);
+        assertTrue(client.risks("profileId") instanceof ImmutableList);
+    }
+
+    private List<Future<Genome>> submitGenome(final ExecutorService executorService, final String profileId, final int count) {
+        List<Future<Genome>> futures = new ArrayList<Future<Genome>>();
+        for (int i = 0; i < count; i++) {
+            futures.add(executorService.submit(new Callable<Genome>() {
+                    @Override
+                    public Genome call() {
+                        return client.genome(profileId);
+                    }
+                }));
+        }
+        return futures;
+    }
+}
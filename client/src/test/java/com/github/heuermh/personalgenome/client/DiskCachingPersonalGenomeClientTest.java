@@ -0,0 +1,162 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.google.common.io.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Unit test for DiskCachingPersonalGenomeClient.
+ */
+public final class DiskCachingPersonalGenomeClientTest extends AbstractPersonalGenomeClientTest {
+    private File directory;
+    private DiskGenomeStore store;
+
+    @Mock
+    private PackedGenomeClient delegate;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        directory = Files.createTempDir();
+        try {
+            store = new DiskGenomeStore(directory);
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        super.setUp();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Override
+    protected PersonalGenomeClient createPersonalGenomeClient() {
+        return new DiskCachingPersonalGenomeClient(delegate, store);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDelegate() {
+        new DiskCachingPersonalGenomeClient(null, store);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new DiskCachingPersonalGenomeClient(delegate, store, 0, null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullStore() {
+        new DiskCachingPersonalGenomeClient(delegate, null);
+    }
+
+    @Test
+    public void testGenomeStored() {
+        when(delegate.genome("profileId")).thenReturn(new Genome("profileId", "AACC"));
+
+        assertEquals("AACC", client.genome("profileId").getValues());
+        assertEquals("AACC", client.genome("profileId").getValues());
+        verify(delegate, times(1)).genome("profileId");
+        assertEquals("AACC", store.get("profileId").asGenome().getValues());
+    }
+
+    @Test
+    public void testGenomeNotPackedNotStored() {
+        when(delegate.genome("profileId")).thenReturn(new Genome("profileId", "AANN"));
+
+        assertEquals("AANN", client.genome("profileId").getValues());
+        assertEquals("AANN", client.genome("profileId").getValues());
+        verify(delegate, times(2)).genome("profileId");
+        assertNull(store.get("profileId"));
+    }
+
+    @Test
+    public void testPackedGenomeStored() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", "AACC");
+        when(delegate.packedGenome("profileId")).thenReturn(packedGenome);
+
+        assertSame(packedGenome, ((PackedGenomeClient) client).packedGenome("profileId"));
+        assertEquals("AACC", ((PackedGenomeClient) client).packedGenome("profileId").asGenome().getValues());
+        verify(delegate, times(1)).packedGenome("profileId");
+    }
+
+    @Test
+    public void testGenomeAndPackedGenomeShareStore() {
+        when(delegate.genome("profileId")).thenReturn(new Genome("profileId", "AACC"));
+
+        client.genome("profileId");
+        assertEquals("AACC", ((PackedGenomeClient) client).packedGenome("profileId").asGenome().getValues());
+        verify(delegate, times(0)).packedGenome("profileId");
+    }
+
+    @Test
+    public void testGenomeReadAfterReopen() throws IOException {
+        when(delegate.genome("profileId")).thenReturn(new Genome("profileId", "AACC"));
+        client.genome("profileId");
+        store.close();
+
+        store = new DiskGenomeStore(directory);
+        client = createPersonalGenomeClient();
+        assertEquals("AACC", client.genome("profileId").getValues());
+        verify(delegate, times(1)).genome("profileId");
+    }
+
+    @Test
+    public void testNullNotStored() {
+        assertNull(client.genome("profileId"));
+        assertNull(((PackedGenomeClient) client).packedGenome("profileId"));
+        assertEquals(0, store.count());
+    }
+
+    @Test
+    public void testRisksPassThrough() {
+        client.risks("profileId");
+        client.risks("profileId");
+        verify(delegate, times(2)).risks("profileId");
+    }
+}
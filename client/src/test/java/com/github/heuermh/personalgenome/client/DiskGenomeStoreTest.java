@@ -0,0 +1,302 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteBuffer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Strings;
+
+import com.google.common.io.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for DiskGenomeStore.
+ */
+public final class DiskGenomeStoreTest {
+    private File directory;
+    private DiskGenomeStore store;
+    private static final String VALUES = "ACTAGTAG__TTGADDAAIICCTTDDTT--DI";
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDir();
+        store = new DiskGenomeStore(directory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        store.close();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDirectory() throws IOException {
+        new DiskGenomeStore(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidMaximumSize() throws IOException {
+        new DiskGenomeStore(directory, 0L, 1L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidSegmentSize() throws IOException {
+        new DiskGenomeStore(directory, 1L, 0L);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorSegmentSizeGreaterThanMaximumSize() throws IOException {
+        new DiskGenomeStore(directory, 1L, 2L);
+    }
+
+    @Test
+    public void testConstructorCreatesDirectory() throws IOException {
+        File subdirectory = new File(directory, "subdirectory");
+        DiskGenomeStore subdirectoryStore = new DiskGenomeStore(subdirectory);
+        try {
+            assertTrue(subdirectory.isDirectory());
+            assertEquals(0, subdirectoryStore.count());
+        }
+        finally {
+            subdirectoryStore.close();
+            for (File file : subdirectory.listFiles()) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testGetNullProfileId() {
+        store.get(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testPutNullPackedGenome() throws IOException {
+        store.put(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testRemoveNullProfileId() {
+        store.remove(null);
+    }
+
+    @Test
+    public void testGetMissing() {
+        assertNull(store.get("profileId"));
+    }
+
+    @Test
+    public void testPutGet() throws IOException {
+        assertTrue(store.put(PackedGenome.valueOf("profileId", VALUES)));
+        PackedGenome packedGenome = store.get("profileId");
+        assertNotNull(packedGenome);
+        assertEquals("profileId", packedGenome.getProfileId());
+        assertEquals(VALUES, packedGenome.asGenome().getValues());
+        assertEquals(1, store.count());
+        assertTrue(store.size() > 0L);
+    }
+
+    @Test
+    public void testPutGetEmpty() throws IOException {
+        store.put(PackedGenome.valueOf("profileId", ""));
+        assertEquals("", store.get("profileId").asGenome().getValues());
+    }
+
+    @Test
+    public void testPutReplaces() throws IOException {
+        store.put(PackedGenome.valueOf("profileId", VALUES));
+        store.put(PackedGenome.valueOf("profileId", "ACGT"));
+        assertEquals("ACGT", store.get("profileId").asGenome().getValues());
+        assertEquals(1, store.count());
+    }
+
+    @Test
+    public void testRemove() throws IOException {
+        store.put(PackedGenome.valueOf("profileId", VALUES));
+        store.remove("profileId");
+        assertNull(store.get("profileId"));
+        assertEquals(0, store.count());
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        store.put(PackedGenome.valueOf("profileId", VALUES));
+        store.put(PackedGenome.valueOf("otherProfileId", "ACGT"));
+        store.put(PackedGenome.valueOf("removedProfileId", "ACGT"));
+        store.remove("removedProfileId");
+        store.close();
+
+        store = new DiskGenomeStore(directory);
+        assertEquals(2, store.count());
+        assertEquals(VALUES, store.get("profileId").asGenome().getValues());
+        assertEquals("ACGT", store.get("otherProfileId").asGenome().getValues());
+        assertNull(store.get("removedProfileId"));
+    }
+
+    @Test
+    public void testReopenTruncatedIndex() throws IOException {
+        store.put(PackedGenome.valueOf("profileId", VALUES));
+        store.put(PackedGenome.valueOf("otherProfileId", "ACGT"));
+        store.close();
+
+        RandomAccessFile index = new RandomAccessFile(new File(directory, "index"), "rw");
+        try {
+            index.setLength(index.length() - 3L);
+        }
+        finally {
+            index.close();
+        }
+
+        store = new DiskGenomeStore(directory);
+        assertEquals(1, store.count());
+        assertEquals(VALUES, store.get("profileId").asGenome().getValues());
+        assertNull(store.get("otherProfileId"));
+
+        store.put(PackedGenome.valueOf("otherProfileId", "ACGT"));
+        store.close();
+        store = new DiskGenomeStore(directory);
+        assertEquals(2, store.count());
+        assertEquals("ACGT", store.get("otherProfileId").asGenome().getValues());
+    }
+
+    @Test
+    public void testCorruptRecord() throws IOException {
+        store.put(PackedGenome.valueOf("profileId", VALUES));
+        store.close();
+
+        RandomAccessFile segment = new RandomAccessFile(new File(directory, "segment-00000000.dat"), "rw");
+        try {
+            segment.seek(segment.length() - 12L);
+            segment.write(segment.read() ^ 0xff);
+        }
+        finally {
+            segment.close();
+        }
+
+        store = new DiskGenomeStore(directory);
+        assertNull(store.get("profileId"));
+        assertEquals(0, store.count());
+    }
+
+    @Test
+    public void testEvictOldestSegment() throws IOException {
+        store.close();
+        String values = Strings.repeat("AC", 1000);
+        int recordLength = DiskGenomeStore.writeRecord(PackedGenome.valueOf("profileId0", values)).remaining();
+        store = new DiskGenomeStore(directory, 3L * recordLength, recordLength);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(store.put(PackedGenome.valueOf("profileId" + i, values)));
+        }
+        assertEquals(3, store.count());
+        assertEquals(3L * recordLength, store.size());
+        assertNull(store.get("profileId0"));
+        assertFalse(new File(directory, "segment-00000000.dat").exists());
+        for (int i = 1; i < 4; i++) {
+            assertEquals(values, store.get("profileId" + i).asGenome().getValues());
+        }
+    }
+
+    @Test(timeout=30000L)
+    public void testGetConcurrentWithEviction() throws Exception {
+        store.close();
+        final String values = Strings.repeat("AC", 1000);
+        int recordLength = DiskGenomeStore.writeRecord(PackedGenome.valueOf("profileId0000", values)).remaining();
+        store = new DiskGenomeStore(directory, 3L * recordLength, recordLength);
+        assertTrue(store.put(PackedGenome.valueOf("profileId0000", values)));
+
+        final AtomicInteger latest = new AtomicInteger(0);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread reader = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 2000; i++) {
+                            PackedGenome packedGenome = store.get(String.format("profileId%04d", latest.get()));
+                            if (packedGenome != null) {
+                                assertEquals(values, packedGenome.asGenome().getValues());
+                            }
+                        }
+                    }
+                    catch (Throwable t) {
+                        failure.set(t);
+                    }
+                }
+            };
+        reader.start();
+        for (int i = 1; i < 500; i++) {
+            assertTrue(store.put(PackedGenome.valueOf(String.format("profileId%04d", i), values)));
+            latest.set(i);
+        }
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(3, store.count());
+    }
+
+    @Test
+    public void testPutLargerThanSegment() throws IOException {
+        store.close();
+        store = new DiskGenomeStore(directory, 64L, 64L);
+        assertFalse(store.put(PackedGenome.valueOf("profileId", Strings.repeat("AC", 1000))));
+        assertEquals(0, store.count());
+        assertEquals(0L, store.size());
+    }
+
+    @Test
+    public void testRecord() {
+        ByteBuffer record = DiskGenomeStore.writeRecord(PackedGenome.valueOf("profileId", VALUES));
+        assertEquals(VALUES, DiskGenomeStore.readRecord(record, "profileId").asGenome().getValues());
+    }
+
+    @Test
+    public void testRecordWrongProfileId() {
+        ByteBuffer record = DiskGenomeStore.writeRecord(PackedGenome.valueOf("profileId", VALUES));
+        assertNull(DiskGenomeStore.readRecord(record, "otherProfileId"));
+    }
+
+    @Test
+    public void testRecordTruncated() {
+        ByteBuffer record = DiskGenomeStore.writeRecord(PackedGenome.valueOf("profileId", VALUES));
+        record.limit(record.limit() - 1);
+        assertNull(DiskGenomeStore.readRecord(record, "profileId"));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.mockito.invocation.InvocationOnMock;
+
+import org.mockito.stubbing.Answer;
+
+/**
+ * Unit test for ExecutorAsyncPersonalGenomeClient.
+ */
+public final class ExecutorAsyncPersonalGenomeClientTest {
+    private AsyncPersonalGenomeClient asyncClient;
+
+    @Mock
+    private PersonalGenomeClient client;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        asyncClient = new ExecutorAsyncPersonalGenomeClient(client, MoreExecutors.sameThreadExecutor());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullClient() {
+        new ExecutorAsyncPersonalGenomeClient(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullExecutorService() {
+        new ExecutorAsyncPersonalGenomeClient(client, null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNamesNullProfileId() {
+        asyncClient.names(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testGenotypesNullLocations() {
+        asyncClient.genotypes("profileId", (String[]) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAncestryNullProfileId() {
+        asyncClient.ancestry(null, 0.9d);
+    }
+
+    @Test
+    public void testDelegates() throws Exception {
+        List<Risk> risks = Collections.emptyList();
+        when(client.risks("profileId")).thenReturn(risks);
+        when(client.neanderthalProportion("profileId")).thenReturn(0.02d);
+
+        assertSame(risks, asyncClient.risks("profileId").get());
+        assertEquals(0.02d, asyncClient.neanderthalProportion("profileId").get(), 0.001d);
+        asyncClient.genotypes("profileId", "rs1234", "rs2345").get();
+        asyncClient.relatives("profileId", 10, 20).get();
+
+        verify(client).genotypes("profileId", "rs1234", "rs2345");
+        verify(client).relatives("profileId", 10, 20);
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        AccessDeniedException accessDenied = new AccessDeniedException("access denied");
+        when(client.traits("profileId")).thenThrow(accessDenied);
+        try {
+            asyncClient.traits("profileId").get();
+            fail("expected ExecutionException");
+        }
+        catch (ExecutionException e) {
+            assertSame(accessDenied, e.getCause());
+        }
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(2);
+        Answer<Double> await = new Answer<Double>() {
+            @Override
+            public Double answer(final InvocationOnMock invocation) throws Exception {
+                latch.countDown();
+                assertTrue(latch.await(10L, TimeUnit.SECONDS));
+                return 0.02d;
+            }
+        };
+        when(client.neanderthalProportion("profileId")).thenAnswer(await);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            asyncClient = new ExecutorAsyncPersonalGenomeClient(client, executorService);
+            ListenableFuture<Double> first = asyncClient.neanderthalProportion("profileId");
+            ListenableFuture<Double> second = asyncClient.neanderthalProportion("profileId");
+            assertEquals(0.02d, first.get(10L, TimeUnit.SECONDS), 0.001d);
+            assertEquals(0.02d, second.get(10L, TimeUnit.SECONDS), 0.001d);
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testFetchAllNullCalls() {
+        asyncClient.fetchAll("profileId", null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFetchAllUnsupportedCall() {
+        asyncClient.fetchAll("profileId", EnumSet.of(Call.NAMES, Call.USER));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFetchAllInvalidThreshold() {
+        asyncClient.fetchAll("profileId", EnumSet.of(Call.ANCESTRY), 0.5d);
+    }
+
+    @Test
+    public void testFetchAllDefaultThreshold() throws Exception {
+        asyncClient.fetchAll("profileId", EnumSet.of(Call.ANCESTRY)).get();
+        verify(client).ancestry("profileId", ExecutorAsyncPersonalGenomeClient.DEFAULT_ANCESTRY_THRESHOLD);
+    }
+
+    @Test
+    public void testFetchAllThreshold() throws Exception {
+        asyncClient.fetchAll("profileId", EnumSet.of(Call.ANCESTRY), 0.75d).get();
+        verify(client).ancestry("profileId", 0.75d);
+    }
+
+    @Test
+    public void testFetchAll() throws Exception {
+        List<Trait> traits = Collections.emptyList();
+        AccessDeniedException accessDenied = new AccessDeniedException("access denied");
+        when(client.traits("profileId")).thenReturn(traits);
+        when(client.neanderthalProportion("profileId")).thenReturn(0.02d);
+        when(client.risks("profileId")).thenThrow(accessDenied);
+        when(client.relatives("profileId")).thenReturn(Collections.<Relative>emptyList().iterator());
+
+        ProfileSnapshot snapshot = asyncClient.fetchAll("profileId", EnumSet.of(Call.TRAITS,
+                                                                                Call.NEANDERTHAL_PROPORTION,
+                                                                                Call.RISKS,
+                                                                                Call.RELATIVES,
+                                                                                Call.HAPLOGROUPS)).get();
+
+        assertEquals("profileId", snapshot.getProfileId());
+        assertEquals(traits, snapshot.getTraits());
+        assertEquals(0.02d, snapshot.getNeanderthalProportion(), 0.001d);
+        assertTrue(snapshot.getRelatives().isEmpty());
+        assertFalse(snapshot.isComplete());
+        assertSame(accessDenied, snapshot.getFailure(Call.RISKS));
+        // mock returns null haplogroups
+        assertTrue(snapshot.getFailure(Call.HAPLOGROUPS) instanceof PersonalGenomeClientException);
+        assertEquals(2, snapshot.getFailures().size());
+        verify(client, never()).genome("profileId");
+    }
+}
@@ -80,8 +80,12 @@ public final class GenomeTest {
 
     @Test
     public void testAsGenotype() {
-        StringBuilder sb = new StringBuilder();
+        int maxIndex = 0;
         for (String location : Locations.locations()) {
+            maxIndex = Math.max(maxIndex, Locations.index(location));
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= maxIndex; i += 2) {
             sb.append("AC");
         }
         Genome genome = new Genome("profileId", sb.toString());
@@ -102,10 +106,101 @@ public final class GenomeTest {
         assertEquals("__", genotype.getValues().get("rs3915952"));
     }
 
+    @Test(expected=NullPointerException.class)
+    public void testAsGenotypeNullRsids() {
+        Genome genome = new Genome("profileId", "ACGT__");
+        genome.asGenotype((int[]) null);
+    }
+
+    @Test
+    public void testAsGenotypeRsids() {
+        Genome genome = new Genome("profileId", "ACGT__");
+        Genotype genotype = genome.asGenotype(Rsid.rs(41362547), Rsid.rs(28358280), Rsid.rs(3915952));
+        assertEquals(genome.getProfileId(), genotype.getProfileId());
+        assertEquals("AC", genotype.getValue(Rsid.rs(41362547)));
+        assertEquals("GT", genotype.getValue(Rsid.rs(28358280)));
+        assertEquals("__", genotype.getValue(Rsid.rs(3915952)));
+    }
+
     @Test
     public void testAsGenotypeNoValueForLocation() {
         Genome genome = new Genome("profileId", "ACGT__");
         Genotype genotype = genome.asGenotype("rs41333444");
         assertNull(genotype.getValues().get("rs41333444"));
     }
-}
\ No newline at end of file
+
+    @Test(expected=NullPointerException.class)
+    public void testRegionNullChromosome() {
+        new Genome("profileId", "ACGT__").region(null, 0, 0);
+    }
+
+    @Test
+    public void testRegion() {
+        Genome genome = new Genome("profileId", "ACGT__");
+        assertEquals("AC", new String(genome.region("MT", 10044, 10044)));
+        assertEquals("__", new String(genome.region("22", 24376322, 24376322)));
+        assertEquals(0, genome.region("22", 24376322, 24376321).length);
+    }
+
+    @Test
+    public void testAsPackedGenome() {
+        Genome genome = new Genome("profileId", "ACGT__");
+        PackedGenome packedGenome = genome.asPackedGenome();
+        assertEquals("profileId", packedGenome.getProfileId());
+        assertEquals("ACGT__", packedGenome.asGenome().getValues());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAsPackedGenomeInvalidValues() {
+        new Genome("profileId", "ACGT_").asPackedGenome();
+    }
+
+    @Test
+    public void testExtractChars() {
+        Genome genome = new Genome("profileId", "ACGT__");
+        char[] destination = new char[10];
+        genome.extract(new int[] { 2, 0, 6, -1 }, destination, 2);
+        assertEquals("GTAC____", new String(destination, 2, 8));
+    }
+
+    @Test
+    public void testExtractBytes() {
+        Genome genome = new Genome("profileId", "ACGT__");
+        byte[] destination = new byte[6];
+        genome.extract(new int[] { 2, 0, 6 }, destination, 0);
+        assertEquals("GTAC__", new String(destination));
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testExtractDestinationTooSmall() {
+        new Genome("profileId", "ACGT__").extract(new int[] { 0, 2 }, new char[3], 0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testExtractNullIndices() {
+        new Genome("profileId", "ACGT__").extract((int[]) null, new byte[2], 0);
+    }
+
+    @Test
+    public void testAsGenotypePanel() {
+        Genome genome = new Genome("profileId", "ACGT__");
+        Genotype genotype = genome.asGenotype(Panel.of("rs4630", "rs3915952", "rs41362547"));
+        assertEquals(2, genotype.getValues().size());
+        assertEquals("AC", genotype.getValue("rs41362547"));
+        assertEquals("__", genotype.getValue("rs3915952"));
+        assertNull(genotype.getValue("rs4630"));
+    }
+
+    @Test
+    public void testExtractPanel() {
+        Genome genome = new Genome("profileId", "ACGT__");
+        char[] destination = new char[6];
+        genome.extract(Panel.of("rs4630", "rs28358280", "rs41362547"), destination, 0);
+        assertEquals("ACGT__", new String(destination));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testExtractNullPanel() {
+        new Genome("profileId", "ACGT__").extract((Panel) null, new byte[2], 0);
+    }
+}
@@ -24,7 +24,13 @@
 package com.github.heuermh.personalgenome.client;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.Test;
 
@@ -53,4 +59,109 @@ public final class GenotypeTest {
         assertEquals("AC", genotype.getValues().get("rs1234"));
         assertEquals("GT", genotype.getValues().get("rs2345"));
     }
-}
\ No newline at end of file
+
+    @Test(expected=NullPointerException.class)
+    public void testGetValueNullLocation() {
+        Genotype genotype = new Genotype("profileId", ImmutableMap.of("rs1234", "AC"));
+        genotype.getValue(null);
+    }
+
+    @Test
+    public void testGetValue() {
+        Genotype genotype = new Genotype("profileId", ImmutableMap.of("rs1234", "AC", "i2345", "GT"));
+        assertEquals("AC", genotype.getValue("rs1234"));
+        assertEquals("GT", genotype.getValue("i2345"));
+        assertNull(genotype.getValue("rs3456"));
+    }
+
+    @Test
+    public void testGetValueRsid() {
+        Genotype genotype = new Genotype("profileId", ImmutableMap.of("rs1234", "AC", "i2345", "GT"));
+        assertEquals("AC", genotype.getValue(Rsid.rs(1234)));
+        assertEquals("GT", genotype.getValue(Rsid.internal(2345)));
+        assertNull(genotype.getValue(Rsid.rs(3456)));
+        assertNull(genotype.getValue(Rsid.INVALID));
+    }
+
+    @Test
+    public void testGetValuesView() {
+        Map<String, String> values = ImmutableMap.of("rs1234", "AC", "i2345", "GT", "rs01234", "AA", "rsfoo", "CC", "rs3456", "A");
+        Genotype genotype = new Genotype("profileId", values);
+        assertEquals(5, genotype.size());
+        assertEquals(values, genotype.getValues());
+        assertEquals(values.hashCode(), genotype.getValues().hashCode());
+        assertEquals("AA", genotype.getValue("rs01234"));
+        assertEquals("CC", genotype.getValue("rsfoo"));
+        assertEquals("A", genotype.getValue("rs3456"));
+        assertEquals("A", genotype.getValue(Rsid.rs(3456)));
+        assertTrue(genotype.getValues().containsKey("rs1234"));
+        assertFalse(genotype.getValues().containsKey("rs9999"));
+        assertFalse(genotype.getValues().containsKey(1234));
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testGetValuesReadOnly() {
+        new Genotype("profileId", ImmutableMap.of("rs1234", "AC")).getValues().put("rs2345", "GT");
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullValue() {
+        Map<String, String> values = new HashMap<String, String>();
+        values.put("rs1234", null);
+        new Genotype("profileId", values);
+    }
+
+    @Test
+    public void testCode() {
+        Genotype genotype = new Genotype("profileId", ImmutableMap.of("rs1234", "AC", "rs3456", "A"));
+        assertEquals(PackedGenome.code('A', 'C'), genotype.code(Rsid.rs(1234)));
+        assertEquals(PackedGenome.NO_CODE, genotype.code(Rsid.rs(3456)));
+        assertEquals(PackedGenome.NO_CODE, genotype.code(Rsid.rs(9999)));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testBuilderNullProfileId() {
+        new Genotype.Builder().add("rs1234", "AC").build();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBuilderInvalidRsid() {
+        new Genotype.Builder().add(Rsid.INVALID, "AC");
+    }
+
+    @Test
+    public void testBuilderLastValueWins() {
+        Genotype genotype = new Genotype.Builder()
+            .withProfileId("profileId")
+            .add("rs1234", "AC")
+            .add(Rsid.rs(1234), "GT")
+            .add("rs2345", "AC")
+            .add("rs2345", "not a call")
+            .add("rs3456", "not a call")
+            .add("rs3456", "TT")
+            .build();
+
+        assertEquals(3, genotype.size());
+        assertEquals(ImmutableMap.of("rs1234", "GT", "rs2345", "not a call", "rs3456", "TT"), genotype.getValues());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testBuilderAddAllNullGenotype() {
+        new Genotype.Builder().addAll(null);
+    }
+
+    @Test
+    public void testBuilderAddAll() {
+        Genotype first = new Genotype("first", ImmutableMap.of("rs1234", "AC", "rs2345", "not a call", "unknown", "GG"));
+        Genotype second = new Genotype("second", ImmutableMap.of("rs1234", "GT", "i3456", "TT"));
+        Genotype genotype = new Genotype.Builder(1)
+            .withProfileId("profileId")
+            .addAll(first)
+            .addAll(second)
+            .build();
+
+        assertEquals("profileId", genotype.getProfileId());
+        assertEquals(4, genotype.size());
+        assertEquals(ImmutableMap.of("rs1234", "GT", "i3456", "TT", "rs2345", "not a call", "unknown", "GG"), genotype.getValues());
+    }
+}
@@ -0,0 +1,196 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import java.util.concurrent.Executors;
+
+import com.google.common.base.Supplier;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Unit test for InterceptingPersonalGenomeClient.
+ */
+public final class InterceptingPersonalGenomeClientTest extends AbstractPersonalGenomeClientTest {
+    private List<Invocation> invocations;
+
+    @Mock
+    private PersonalGenomeClient delegate;
+
+    @Override
+    protected PersonalGenomeClient createPersonalGenomeClient() {
+        MockitoAnnotations.initMocks(this);
+        invocations = new ArrayList<Invocation>();
+        return new InterceptingPersonalGenomeClient(delegate) {
+            @Override
+            <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+                invocations.add(invocation);
+                return supplier.get();
+            }
+        };
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDelegate() {
+        new InterceptingPersonalGenomeClient(null) {
+            @Override
+            <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+                return supplier.get();
+            }
+        };
+    }
+
+    @Test
+    public void testGenome() {
+        Genome genome = new Genome("profileId", "AACC");
+        when(delegate.genome("profileId")).thenReturn(genome);
+        assertSame(genome, client.genome("profileId"));
+        assertEquals(ImmutableList.of(new Invocation(Call.GENOME, "profileId")), invocations);
+    }
+
+    @Test
+    public void testPackedGenomeFromGenome() {
+        when(delegate.genome("profileId")).thenReturn(new Genome("profileId", "AACC"));
+        assertEquals("AACC", ((PackedGenomeClient) client).packedGenome("profileId").asGenome().getValues());
+        assertEquals(ImmutableList.of(new Invocation(Call.PACKED_GENOME, "profileId")), invocations);
+    }
+
+    @Test
+    public void testNeanderthalProportion() {
+        when(delegate.neanderthalProportion("profileId")).thenReturn(0.03d);
+        assertEquals(0.03d, client.neanderthalProportion("profileId"), 0.001d);
+        assertEquals(ImmutableList.of(new Invocation(Call.NEANDERTHAL_PROPORTION, "profileId")), invocations);
+    }
+
+    @Test
+    public void testGenotypes() {
+        client.genotypes("profileId", "rs1", "rs2");
+        verify(delegate).genotypes("profileId", ImmutableList.of("rs1", "rs2"));
+        assertEquals(ImmutableList.of(new Invocation(Call.GENOTYPES, "profileId", ImmutableList.of("rs1", "rs2"))), invocations);
+    }
+
+    @Test
+    public void testRelatives() {
+        List<Relative> page = new ArrayList<Relative>();
+        for (int i = 0; i < InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE; i++) {
+            page.add(null);
+        }
+        when(delegate.relatives("profileId", 0, InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE)).thenReturn(page);
+        when(delegate.relatives("profileId", InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE, InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE)).thenReturn(Collections.<Relative>emptyList());
+
+        int count = 0;
+        for (Iterator<Relative> relatives = client.relatives("profileId"); relatives.hasNext(); relatives.next()) {
+            count++;
+        }
+        assertEquals(InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE, count);
+        assertEquals(ImmutableList.of(new Invocation(Call.RELATIVES, "profileId", 0, InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE),
+                                      new Invocation(Call.RELATIVES, "profileId", InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE, InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE)), invocations);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new InterceptingPersonalGenomeClient(delegate, 0, null) {
+            @Override
+            <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+                return supplier.get();
+            }
+        };
+    }
+
+    @Test
+    public void testRelativesFetchedLazily() {
+        when(delegate.relatives("profileId", 0, InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE)).thenReturn(Collections.<Relative>singletonList(null));
+        when(delegate.relatives("profileId", 1, InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE)).thenReturn(Collections.<Relative>emptyList());
+
+        Iterator<Relative> relatives = client.relatives("profileId");
+        assertEquals(ImmutableList.of(new Invocation(Call.RELATIVES, "profileId", 0, InterceptingPersonalGenomeClient.DEFAULT_PAGE_SIZE)), invocations);
+        relatives.next();
+        assertFalse(relatives.hasNext());
+        assertEquals(2, invocations.size());
+    }
+
+    @Test
+    public void testRelativesPrefetched() {
+        ListeningExecutorService executorService = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+        try {
+            final List<Invocation> prefetchInvocations = Collections.synchronizedList(new ArrayList<Invocation>());
+            PersonalGenomeClient prefetchingClient = new InterceptingPersonalGenomeClient(delegate, 2, executorService) {
+                @Override
+                <T> T intercept(final Invocation invocation, final Supplier<T> supplier) {
+                    prefetchInvocations.add(invocation);
+                    return supplier.get();
+                }
+            };
+            List<Relative> page = new ArrayList<Relative>();
+            page.add(null);
+            page.add(null);
+            when(delegate.relatives("profileId", 0, 2)).thenReturn(page);
+            when(delegate.relatives("profileId", 2, 2)).thenReturn(Collections.<Relative>singletonList(null));
+            when(delegate.relatives("profileId", 3, 2)).thenReturn(Collections.<Relative>emptyList());
+
+            int count = 0;
+            for (Iterator<Relative> relatives = prefetchingClient.relatives("profileId"); relatives.hasNext(); relatives.next()) {
+                count++;
+            }
+            assertEquals(3, count);
+            assertEquals(ImmutableList.of(new Invocation(Call.RELATIVES, "profileId", 0, 2),
+                                          new Invocation(Call.RELATIVES, "profileId", 2, 2),
+                                          new Invocation(Call.RELATIVES, "profileId", 3, 2)), prefetchInvocations);
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNullProfileIdNotIntercepted() {
+        try {
+            client.genome(null);
+        }
+        catch (NullPointerException e) {
+            // expected
+        }
+        assertFalse(invocations.iterator().hasNext());
+    }
+}
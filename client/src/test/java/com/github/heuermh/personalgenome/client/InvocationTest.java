@@ -0,0 +1,73 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Test;
+
+/**
+ * Unit test for Invocation.
+ */
+public final class InvocationTest {
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullCall() {
+        new Invocation(null, "profileId");
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullParameter() {
+        new Invocation(Call.ANCESTRY, "profileId", (Object) null);
+    }
+
+    @Test
+    public void testConstructor() {
+        Invocation invocation = new Invocation(Call.RELATIVES, "profileId", 0, 10);
+        assertEquals(Call.RELATIVES, invocation.getCall());
+        assertEquals("profileId", invocation.getProfileId());
+        assertEquals(ImmutableList.<Object>of(0, 10), invocation.getParameters());
+    }
+
+    @Test
+    public void testNullProfileId() {
+        Invocation invocation = new Invocation(Call.USER, null);
+        assertNull(invocation.getProfileId());
+        assertEquals(new Invocation(Call.USER, null), invocation);
+    }
+
+    @Test
+    public void testEquals() {
+        Invocation invocation = new Invocation(Call.GENOTYPES, "profileId", ImmutableList.of("rs1", "rs2"));
+        assertEquals(new Invocation(Call.GENOTYPES, "profileId", ImmutableList.of("rs1", "rs2")), invocation);
+        assertEquals(new Invocation(Call.GENOTYPES, "profileId", ImmutableList.of("rs1", "rs2")).hashCode(), invocation.hashCode());
+        assertFalse(invocation.equals(new Invocation(Call.GENOTYPES, "profileId", ImmutableList.of("rs1"))));
+        assertFalse(invocation.equals(new Invocation(Call.GENOTYPES, "other", ImmutableList.of("rs1", "rs2"))));
+        assertFalse(new Invocation(Call.GENOME, "profileId").equals(new Invocation(Call.PACKED_GENOME, "profileId")));
+    }
+}
@@ -0,0 +1,159 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.base.Charsets;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for LocationIndexParser.
+ */
+public final class LocationIndexParserTest {
+    private byte[] buffer;
+
+    @Before
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i);
+            sb.append("\trs");
+            sb.append(1000 - i);
+            sb.append("\t");
+            sb.append(i < 500 ? "1" : "X");
+            sb.append("\t");
+            sb.append(i * 10);
+            sb.append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        sb.append("not a location\n");
+        sb.append("1000\ti5053906\tMT\t153764245\n");
+        sb.append("1001\trs1\tY\t42");
+        buffer = sb.toString().getBytes(Charsets.US_ASCII);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testParseNullInputStream() throws Exception {
+        LocationIndexParser.parse(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testInflateNullInputStream() throws Exception {
+        LocationIndexParser.inflate(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testParseNullBuffer() throws Exception {
+        LocationIndexParser.parse((byte[]) null, null);
+    }
+
+    @Test
+    public void testParseInputStream() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+        gzipOutputStream.write(buffer);
+        gzipOutputStream.close();
+        assertParsed(LocationIndexParser.parse(new ByteArrayInputStream(outputStream.toByteArray())));
+    }
+
+    @Test
+    public void testParseChunks() throws Exception {
+        for (int chunks = 1; chunks < 12; chunks++) {
+            assertParsed(LocationIndexParser.parse(buffer, null, chunks));
+        }
+    }
+
+    @Test
+    public void testParseChromosome() throws Exception {
+        for (int chunks = 1; chunks < 4; chunks++) {
+            LocationIndex locationIndex = LocationIndexParser.parse(buffer, "X".getBytes(Charsets.US_ASCII), chunks);
+            assertEquals(500, locationIndex.size());
+            assertEquals(-1, locationIndex.row("rs1000"));
+            assertEquals(-1, locationIndex.row("i5053906"));
+            assertEquals("X", locationIndex.chromosome(locationIndex.row("rs2")));
+        }
+    }
+
+    @Test
+    public void testKey() {
+        assertEquals(4630, key("rs4630"));
+        assertEquals(-5053906, key("i5053906"));
+        assertEquals(0, key("invalid location"));
+        assertEquals(0, key("rs"));
+        assertEquals(0, key("i"));
+        assertEquals(0, key("rs12a"));
+        assertEquals(0, key("rs99999999999"));
+    }
+
+    @Test
+    public void testParseInt() {
+        assertEquals(-1, parseInt(""));
+        assertEquals(-1, parseInt("12a"));
+        assertEquals(-1, parseInt("-12"));
+        assertEquals(-1, parseInt("99999999999"));
+        assertEquals(0, parseInt("0"));
+        assertEquals(153764245, parseInt("153764245"));
+    }
+
+    private static void assertParsed(final LocationIndex locationIndex) {
+        assertEquals(1001, locationIndex.size());
+        int row = locationIndex.row("rs1000");
+        assertEquals(0, locationIndex.index(row));
+        assertEquals("1", locationIndex.chromosome(row));
+        assertEquals(0, locationIndex.position(row));
+
+        // last duplicate wins
+        row = locationIndex.row("rs1");
+        assertEquals(2002, locationIndex.index(row));
+        assertEquals("Y", locationIndex.chromosome(row));
+        assertEquals(42, locationIndex.position(row));
+
+        row = locationIndex.row("i5053906");
+        assertEquals(2000, locationIndex.index(row));
+        assertEquals("MT", locationIndex.chromosome(row));
+        assertEquals(153764245, locationIndex.position(row));
+
+        row = locationIndex.row("rs500");
+        assertEquals(1000, locationIndex.index(row));
+        assertEquals("X", locationIndex.chromosome(row));
+        assertEquals(5000, locationIndex.position(row));
+    }
+
+    private static int key(final String location) {
+        byte[] bytes = location.getBytes(Charsets.US_ASCII);
+        return LocationIndexParser.key(bytes, 0, bytes.length);
+    }
+
+    private static int parseInt(final String value) {
+        byte[] bytes = value.getBytes(Charsets.US_ASCII);
+        return LocationIndexParser.parseInt(bytes, 0, bytes.length);
+    }
+}
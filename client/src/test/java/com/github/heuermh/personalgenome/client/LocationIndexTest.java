@@ -0,0 +1,148 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for LocationIndex.
+ */
+public final class LocationIndexTest {
+    private LocationIndex locationIndex;
+
+    @Before
+    public void setUp() {
+        locationIndex = new LocationIndex.Builder()
+            .add(Rsid.parse("rs4630"), 4, "22", 24376322)
+            .add(Rsid.parse("i5053906"), 2, "X", 153764245)
+            .add(Rsid.parse("rs41362547"), 0, "MT", 10044)
+            .add(Rsid.parse("rs4630"), 6, "22", 24376323)
+            .build();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testReadNullInputStream() throws Exception {
+        LocationIndex.read((InputStream) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testMapNullFile() throws Exception {
+        LocationIndex.map(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testWriteNullOutputStream() throws Exception {
+        locationIndex.write(null);
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadInvalidInputStream() throws Exception {
+        LocationIndex.read(new ByteArrayInputStream("not a location index file".getBytes()));
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        locationIndex.write(outputStream);
+        assertEquivalent(locationIndex, LocationIndex.read(new ByteArrayInputStream(outputStream.toByteArray())));
+    }
+
+    @Test
+    public void testWriteMap() throws Exception {
+        File file = File.createTempFile("locationIndexTest", ".idx");
+        file.deleteOnExit();
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            locationIndex.write(outputStream);
+        }
+        finally {
+            outputStream.close();
+        }
+        assertEquivalent(locationIndex, LocationIndex.map(file));
+    }
+
+    @Test
+    public void testBuild() {
+        assertNotNull(locationIndex);
+        assertEquals(3, locationIndex.size());
+    }
+
+    @Test
+    public void testRowInvalidLocation() {
+        assertEquals(-1, locationIndex.row("invalid location"));
+        assertEquals(-1, locationIndex.row("rs1234"));
+    }
+
+    @Test
+    public void testRowKey() {
+        assertEquals(locationIndex.row("i5053906"), locationIndex.row(Rsid.internal(5053906)));
+        assertEquals(-1, locationIndex.row(Rsid.INVALID));
+    }
+
+    @Test
+    public void testRow() {
+        int row = locationIndex.row("i5053906");
+        assertEquals("i5053906", locationIndex.location(row));
+        assertEquals(2, locationIndex.index(row));
+        assertEquals("X", locationIndex.chromosome(row));
+        assertEquals(153764245, locationIndex.position(row));
+    }
+
+    @Test
+    public void testRowLastDuplicateWins() {
+        int row = locationIndex.row("rs4630");
+        assertEquals(6, locationIndex.index(row));
+        assertEquals(24376323, locationIndex.position(row));
+    }
+
+    @Test
+    public void testLocations() {
+        assertEquals(3, locationIndex.locations().size());
+        for (String location : locationIndex.locations()) {
+            assertEquals(location, locationIndex.location(locationIndex.row(location)));
+        }
+    }
+
+    private static void assertEquivalent(final LocationIndex expected, final LocationIndex actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.location(row), actual.location(row));
+            assertEquals(expected.index(row), actual.index(row));
+            assertEquals(expected.chromosome(row), actual.chromosome(row));
+            assertEquals(expected.position(row), actual.position(row));
+            assertEquals(row, actual.row(expected.location(row)));
+        }
+    }
+}
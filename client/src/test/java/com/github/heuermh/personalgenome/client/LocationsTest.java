@@ -23,9 +23,13 @@
 */
 package com.github.heuermh.personalgenome.client;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -34,6 +38,24 @@ import org.junit.Test;
  */
 public final class LocationsTest {
 
+    @Test(expected=NullPointerException.class)
+    public void testPreloadNullChromosome() {
+        Locations.preload(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAwaitReadyNullUnit() throws Exception {
+        Locations.awaitReady(1L, null);
+    }
+
+    @Test
+    public void testAwaitReady() throws Exception {
+        Locations.preload("X");
+        assertTrue(Locations.awaitReady(1L, TimeUnit.MINUTES));
+        assertTrue(Locations.isReady());
+        assertEquals("X", Locations.chromosome("i5053906"));
+    }
+
     @Test
     public void testLocations() {
         for (String location : Locations.locations()) {
@@ -56,6 +78,12 @@ public final class LocationsTest {
         assertEquals(1047948 * 2, Locations.index("i5053906"));
     }
 
+    @Test
+    public void testIndexRsid() {
+        assertEquals(1047948 * 2, Locations.index(Rsid.internal(5053906)));
+        assertEquals(-1, Locations.index(Rsid.INVALID));
+    }
+
     @Test(expected=NullPointerException.class)
     public void testChromosomeNullLocation() {
         Locations.chromosome(null);
@@ -71,6 +99,12 @@ public final class LocationsTest {
         assertEquals("X", Locations.chromosome("i5053906"));
     }
 
+    @Test
+    public void testChromosomeRsid() {
+        assertEquals("X", Locations.chromosome(Rsid.internal(5053906)));
+        assertNull(Locations.chromosome(Rsid.INVALID));
+    }
+
     @Test(expected=NullPointerException.class)
     public void testPositionNullLocation() {
         Locations.position(null);
@@ -86,6 +120,12 @@ public final class LocationsTest {
         assertEquals(153764245, Locations.position("i5053906"));
     }
 
+    @Test
+    public void testPositionRsid() {
+        assertEquals(153764245, Locations.position(Rsid.internal(5053906)));
+        assertEquals(-1, Locations.position(Rsid.INVALID));
+    }
+
     // snps.data updated sometime after 12 dec 2012
 
     @Test
@@ -102,4 +142,69 @@ public final class LocationsTest {
     public void testPositionNewVersion() {
         assertEquals(24376322, Locations.position("rs4630"));
     }
-}
\ No newline at end of file
+
+    @Test(expected=NullPointerException.class)
+    public void testIndicesNullChromosome() {
+        Locations.indices(null, 0, 0);
+    }
+
+    @Test
+    public void testIndices() {
+        int[] indices = Locations.indices("MT", 10044, 10044);
+        assertEquals(1, indices.length);
+        assertEquals(0, indices[0]);
+        assertEquals(0, Locations.indices("not a chromosome", 0, Integer.MAX_VALUE).length);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testRsidsNullChromosome() {
+        Locations.rsids(null, 0, 0);
+    }
+
+    @Test
+    public void testRsids() {
+        assertArrayEquals(new int[] { Rsid.parse("rs4630") }, Locations.rsids("22", 24376322, 24376322));
+        assertEquals(0, Locations.rsids("22", 24376322, 24376321).length);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNearestNullChromosome() {
+        Locations.nearest(null, 0, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNearestNegativeCount() {
+        Locations.nearest("MT", 0, -1);
+    }
+
+    @Test
+    public void testNearest() {
+        assertArrayEquals(new int[] { Rsid.parse("i5053906") }, Locations.nearest("X", 153764245, 1));
+        assertEquals(0, Locations.nearest("MT", 10044, 0).length);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testIndicesOfNullLocations() {
+        Locations.indicesOf((String[]) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testIndicesOfNullLocation() {
+        Locations.indicesOf("rs41362547", null);
+    }
+
+    @Test
+    public void testIndicesOf() {
+        assertArrayEquals(new int[] { 0, 582560 * 2, -1, -1 }, Locations.indicesOf("rs41362547", "rs4630", "rs0", "not a location"));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testIndicesOfNullRsids() {
+        Locations.indicesOf((int[]) null);
+    }
+
+    @Test
+    public void testIndicesOfRsids() {
+        assertArrayEquals(new int[] { 582560 * 2, -1 }, Locations.indicesOf(new int[] { Rsid.parse("rs4630"), Rsid.INVALID }));
+    }
+}
@@ -0,0 +1,208 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Unit test for PackedGenome.
+ */
+public final class PackedGenomeTest {
+    private static final String VALUES = "ACTAGTAG__TTGADDAAIICCTTDDTT--DI";
+
+    @Test(expected=NullPointerException.class)
+    public void testValueOfNullProfileId() {
+        PackedGenome.valueOf(null, VALUES);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testValueOfNullValues() {
+        PackedGenome.valueOf("profileId", null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testValueOfOddLength() {
+        PackedGenome.valueOf("profileId", "ACT");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testValueOfInvalidCharacter() {
+        PackedGenome.valueOf("profileId", "ACNN");
+    }
+
+    @Test
+    public void testValueOf() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", VALUES);
+        assertNotNull(packedGenome);
+        assertEquals("profileId", packedGenome.getProfileId());
+        assertEquals(VALUES.length(), packedGenome.length());
+        assertEquals(VALUES, packedGenome.asGenome().getValues());
+    }
+
+    @Test
+    public void testValueOfEmpty() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", "");
+        assertEquals(0, packedGenome.length());
+        assertEquals("", packedGenome.asGenome().getValues());
+    }
+
+    @Test
+    public void testCode() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", VALUES);
+        for (int index = 0; index < VALUES.length(); index += 2) {
+            int code = packedGenome.code(index);
+            assertEquals(PackedGenome.code(VALUES.charAt(index), VALUES.charAt(index + 1)), code);
+            assertEquals(VALUES.charAt(index), PackedGenome.first(code));
+            assertEquals(VALUES.charAt(index + 1), PackedGenome.second(code));
+        }
+        assertEquals(0, PackedGenome.code('A', 'A'));
+        assertEquals(PackedGenome.NOT_GENOTYPED, packedGenome.code(8));
+        assertEquals(PackedGenome.NO_CODE, packedGenome.code(-2));
+        assertEquals(PackedGenome.NO_CODE, packedGenome.code(VALUES.length()));
+    }
+
+    @Test
+    public void testGetChars() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", VALUES);
+        char[] chars = new char[4];
+        packedGenome.getChars(30, chars, 0);
+        packedGenome.getChars(VALUES.length(), chars, 2);
+        assertEquals("DI__", new String(chars));
+    }
+
+    @Test
+    public void testGetValue() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", VALUES);
+        assertEquals("AC", packedGenome.getValue(0));
+        assertEquals("--", packedGenome.getValue(28));
+        assertNull(packedGenome.getValue(VALUES.length()));
+    }
+
+    @Test
+    public void testAsGenotype() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", "ACGT__");
+        Genotype genotype = packedGenome.asGenotype("rs41362547", "rs28358280", "rs3915952", "rs4630");
+        assertEquals("AC", genotype.getValue("rs41362547"));
+        assertEquals("GT", genotype.getValue("rs28358280"));
+        assertEquals("__", genotype.getValue("rs3915952"));
+        assertNull(genotype.getValue("rs4630"));
+    }
+
+    @Test
+    public void testAsGenotypeRsids() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", "ACGT__");
+        Genotype genotype = packedGenome.asGenotype(Rsid.parse("rs41362547"), Rsid.parse("rs4630"));
+        assertEquals("AC", genotype.getValue("rs41362547"));
+        assertNull(genotype.getValue("rs4630"));
+    }
+
+    @Test
+    public void testBuilderChunks() {
+        PackedGenome.Builder builder = new PackedGenome.Builder(0).withProfileId("profileId");
+        char[] values = VALUES.toCharArray();
+        for (int i = 0; i < values.length; i += 3) {
+            builder.append(values, i, Math.min(3, values.length - i));
+        }
+        assertEquals(VALUES, builder.build().asGenome().getValues());
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testBuilderOddLength() {
+        new PackedGenome.Builder().withProfileId("profileId").append('A').build();
+    }
+
+    @Test
+    public void testExtractChars() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", VALUES);
+        char[] destination = new char[8];
+        packedGenome.extract(new int[] { 30, 0, 1000 }, destination, 2);
+        assertEquals("DIAC__", new String(destination, 2, 6));
+    }
+
+    @Test
+    public void testExtractBytes() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", VALUES);
+        byte[] destination = new byte[6];
+        packedGenome.extract(new int[] { 28, 8, -2 }, destination, 0);
+        assertEquals("--____", new String(destination));
+    }
+
+    @Test
+    public void testExtractCodes() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", VALUES);
+        byte[] destination = new byte[3];
+        packedGenome.extractCodes(new int[] { 0, 8, VALUES.length() }, destination, 0);
+        assertEquals(PackedGenome.code('A', 'C'), destination[0]);
+        assertEquals(PackedGenome.NOT_GENOTYPED, destination[1]);
+        assertEquals(PackedGenome.NO_CODE, destination[2]);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testExtractCodesDestinationTooSmall() {
+        PackedGenome.valueOf("profileId", VALUES).extractCodes(new int[] { 0, 2 }, new byte[2], 1);
+    }
+
+    @Test
+    public void testAsGenotypePanel() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", "ACGT__");
+        Genotype genotype = packedGenome.asGenotype(Panel.of("rs4630", "rs3915952", "rs41362547"));
+        assertEquals(2, genotype.getValues().size());
+        assertEquals("AC", genotype.getValue("rs41362547"));
+        assertEquals("__", genotype.getValue("rs3915952"));
+    }
+
+    @Test
+    public void testExtractPanel() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", "ACGT__");
+        byte[] destination = new byte[6];
+        packedGenome.extract(Panel.of("rs4630", "rs28358280", "rs41362547"), destination, 0);
+        assertEquals("ACGT__", new String(destination));
+    }
+
+    @Test
+    public void testFromWords() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", VALUES);
+        PackedGenome copy = PackedGenome.fromWords("profileId", packedGenome.length(), packedGenome.words().clone());
+        assertEquals(VALUES, copy.asGenome().getValues());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testFromWordsNullWords() {
+        PackedGenome.fromWords("profileId", 0, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFromWordsOddLength() {
+        PackedGenome.fromWords("profileId", 3, new long[1]);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFromWordsWrongWordCount() {
+        PackedGenome.fromWords("profileId", VALUES.length(), new long[1]);
+    }
+}
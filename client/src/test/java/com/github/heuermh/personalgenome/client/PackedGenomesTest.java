@@ -0,0 +1,84 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Unit test for PackedGenomes.
+ */
+public final class PackedGenomesTest {
+    @Mock
+    private PersonalGenomeClient client;
+    @Mock
+    private PackedGenomeClient packedGenomeClient;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testPackedGenomeNullClient() {
+        PackedGenomes.packedGenome(null, "profileId");
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testPackedGenomeNullProfileId() {
+        PackedGenomes.packedGenome(client, null);
+    }
+
+    @Test
+    public void testPackedGenomeClient() {
+        PackedGenome packedGenome = PackedGenome.valueOf("profileId", "AACC");
+        when(packedGenomeClient.packedGenome("profileId")).thenReturn(packedGenome);
+        assertSame(packedGenome, PackedGenomes.packedGenome(packedGenomeClient, "profileId"));
+        verify(packedGenomeClient, never()).genome("profileId");
+    }
+
+    @Test
+    public void testPackedGenomeFromGenome() {
+        when(client.genome("profileId")).thenReturn(new Genome("profileId", "AACC"));
+        PackedGenome packedGenome = PackedGenomes.packedGenome(client, "profileId");
+        assertEquals("profileId", packedGenome.getProfileId());
+        assertEquals("AACC", packedGenome.asGenome().getValues());
+    }
+
+    @Test
+    public void testPackedGenomeNullGenome() {
+        assertNull(PackedGenomes.packedGenome(client, "profileId"));
+    }
+}
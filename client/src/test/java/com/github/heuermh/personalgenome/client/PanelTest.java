@@ -0,0 +1,98 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Unit test for Panel.
+ */
+public final class PanelTest {
+
+    @Test(expected=NullPointerException.class)
+    public void testOfNullLocations() {
+        Panel.of((String[]) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testOfNullLocation() {
+        Panel.of("rs41362547", null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testOfNullIterable() {
+        Panel.of((Iterable<String>) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testOfNullRsids() {
+        Panel.of((int[]) null);
+    }
+
+    @Test
+    public void testOf() {
+        Panel panel = Panel.of("rs4630", "rs0", "rs41362547", "not a location", "rs4630", "rs3915952");
+        assertEquals(3, panel.size());
+        assertArrayEquals(new int[] { 0, 4, 582560 * 2 }, panel.indices());
+        assertArrayEquals(new int[] { Rsid.parse("rs41362547"), Rsid.parse("rs3915952"), Rsid.parse("rs4630") }, panel.rsids());
+        assertEquals("rs41362547", panel.location(0));
+        assertEquals(Rsid.parse("rs3915952"), panel.rsid(1));
+        assertEquals(582560 * 2, panel.index(2));
+        assertEquals(Arrays.asList("rs0", "not a location"), panel.unresolved());
+    }
+
+    @Test
+    public void testOfRsids() {
+        Panel panel = Panel.of(new int[] { Rsid.parse("rs4630"), Rsid.parse("rs41362547") });
+        assertArrayEquals(new int[] { 0, 582560 * 2 }, panel.indices());
+        assertTrue(panel.unresolved().isEmpty());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testOfRsidsInvalid() {
+        Panel.of(new int[] { Rsid.parse("rs4630"), Rsid.INVALID, Rsid.parse("rs41362547") });
+    }
+
+    @Test
+    public void testOfEmpty() {
+        Panel panel = Panel.of(new String[0]);
+        assertEquals(0, panel.size());
+        assertTrue(panel.unresolved().isEmpty());
+    }
+
+    @Test
+    public void testIndicesDefensiveCopy() {
+        Panel panel = Panel.of("rs41362547");
+        panel.indices()[0] = 42;
+        panel.rsids()[0] = 42;
+        assertEquals(0, panel.index(0));
+        assertEquals(Rsid.parse("rs41362547"), panel.rsid(0));
+    }
+}
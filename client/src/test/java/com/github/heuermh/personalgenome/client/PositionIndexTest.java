@@ -0,0 +1,84 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for PositionIndex.
+ */
+public final class PositionIndexTest {
+    private LocationIndex locationIndex;
+
+    @Before
+    public void setUp() {
+        locationIndex = new LocationIndex.Builder()
+            .add(Rsid.rs(1), 0, "1", 300)
+            .add(Rsid.rs(2), 2, "1", 100)
+            .add(Rsid.rs(3), 4, "2", 150)
+            .add(Rsid.rs(4), 6, "1", 200)
+            .add(Rsid.rs(5), 8, "1", 400)
+            .build();
+    }
+
+    @Test
+    public void testRows() {
+        assertArrayEquals(new int[] { Rsid.rs(2), Rsid.rs(4), Rsid.rs(1), Rsid.rs(5) }, keys(locationIndex.rows("1", 0, Integer.MAX_VALUE)));
+        assertArrayEquals(new int[] { Rsid.rs(4), Rsid.rs(1) }, keys(locationIndex.rows("1", 200, 300)));
+        assertArrayEquals(new int[] { Rsid.rs(3) }, keys(locationIndex.rows("2", 100, 200)));
+    }
+
+    @Test
+    public void testRowsEmpty() {
+        assertEquals(0, locationIndex.rows("1", 201, 299).length);
+        assertEquals(0, locationIndex.rows("1", 300, 200).length);
+        assertEquals(0, locationIndex.rows("X", 0, Integer.MAX_VALUE).length);
+    }
+
+    @Test
+    public void testNearestRows() {
+        assertArrayEquals(new int[] { Rsid.rs(4), Rsid.rs(1) }, keys(locationIndex.nearestRows("1", 240, 2)));
+        assertArrayEquals(new int[] { Rsid.rs(4), Rsid.rs(1), Rsid.rs(2), Rsid.rs(5) }, keys(locationIndex.nearestRows("1", 250, 10)));
+        assertArrayEquals(new int[] { Rsid.rs(5) }, keys(locationIndex.nearestRows("1", 1000, 1)));
+        assertArrayEquals(new int[] { Rsid.rs(2) }, keys(locationIndex.nearestRows("1", 0, 1)));
+    }
+
+    @Test
+    public void testNearestRowsEmpty() {
+        assertEquals(0, locationIndex.nearestRows("1", 250, 0).length);
+        assertEquals(0, locationIndex.nearestRows("X", 250, 10).length);
+    }
+
+    private int[] keys(final int[] rows) {
+        int[] keys = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            keys[i] = locationIndex.key(rows[i]);
+        }
+        return keys;
+    }
+}
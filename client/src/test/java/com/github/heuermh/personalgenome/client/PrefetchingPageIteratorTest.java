@@ -0,0 +1,215 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import java.util.concurrent.Executors;
+
+import com.google.common.collect.ImmutableList;
+
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for PrefetchingPageIterator.
+ */
+public final class PrefetchingPageIteratorTest {
+    private ListeningExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testIteratesAllPages() {
+        RangeIterator iterator = new RangeIterator(25, 10);
+        List<Integer> results = new ArrayList<Integer>();
+        while (iterator.hasNext()) {
+            results.add(iterator.next());
+        }
+        assertEquals(25, results.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(Integer.valueOf(i), results.get(i));
+        }
+        assertEquals(ImmutableList.of("0,10", "10,10", "20,10", "25,10"), iterator.fetches);
+    }
+
+    @Test
+    public void testExactMultipleOfPageSize() {
+        RangeIterator iterator = new RangeIterator(20, 10);
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(20, count);
+        assertEquals(ImmutableList.of("0,10", "10,10", "20,10"), iterator.fetches);
+    }
+
+    @Test
+    public void testEmpty() {
+        RangeIterator iterator = new RangeIterator(0, 10);
+        assertFalse(iterator.start().hasNext());
+        assertEquals(ImmutableList.of("0,10"), iterator.fetches);
+    }
+
+    @Test
+    public void testStartFetchesFirstPage() {
+        RangeIterator iterator = new RangeIterator(5, 10);
+        iterator.start();
+        assertEquals("0,10", iterator.fetches.get(0));
+    }
+
+    @Test
+    public void testShortPageBeforeLastPage() {
+        final List<String> fetches = Collections.synchronizedList(new ArrayList<String>());
+        PrefetchingPageIterator<Integer> iterator = new PrefetchingPageIterator<Integer>(10, executorService) {
+            @Override
+            List<Integer> fetch(final int offset, final int limit) {
+                fetches.add(offset + "," + limit);
+                if (offset == 0) {
+                    return ImmutableList.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+                }
+                if (offset == 10) {
+                    return ImmutableList.of(10, 11, 12);
+                }
+                if (offset == 13) {
+                    return ImmutableList.of(13, 14, 15, 16, 17, 18, 19, 20, 21, 22);
+                }
+                return ImmutableList.of();
+            }
+        };
+        List<Integer> results = new ArrayList<Integer>();
+        while (iterator.hasNext()) {
+            results.add(iterator.next());
+        }
+        assertEquals(23, results.size());
+        for (int i = 0; i < 23; i++) {
+            assertEquals(Integer.valueOf(i), results.get(i));
+        }
+        assertEquals(ImmutableList.of("0,10", "10,10", "13,10", "23,10"), fetches);
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void testNextPastEnd() {
+        new RangeIterator(0, 10).next();
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemove() {
+        new RangeIterator(5, 10).remove();
+    }
+
+    @Test
+    public void testPrefetchFailure() {
+        PrefetchingPageIterator<Integer> iterator = new PrefetchingPageIterator<Integer>(2, executorService) {
+            @Override
+            List<Integer> fetch(final int offset, final int limit) {
+                if (offset > 0) {
+                    throw new AccessDeniedException("access denied");
+                }
+                return ImmutableList.of(0, 1);
+            }
+        };
+        iterator.next();
+        iterator.next();
+        try {
+            iterator.hasNext();
+            fail("expected AccessDeniedException");
+        }
+        catch (AccessDeniedException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testNullPage() {
+        PrefetchingPageIterator<Integer> iterator = new PrefetchingPageIterator<Integer>(2, executorService) {
+            @Override
+            List<Integer> fetch(final int offset, final int limit) {
+                return offset == 0 ? ImmutableList.of(0, 1) : null;
+            }
+        };
+        iterator.next();
+        iterator.next();
+        try {
+            iterator.hasNext();
+            fail("expected PersonalGenomeClientException");
+        }
+        catch (PersonalGenomeClientException e) {
+            assertEquals("could not read page of results at offset 2", e.getMessage());
+        }
+    }
+
+    @Test(expected=PersonalGenomeClientException.class)
+    public void testNullFirstPage() {
+        new PrefetchingPageIterator<Integer>(2, null) {
+            @Override
+            List<Integer> fetch(final int offset, final int limit) {
+                return null;
+            }
+        }.start();
+    }
+
+    /**
+     * Iterator over a range of integers.
+     */
+    private final class RangeIterator extends PrefetchingPageIterator<Integer> {
+        private final int size;
+        private final List<String> fetches = Collections.synchronizedList(new ArrayList<String>());
+
+        RangeIterator(final int size, final int pageSize) {
+            super(pageSize, executorService);
+            this.size = size;
+        }
+
+        @Override
+        List<Integer> fetch(final int offset, final int limit) {
+            fetches.add(offset + "," + limit);
+            List<Integer> page = new ArrayList<Integer>();
+            for (int i = offset; i < Math.min(size, offset + limit); i++) {
+                page.add(i);
+            }
+            return page;
+        }
+    }
+}
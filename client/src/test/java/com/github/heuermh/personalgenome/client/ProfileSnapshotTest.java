@@ -0,0 +1,109 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.junit.Test;
+
+/**
+ * Unit test for ProfileSnapshot.
+ */
+public final class ProfileSnapshotTest {
+    private static final Map<Call, Object> NO_RESULTS = Collections.emptyMap();
+    private static final Map<Call, Throwable> NO_FAILURES = Collections.emptyMap();
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullProfileId() {
+        new ProfileSnapshot(null, NO_RESULTS, NO_FAILURES);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullResults() {
+        new ProfileSnapshot("profileId", null, NO_FAILURES);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullFailures() {
+        new ProfileSnapshot("profileId", NO_RESULTS, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorWrongResultType() {
+        new ProfileSnapshot("profileId", ImmutableMap.of(Call.GENOME, "ACGT"), NO_FAILURES);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorUnsupportedCall() {
+        new ProfileSnapshot("profileId", ImmutableMap.of(Call.GENOTYPES, new Genotype("profileId", ImmutableMap.of("rs1234", "AC"))), NO_FAILURES);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorResultAndFailure() {
+        new ProfileSnapshot("profileId",
+                            ImmutableMap.of(Call.NEANDERTHAL_PROPORTION, 0.02d),
+                            ImmutableMap.of(Call.NEANDERTHAL_PROPORTION, new RuntimeException()));
+    }
+
+    @Test
+    public void testConstructor() {
+        Genome genome = new Genome("profileId", "ACGT__");
+        List<Risk> risks = new ArrayList<Risk>();
+        risks.add(new Risk("profileId", "reportId", "description", 0.1d, 0.2d));
+        RuntimeException failure = new AccessDeniedException("access denied");
+
+        ProfileSnapshot snapshot = new ProfileSnapshot("profileId",
+                                                       ImmutableMap.of(Call.GENOME, genome, Call.RISKS, risks),
+                                                       ImmutableMap.of(Call.TRAITS, failure));
+        risks.clear();
+
+        assertEquals("profileId", snapshot.getProfileId());
+        assertSame(genome, snapshot.getGenome());
+        assertEquals(1, snapshot.getRisks().size());
+        assertTrue(snapshot.contains(Call.GENOME));
+        assertFalse(snapshot.contains(Call.TRAITS));
+        assertNull(snapshot.getTraits());
+        assertNull(snapshot.getNames());
+        assertFalse(snapshot.isComplete());
+        assertSame(failure, snapshot.getFailure(Call.TRAITS));
+        assertEquals(1, snapshot.getFailures().size());
+    }
+
+    @Test
+    public void testCalls() {
+        assertEquals(EnumSet.complementOf(EnumSet.of(Call.USER, Call.GENOTYPES)), ProfileSnapshot.CALLS);
+    }
+}
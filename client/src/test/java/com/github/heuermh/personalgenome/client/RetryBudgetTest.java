@@ -0,0 +1,89 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for RetryBudget.
+ */
+public final class RetryBudgetTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidRatio() {
+        new RetryBudget(1.1d, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorNegativeRatio() {
+        new RetryBudget(-0.1d, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidReserve() {
+        new RetryBudget(0.1d, -1);
+    }
+
+    @Test
+    public void testReserve() {
+        RetryBudget budget = new RetryBudget(0.1d, 2);
+        assertEquals(2.0d, budget.balance(), 0.001d);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    public void testDeposit() {
+        RetryBudget budget = new RetryBudget(0.5d, 0);
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    public void testDepositCappedAtReserve() {
+        RetryBudget budget = new RetryBudget(1.0d, 2);
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+        assertEquals(2.0d, budget.balance(), 0.001d);
+    }
+
+    @Test
+    public void testZeroRatio() {
+        RetryBudget budget = new RetryBudget(0.0d, 1);
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        budget.deposit();
+        assertFalse(budget.tryWithdraw());
+    }
+}
@@ -0,0 +1,202 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Unit test for RetryingPersonalGenomeClient.
+ */
+public final class RetryingPersonalGenomeClientTest extends AbstractPersonalGenomeClientTest {
+    private RetryingPersonalGenomeClient retryingClient;
+    private UserName userName;
+
+    @Mock
+    private PersonalGenomeClient delegate;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        super.setUp();
+        retryingClient = (RetryingPersonalGenomeClient) client;
+        userName = new UserName("profileId", "first", "last", ImmutableList.<ProfileName>of());
+    }
+
+    @Override
+    protected PersonalGenomeClient createPersonalGenomeClient() {
+        return new RetryingPersonalGenomeClient(delegate, 3, 1L, 4L, new RetryBudget(0.1d, 10));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDelegate() {
+        new RetryingPersonalGenomeClient(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new RetryingPersonalGenomeClient(delegate, 1, 1L, 1L, new RetryBudget(), 0, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidMaxAttempts() {
+        new RetryingPersonalGenomeClient(delegate, 0, 1L, 1L, new RetryBudget());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidBaseDelay() {
+        new RetryingPersonalGenomeClient(delegate, 1, -1L, 1L, new RetryBudget());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidMaxDelay() {
+        new RetryingPersonalGenomeClient(delegate, 1, 2L, 1L, new RetryBudget());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullBudget() {
+        new RetryingPersonalGenomeClient(delegate, 1, 1L, 1L, null);
+    }
+
+    @Test
+    public void testSuccessNotRetried() {
+        when(delegate.names("profileId")).thenReturn(userName);
+        assertEquals(userName, client.names("profileId"));
+        verify(delegate, times(1)).names("profileId");
+        assertEquals(1L, retryingClient.calls());
+        assertEquals(0L, retryingClient.retries());
+    }
+
+    @Test
+    public void testTemporarilyUnavailableRetried() {
+        when(delegate.names("profileId")).thenThrow(new TemporarilyUnavailableException(503, "unavailable")).thenReturn(userName);
+        assertEquals(userName, client.names("profileId"));
+        verify(delegate, times(2)).names("profileId");
+        assertEquals(1L, retryingClient.retries());
+    }
+
+    @Test
+    public void testIOErrorRetried() {
+        when(delegate.names("profileId")).thenThrow(new RuntimeException(new IOException("connection reset"))).thenReturn(userName);
+        assertEquals(userName, client.names("profileId"));
+        verify(delegate, times(2)).names("profileId");
+    }
+
+    @Test
+    public void testAccessDeniedNotRetried() {
+        when(delegate.names("profileId")).thenThrow(new AccessDeniedException("denied"));
+        try {
+            client.names("profileId");
+            fail("expected AccessDeniedException");
+        }
+        catch (AccessDeniedException e) {
+            // expected
+        }
+        verify(delegate, times(1)).names("profileId");
+        assertEquals(0L, retryingClient.retries());
+    }
+
+    @Test
+    public void testMaxAttempts() {
+        when(delegate.names("profileId")).thenThrow(new TemporarilyUnavailableException(503, "unavailable"));
+        try {
+            client.names("profileId");
+            fail("expected TemporarilyUnavailableException");
+        }
+        catch (TemporarilyUnavailableException e) {
+            // expected
+        }
+        verify(delegate, times(3)).names("profileId");
+        assertEquals(2L, retryingClient.retries());
+        assertEquals(1L, retryingClient.exhausted());
+    }
+
+    @Test
+    public void testBudgetExhausted() {
+        client = retryingClient = new RetryingPersonalGenomeClient(delegate, 3, 1L, 4L, new RetryBudget(0.0d, 1));
+        when(delegate.names("profileId")).thenThrow(new TemporarilyUnavailableException(503, "unavailable"));
+        try {
+            client.names("profileId");
+            fail("expected TemporarilyUnavailableException");
+        }
+        catch (TemporarilyUnavailableException e) {
+            // expected
+        }
+        verify(delegate, times(2)).names("profileId");
+        assertEquals(1L, retryingClient.retries());
+        assertEquals(1L, retryingClient.budgetExhausted());
+
+        try {
+            client.names("profileId");
+            fail("expected TemporarilyUnavailableException");
+        }
+        catch (TemporarilyUnavailableException e) {
+            // expected
+        }
+        verify(delegate, times(3)).names("profileId");
+        assertEquals(2L, retryingClient.budgetExhausted());
+    }
+
+    @Test
+    public void testDelay() {
+        RetryingPersonalGenomeClient delayClient = new RetryingPersonalGenomeClient(delegate, 10, 100L, 1000L, new RetryBudget());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(delayClient.delay(1) <= 100L);
+            assertTrue(delayClient.delay(2) <= 200L);
+            assertTrue(delayClient.delay(4) <= 800L);
+            assertTrue(delayClient.delay(10) <= 1000L);
+            assertTrue(delayClient.delay(10) >= 0L);
+        }
+    }
+
+    @Test
+    public void testDelayZero() {
+        assertEquals(0L, new RetryingPersonalGenomeClient(delegate, 2, 0L, 0L, new RetryBudget()).delay(1));
+    }
+
+    @Test
+    public void testIsRetryable() {
+        assertTrue(RetryingPersonalGenomeClient.isRetryable(new TemporarilyUnavailableException(429, "throttled")));
+        assertTrue(RetryingPersonalGenomeClient.isRetryable(new RuntimeException(new IOException())));
+        assertFalse(RetryingPersonalGenomeClient.isRetryable(new PersonalGenomeClientException("unknown")));
+        assertFalse(RetryingPersonalGenomeClient.isRetryable(new InvalidRequestException("invalid")));
+        assertFalse(RetryingPersonalGenomeClient.isRetryable(new IllegalStateException()));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for Rsid.
+ */
+public final class RsidTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testRsZero() {
+        Rsid.rs(0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInternalNegative() {
+        Rsid.internal(-1);
+    }
+
+    @Test
+    public void testRs() {
+        assertEquals(4630, Rsid.rs(4630));
+        assertFalse(Rsid.isInternal(Rsid.rs(4630)));
+    }
+
+    @Test
+    public void testInternal() {
+        assertEquals(-5053906, Rsid.internal(5053906));
+        assertTrue(Rsid.isInternal(Rsid.internal(5053906)));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testParseNullLocation() {
+        Rsid.parse(null);
+    }
+
+    @Test
+    public void testParse() {
+        assertEquals(4630, Rsid.parse("rs4630"));
+        assertEquals(-5053906, Rsid.parse("i5053906"));
+        assertEquals(Integer.MAX_VALUE, Rsid.parse("rs2147483647"));
+    }
+
+    @Test
+    public void testParseInvalid() {
+        assertEquals(Rsid.INVALID, Rsid.parse(""));
+        assertEquals(Rsid.INVALID, Rsid.parse("invalid location"));
+        assertEquals(Rsid.INVALID, Rsid.parse("rs"));
+        assertEquals(Rsid.INVALID, Rsid.parse("i"));
+        assertEquals(Rsid.INVALID, Rsid.parse("rs12a"));
+        assertEquals(Rsid.INVALID, Rsid.parse("rs-12"));
+        assertEquals(Rsid.INVALID, Rsid.parse("rs2147483648"));
+        assertEquals(Rsid.INVALID, Rsid.parse("rs0"));
+        assertEquals(Rsid.INVALID, Rsid.parse("rs007"));
+        assertEquals(Rsid.INVALID, Rsid.parse("i0"));
+        assertEquals(Rsid.INVALID, Rsid.parse("i05053906"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFormatInvalid() {
+        Rsid.format(Rsid.INVALID);
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("rs4630", Rsid.format(4630));
+        assertEquals("i5053906", Rsid.format(-5053906));
+        assertEquals("i2147483648", Rsid.format(Integer.MIN_VALUE));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testAppendToNullStringBuilder() {
+        Rsid.appendTo(null, 4630);
+    }
+
+    @Test
+    public void testAppendTo() {
+        StringBuilder sb = new StringBuilder("locations: ");
+        Rsid.appendTo(sb, 4630);
+        sb.append(" ");
+        Rsid.appendTo(sb, -5053906);
+        assertEquals("locations: rs4630 i5053906", sb.toString());
+    }
+}
@@ -0,0 +1,271 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import java.util.Arrays;
+import java.util.List;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+
+import com.google.common.collect.ImmutableList;
+
+import com.github.heuermh.personalgenome.client.converter.JacksonPersonalGenomeConverter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for TransportPersonalGenomeClient.
+ */
+public final class TransportPersonalGenomeClientTest extends AbstractPersonalGenomeClientTest {
+    private PersonalGenomeConverter converter;
+    private FakeTransport transport;
+
+    @Before
+    public void setUp() {
+        converter = new JacksonPersonalGenomeConverter(new JsonFactory());
+        transport = new FakeTransport();
+        super.setUp();
+    }
+
+    @Override
+    protected PersonalGenomeClient createPersonalGenomeClient() {
+        return new TransportPersonalGenomeClient(transport, converter, 2, 2, 100);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullTransport() {
+        new TransportPersonalGenomeClient(null, converter);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullConverter() {
+        new TransportPersonalGenomeClient(transport, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidChunkSize() {
+        new TransportPersonalGenomeClient(transport, converter, 0, 1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidParallelism() {
+        new TransportPersonalGenomeClient(transport, converter, 1, 0, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new TransportPersonalGenomeClient(transport, converter, 1, 1, 0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullExecutorService() {
+        new TransportPersonalGenomeClient(transport, converter, (ExecutorService) null, 1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testCreateExecutorServiceInvalidParallelism() {
+        TransportPersonalGenomeClient.createExecutorService(0);
+    }
+
+    @Test
+    public void testSharedExecutorService() {
+        ExecutorService executorService = TransportPersonalGenomeClient.createExecutorService(2);
+        try {
+            PersonalGenomeClient first = new TransportPersonalGenomeClient(transport, converter, executorService, 2, 100);
+            PersonalGenomeClient second = new TransportPersonalGenomeClient(transport, converter, executorService, 2, 100);
+            assertEquals(5, first.genotypes("44aa40", "rs1", "rs2", "rs3", "rs4", "rs5").getValues().size());
+            assertEquals(5, second.genotypes("44aa40", "rs1", "rs2", "rs3", "rs4", "rs5").getValues().size());
+            assertFalse(executorService.isShutdown());
+        }
+        finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testNames() {
+        UserName userName = client.names("c3a110");
+        assertEquals("c3a110", userName.getId());
+        assertEquals(ImmutableList.of("names/c3a110/"), transport.paths);
+    }
+
+    @Test
+    public void testNeanderthalProportion() {
+        assertEquals(0.031d, client.neanderthalProportion("7ad467ea509080fb"), 0.0001d);
+        assertEquals(ImmutableList.of("neanderthal/7ad467ea509080fb/"), transport.paths);
+    }
+
+    @Test(expected=AccessDeniedException.class)
+    public void testAccessDenied() {
+        client.names("denied");
+    }
+
+    @Test
+    public void testTemporarilyUnavailable() {
+        try {
+            client.names("unavailable");
+            fail("expected TemporarilyUnavailableException");
+        }
+        catch (TemporarilyUnavailableException e) {
+            assertEquals(503, e.getCode());
+            assertEquals("unavailable", e.getMessage());
+        }
+    }
+
+    @Test(timeout=5000L)
+    public void testTemporarilyUnavailableEmptyBody() {
+        try {
+            client.names("empty");
+            fail("expected TemporarilyUnavailableException");
+        }
+        catch (TemporarilyUnavailableException e) {
+            assertEquals(503, e.getCode());
+        }
+    }
+
+    @Test
+    public void testPackedGenome() {
+        PackedGenome packedGenome = ((PackedGenomeClient) client).packedGenome("c4480ba411939067");
+        assertEquals("c4480ba411939067", packedGenome.getProfileId());
+        assertEquals("ACTAGTAG", packedGenome.asGenome().getValues());
+        assertEquals(ImmutableList.of("genomes/c4480ba411939067/"), transport.paths);
+    }
+
+    @Test
+    public void testPackedGenomeConverterNotPacked() {
+        PersonalGenomeConverter genomeConverter = mock(PersonalGenomeConverter.class);
+        when(genomeConverter.parseGenomes(any(InputStream.class))).thenReturn(new Genome("c4480ba411939067", "ACTAGTAG"));
+        PackedGenomeClient packedGenomeClient = new TransportPersonalGenomeClient(transport, genomeConverter);
+        PackedGenome packedGenome = packedGenomeClient.packedGenome("c4480ba411939067");
+        assertEquals("c4480ba411939067", packedGenome.getProfileId());
+        assertEquals("ACTAGTAG", packedGenome.asGenome().getValues());
+    }
+
+    @Test
+    public void testGenotypes() {
+        Genotype genotype = client.genotypes("44aa40", "rs1", "rs2", "rs3", "rs4", "rs5");
+        assertEquals("44aa40", genotype.getProfileId());
+        assertEquals(5, genotype.getValues().size());
+        assertEquals("AA", genotype.getValue("rs5"));
+        assertEquals(3, transport.paths.size());
+        assertTrue(transport.paths.containsAll(Arrays.asList("genotype/44aa40/?locations=rs1 rs2", "genotype/44aa40/?locations=rs3 rs4", "genotype/44aa40/?locations=rs5")));
+    }
+
+    @Test
+    public void testGenotypesMalformedChunk() {
+        try {
+            client.genotypes("44aa40", "rs1", "rs2", "malformed");
+            fail("expected PersonalGenomeClientException");
+        }
+        catch (PersonalGenomeClientException e) {
+            assertEquals("could not read genotype for locations malformed", e.getMessage());
+        }
+    }
+
+    @Test(expected=AccessDeniedException.class)
+    public void testGenotypesAccessDenied() {
+        client.genotypes("denied", "rs1", "rs2", "rs3");
+    }
+
+    @Test
+    public void testScopes() {
+        assertEquals(ImmutableList.of("rs1 rs2", "rs3 rs4", "rs5"), TransportPersonalGenomeClient.scopes(ImmutableList.of("rs1", "rs2", "rs3", "rs4", "rs5"), 2));
+        assertEquals(ImmutableList.of("rs1 rs2"), TransportPersonalGenomeClient.scopes(ImmutableList.of("rs1", "rs2"), 2));
+    }
+
+    @Test
+    public void testScopesEmpty() {
+        assertEquals(ImmutableList.of(""), TransportPersonalGenomeClient.scopes(ImmutableList.<String>of(), 2));
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testScopesNullLocation() {
+        TransportPersonalGenomeClient.scopes(Arrays.asList("rs1", "rs2", "rs3", null), 2);
+    }
+
+
+    /**
+     * In-memory fake personal genome transport.
+     */
+    private static final class FakeTransport implements PersonalGenomeTransport {
+        private final List<String> paths = new CopyOnWriteArrayList<String>();
+
+        @Override
+        public TransportResponse get(final String path) {
+            paths.add(path);
+            if (path.contains("denied")) {
+                return response(403, "{\"error\": \"access_denied\", \"error_description\": \"denied\"}");
+            }
+            if (path.contains("empty")) {
+                return response(503, "");
+            }
+            if (path.contains("unavailable")) {
+                return response(503, "{\"error\": \"temporarily_unavailable\", \"error_description\": \"unavailable\"}");
+            }
+            if (path.contains("malformed")) {
+                return response(200, "{\"id\": ");
+            }
+            if (path.startsWith("names/")) {
+                return response(200, "{\"id\": \"c3a110\", \"first_name\": \"Gene\", \"last_name\": \"Mendel\", \"profiles\": []}");
+            }
+            if (path.startsWith("neanderthal/")) {
+                return response(200, "{\"id\": \"7ad467ea509080fb\", \"neanderthal\": {\"proportion\": 0.0310}}");
+            }
+            if (path.startsWith("genomes/")) {
+                return response(200, "{\"id\": \"c4480ba411939067\", \"genome\": \"ACTAGTAG\"}");
+            }
+            if (path.startsWith("genotype/")) {
+                StringBuilder sb = new StringBuilder("{\"id\": \"44aa40\"");
+                for (String location : Splitter.on(" ").split(path.substring(path.indexOf("=") + 1))) {
+                    sb.append(", \"" + location + "\": \"AA\"");
+                }
+                return response(200, sb.append("}").toString());
+            }
+            return response(404, "{\"error\": \"invalid_request\", \"error_description\": \"not found\"}");
+        }
+
+        private static TransportResponse response(final int code, final String body) {
+            return new TransportResponse(code, new ByteArrayInputStream(body.getBytes(Charsets.UTF_8)));
+        }
+    }
+}
@@ -25,9 +25,11 @@ package com.github.heuermh.personalgenome.client.converter;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 import java.util.List;
@@ -44,8 +46,9 @@ import com.github.heuermh.personalgenome.client.InvalidRequestException;
 import com.github.heuermh.personalgenome.client.InvalidScopeException;
 import com.github.heuermh.personalgenome.client.Genome;
 import com.github.heuermh.personalgenome.client.Genotype;
+import com.github.heuermh.personalgenome.client.PackedGenome;
+import com.github.heuermh.personalgenome.client.PackedGenomeConverter;
 import com.github.heuermh.personalgenome.client.PersonalGenomeClientException;
-import com.github.heuermh.personalgenome.client.PersonalGenomeConverter;
 import com.github.heuermh.personalgenome.client.Relative;
 import com.github.heuermh.personalgenome.client.Risk;
 import com.github.heuermh.personalgenome.client.Trait;
@@ -60,7 +63,7 @@ import org.junit.Test;
  * Unit test for JacksonPersonalGenomeConverter.
  */
 public final class JacksonPersonalGenomeConverterTest {
-    private PersonalGenomeConverter converter;
+    private PackedGenomeConverter converter;
     private static JsonFactory jsonFactory;
 
     @BeforeClass
@@ -114,6 +117,18 @@ public final class JacksonPersonalGenomeConverterTest {
         assertEquals("error description", exception.getMessage());
     }
 
+    @Test(timeout=5000L)
+    public void testParseExceptionEmpty() {
+        PersonalGenomeClientException exception = converter.parseException(new ByteArrayInputStream(new byte[0]));
+        assertNotNull(exception);
+    }
+
+    @Test(timeout=5000L)
+    public void testParseExceptionTruncated() {
+        PersonalGenomeClientException exception = converter.parseException(new ByteArrayInputStream("{\"error\": \"access_denied\", \"error_description\": \"error description\"".getBytes()));
+        assertNotNull(exception);
+    }
+
     @Test
     public void testParseUnknownException() {
         InputStream inputStream = getClass().getResourceAsStream("unknown.json");
@@ -189,6 +204,39 @@ public final class JacksonPersonalGenomeConverterTest {
         assertEquals("ACTAGTAG__TTGADDAAIICCTTDDTT", genome.getValues());
     }
 
+    @Test(expected=NullPointerException.class)
+    public void testParsePackedGenomesNullInputStream() {
+        converter.parsePackedGenomes(null);
+    }
+
+    @Test
+    public void testParsePackedGenomes() {
+        InputStream inputStream = getClass().getResourceAsStream("genomes.json");
+        PackedGenome packedGenome = converter.parsePackedGenomes(inputStream);
+        assertNotNull(packedGenome);
+        assertEquals("c4480ba411939067", packedGenome.getProfileId());
+        assertEquals(28, packedGenome.length());
+        assertEquals("ACTAGTAG__TTGADDAAIICCTTDDTT", packedGenome.asGenome().getValues());
+    }
+
+    @Test
+    public void testParsePackedGenomesInvalid() {
+        InputStream inputStream = new ByteArrayInputStream("{\"id\":\"profileId\",\"genome\":\"ACNN\"}".getBytes());
+        assertNull(converter.parsePackedGenomes(inputStream));
+    }
+
+    @Test
+    public void testParsePackedGenomesMissingId() {
+        InputStream inputStream = new ByteArrayInputStream("{\"genome\":\"ACGT\"}".getBytes());
+        assertNull(converter.parsePackedGenomes(inputStream));
+    }
+
+    @Test
+    public void testParsePackedGenomesMissingGenome() {
+        InputStream inputStream = new ByteArrayInputStream("{\"id\":\"profileId\"}".getBytes());
+        assertNull(converter.parsePackedGenomes(inputStream));
+    }
+
     @Test
     public void testParseAncestry() {
         InputStream inputStream = getClass().getResourceAsStream("ancestry.json");
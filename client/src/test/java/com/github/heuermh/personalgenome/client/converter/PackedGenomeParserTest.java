@@ -0,0 +1,123 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import com.github.heuermh.personalgenome.client.PackedGenome;
+
+import com.google.common.base.Charsets;
+
+import org.junit.Test;
+
+/**
+ * Unit test for PackedGenomeParser.
+ */
+public final class PackedGenomeParserTest {
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullInputStream() {
+        new PackedGenomeParser(null);
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        PackedGenome packedGenome = parse(getClass().getResourceAsStream("genomes.json"));
+        assertEquals("c4480ba411939067", packedGenome.getProfileId());
+        assertEquals("ACTAGTAG__TTGADDAAIICCTTDDTT", packedGenome.asGenome().getValues());
+    }
+
+    @Test
+    public void testParseFieldOrderAndUnknownFields() throws Exception {
+        PackedGenome packedGenome = parse("{\"genome\" : \"AC--\", \"other\": {\"a\": [1, \"}\", true]}, \"n\": -1.5e3,\n\"id\":\"profile\\\"Id\"}");
+        assertEquals("profile\"Id", packedGenome.getProfileId());
+        assertEquals("AC--", packedGenome.asGenome().getValues());
+    }
+
+    @Test
+    public void testParseEscapedGenome() throws Exception {
+        PackedGenome packedGenome = parse("{\"id\":\"profileId\",\"genome\":\"\\u0041C\\u005f_\"}");
+        assertEquals("AC__", packedGenome.asGenome().getValues());
+    }
+
+    @Test
+    public void testParseLargeGenome() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append("ACGT-_DI".charAt(i % 8));
+        }
+        PackedGenome packedGenome = parse("{\"id\":\"profileId\",\"genome\":\"" + sb + "\"}");
+        assertEquals(sb.toString(), packedGenome.asGenome().getValues());
+    }
+
+    @Test(expected=IOException.class)
+    public void testParseInvalidGenomeCharacter() throws Exception {
+        parse("{\"id\":\"profileId\",\"genome\":\"ACNN\"}");
+    }
+
+    @Test(expected=IOException.class)
+    public void testParseNotAnObject() throws Exception {
+        parse("[\"id\", \"profileId\"]");
+    }
+
+    @Test(expected=IOException.class)
+    public void testParseMissingId() throws Exception {
+        parse("{\"genome\":\"ACGT\"}");
+    }
+
+    @Test
+    public void testParseMissingGenome() throws Exception {
+        try {
+            parse("{\"id\":\"profileId\"}");
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertEquals("missing genome field", e.getMessage());
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testParseEmptyObject() throws Exception {
+        parse("{}");
+    }
+
+    @Test(expected=EOFException.class)
+    public void testParseUnterminatedGenome() throws Exception {
+        parse("{\"id\":\"profileId\",\"genome\":\"ACGT");
+    }
+
+    private static PackedGenome parse(final String value) throws IOException {
+        return parse(new ByteArrayInputStream(value.getBytes(Charsets.UTF_8)));
+    }
+
+    private static PackedGenome parse(final InputStream inputStream) throws IOException {
+        return new PackedGenomeParser(inputStream).parse();
+    }
+}
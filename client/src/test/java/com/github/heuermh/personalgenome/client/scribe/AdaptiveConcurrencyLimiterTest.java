@@ -0,0 +1,159 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for AdaptiveConcurrencyLimiter.
+ */
+public final class AdaptiveConcurrencyLimiterTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidInitialLimit() {
+        new AdaptiveConcurrencyLimiter(0, 4, 2.0d);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInitialLimitGreaterThanMaximumLimit() {
+        new AdaptiveConcurrencyLimiter(5, 4, 2.0d);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidMaximumLimit() {
+        new AdaptiveConcurrencyLimiter(1, 0, 2.0d);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidTolerance() {
+        new AdaptiveConcurrencyLimiter(1, 4, 1.0d);
+    }
+
+    @Test
+    public void testAcquireRelease() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 4, 2.0d);
+        limiter.acquire();
+        limiter.acquire();
+        assertEquals(2, limiter.inFlight());
+        limiter.release();
+        assertEquals(1, limiter.inFlight());
+    }
+
+    @Test
+    public void testAcquireWaitsForRelease() throws Exception {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 4, 2.0d);
+        limiter.acquire();
+        final CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        limiter.acquire();
+                        acquired.countDown();
+                    }
+                    catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+            });
+        thread.start();
+        try {
+            assertEquals(1L, acquired.getCount());
+            TimeUnit.MILLISECONDS.sleep(50L);
+            assertEquals(1L, acquired.getCount());
+            limiter.release();
+            assertTrue(acquired.await(5L, TimeUnit.SECONDS));
+        }
+        finally {
+            thread.interrupt();
+        }
+    }
+
+    @Test
+    public void testAdditiveIncrease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 4, 2.0d);
+        limiter.onSuccess("route", 100L);
+        limiter.onSuccess("route", 100L);
+        assertEquals(2, limiter.limit());
+        limiter.onSuccess("route", 100L);
+        assertEquals(3, limiter.limit());
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess("route", 100L);
+        }
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    public void testLatencyDecrease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 2.0d);
+        limiter.onSuccess("route", 100L);
+        limiter.onSuccess("route", 150L);
+        assertEquals(10, limiter.limit());
+        limiter.onSuccess("route", 250L);
+        assertEquals(9, limiter.limit());
+    }
+
+    @Test
+    public void testBaselinePerRoute() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 2.0d);
+        limiter.onSuccess("names", 100L);
+        limiter.onSuccess("genomes", 100000L);
+        limiter.onSuccess("genomes", 120000L);
+        limiter.onSuccess("names", 110L);
+        assertEquals(10, limiter.limit());
+        assertEquals(100.0d, limiter.baseline("names"), 0.1d);
+        assertEquals(100000.0d, limiter.baseline("genomes"), 1000.0d);
+    }
+
+    @Test
+    public void testBaselineDecays() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 10, 2.0d);
+        limiter.onSuccess("route", 10L);
+        for (int i = 0; i < 1000; i++) {
+            limiter.onSuccess("route", 1000L);
+        }
+        assertTrue(limiter.baseline("route") > 900.0d);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSuccess("route", 1000L);
+        }
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    public void testOverloadDecrease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 8, 2.0d);
+        limiter.onOverload();
+        assertEquals(4, limiter.limit());
+        limiter.onOverload();
+        limiter.onOverload();
+        limiter.onOverload();
+        assertEquals(1, limiter.limit());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.net.InetSocketAddress;
+
+import com.google.common.base.Charsets;
+
+import com.google.common.io.ByteStreams;
+
+import com.github.heuermh.personalgenome.client.TransportResponse;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Verb;
+
+/**
+ * Unit test for DefaultHttpTransport.
+ */
+public final class DefaultHttpTransportTest {
+    private String url;
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange) throws IOException {
+                    byte[] body = ("{\"path\": \"" + exchange.getRequestURI().getPath() + "\"}").getBytes(Charsets.UTF_8);
+                    exchange.sendResponseHeaders(exchange.getRequestURI().getPath().startsWith("/denied") ? 403 : 200, body.length);
+                    OutputStream outputStream = exchange.getResponseBody();
+                    outputStream.write(body);
+                    outputStream.close();
+                }
+            });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidConnectTimeout() {
+        new DefaultHttpTransport(-1, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidReadTimeout() {
+        new DefaultHttpTransport(0, -1);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSendNullRequest() {
+        new DefaultHttpTransport().send(null);
+    }
+
+    @Test
+    public void testSend() throws IOException {
+        TransportResponse response = new DefaultHttpTransport(1000, 1000).send(new OAuthRequest(Verb.GET, url + "/user"));
+        assertEquals(200, response.getCode());
+        assertEquals("{\"path\": \"/user\"}", new String(ByteStreams.toByteArray(response.getStream()), Charsets.UTF_8));
+    }
+
+    @Test
+    public void testSendError() throws IOException {
+        TransportResponse response = new DefaultHttpTransport().send(new OAuthRequest(Verb.GET, url + "/denied"));
+        assertEquals(403, response.getCode());
+        assertEquals("{\"path\": \"/denied\"}", new String(ByteStreams.toByteArray(response.getStream()), Charsets.UTF_8));
+    }
+}
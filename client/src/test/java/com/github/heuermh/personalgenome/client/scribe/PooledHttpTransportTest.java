@@ -0,0 +1,235 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.InetSocketAddress;
+import java.net.URL;
+
+import java.util.List;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Charsets;
+
+import com.google.common.io.ByteStreams;
+
+import com.github.heuermh.personalgenome.client.TransportResponse;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.scribe.exceptions.OAuthConnectionException;
+
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Verb;
+
+/**
+ * Unit test for PooledHttpTransport.
+ */
+public final class PooledHttpTransportTest {
+    private String url;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private List<Integer> remotePorts;
+
+    @Before
+    public void setUp() throws IOException {
+        remotePorts = new CopyOnWriteArrayList<Integer>();
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+                @Override
+                public void handle(final HttpExchange exchange) throws IOException {
+                    remotePorts.add(exchange.getRemoteAddress().getPort());
+                    String path = exchange.getRequestURI().getPath();
+                    if (path.startsWith("/slow")) {
+                        try {
+                            TimeUnit.MILLISECONDS.sleep(500L);
+                        }
+                        catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                    byte[] body = (path + " " + authorization).getBytes(Charsets.UTF_8);
+                    exchange.sendResponseHeaders(path.startsWith("/denied") ? 403 : 200, body.length);
+                    OutputStream outputStream = exchange.getResponseBody();
+                    outputStream.write(body);
+                    outputStream.close();
+                }
+            });
+        server.setExecutor(serverExecutor);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private static String read(final TransportResponse response) throws IOException {
+        InputStream stream = response.getStream();
+        try {
+            return new String(ByteStreams.toByteArray(stream), Charsets.UTF_8);
+        }
+        finally {
+            stream.close();
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidConnectTimeout() {
+        new PooledHttpTransport(-1, 0, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidReadTimeout() {
+        new PooledHttpTransport(0, -1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidMaxConnectionsPerRoute() {
+        new PooledHttpTransport(0, 0, 0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSendNullRequest() {
+        new PooledHttpTransport().send(null);
+    }
+
+    @Test
+    public void testSend() throws IOException {
+        OAuthRequest request = new OAuthRequest(Verb.GET, url + "/user");
+        request.addHeader("Authorization", "Bearer token");
+        TransportResponse response = new PooledHttpTransport().send(request);
+        assertEquals(200, response.getCode());
+        assertEquals("/user Bearer token", read(response));
+    }
+
+    @Test
+    public void testSendError() throws IOException {
+        TransportResponse response = new PooledHttpTransport().send(new OAuthRequest(Verb.GET, url + "/denied"));
+        assertEquals(403, response.getCode());
+        assertEquals("/denied null", read(response));
+    }
+
+    @Test
+    public void testSendReusesConnection() throws IOException {
+        PooledHttpTransport transport = new PooledHttpTransport();
+        for (int i = 0; i < 3; i++) {
+            read(transport.send(new OAuthRequest(Verb.GET, url + "/neanderthal")));
+        }
+        assertEquals(3, remotePorts.size());
+        assertEquals(remotePorts.get(0), remotePorts.get(1));
+        assertEquals(remotePorts.get(0), remotePorts.get(2));
+    }
+
+    @Test(expected=OAuthConnectionException.class)
+    public void testSendReadTimeout() {
+        new PooledHttpTransport(1000, 100, 1).send(new OAuthRequest(Verb.GET, url + "/slow"));
+    }
+
+    @Test(timeout=5000L)
+    public void testSendConnectionFailureReleasesConnection() throws IOException {
+        PooledHttpTransport transport = new PooledHttpTransport(1000, 100, 1);
+        for (int i = 0; i < 2; i++) {
+            try {
+                transport.send(new OAuthRequest(Verb.GET, url + "/slow"));
+            }
+            catch (OAuthConnectionException e) {
+                // expected
+            }
+        }
+        assertEquals(1, transport.permits(new URL(url)).availablePermits());
+    }
+
+    @Test(timeout=5000L)
+    public void testMaxConnectionsPerRoute() throws Exception {
+        final PooledHttpTransport transport = new PooledHttpTransport(1000, 1000, 1);
+        TransportResponse first = transport.send(new OAuthRequest(Verb.GET, url + "/first"));
+        assertEquals(0, transport.permits(new URL(url)).availablePermits());
+
+        final CountDownLatch sent = new CountDownLatch(1);
+        Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        read(transport.send(new OAuthRequest(Verb.GET, url + "/second")));
+                        sent.countDown();
+                    }
+                    catch (IOException e) {
+                        // ignore
+                    }
+                }
+            });
+        thread.start();
+        assertFalse(sent.await(200L, TimeUnit.MILLISECONDS));
+
+        assertEquals("/first null", read(first));
+        assertTrue(sent.await(2000L, TimeUnit.MILLISECONDS));
+        assertEquals(1, transport.permits(new URL(url)).availablePermits());
+    }
+
+    @Test(timeout=5000L)
+    public void testMaxConnectionsPerRouteTimeout() throws Exception {
+        PooledHttpTransport transport = new PooledHttpTransport(100, 1000, 1);
+        TransportResponse first = transport.send(new OAuthRequest(Verb.GET, url + "/first"));
+        try {
+            transport.send(new OAuthRequest(Verb.GET, url + "/second"));
+            fail("expected OAuthConnectionException");
+        }
+        catch (OAuthConnectionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertEquals("timed out waiting for a connection to " + url, e.getCause().getMessage());
+        }
+        assertEquals("/first null", read(first));
+        assertEquals(1, transport.permits(new URL(url)).availablePermits());
+    }
+
+    @Test
+    public void testRoute() throws Exception {
+        assertEquals("https://api.23andme.com:443", PooledHttpTransport.route(new URL("https://api.23andme.com/1/user/")));
+        assertEquals("http://127.0.0.1:8080", PooledHttpTransport.route(new URL("http://127.0.0.1:8080/user")));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for ReleasingInputStream.
+ */
+public final class ReleasingInputStreamTest {
+    private AtomicInteger releases;
+    private ReleasingInputStream inputStream;
+
+    @Before
+    public void setUp() {
+        releases = new AtomicInteger();
+        inputStream = new ReleasingInputStream(new ByteArrayInputStream(new byte[] { 1, 2 })) {
+                @Override
+                void release() {
+                    releases.incrementAndGet();
+                }
+            };
+    }
+
+    @Test
+    public void testReleaseAtEnd() throws IOException {
+        assertEquals(1, inputStream.read());
+        assertEquals(2, inputStream.read());
+        assertEquals(0, releases.get());
+        assertEquals(-1, inputStream.read());
+        assertEquals(1, releases.get());
+    }
+
+    @Test
+    public void testReleaseAtEndBuffer() throws IOException {
+        byte[] buffer = new byte[4];
+        assertEquals(2, inputStream.read(buffer, 0, 4));
+        assertEquals(0, releases.get());
+        assertEquals(-1, inputStream.read(buffer, 0, 4));
+        assertEquals(1, releases.get());
+    }
+
+    @Test
+    public void testReleaseOnClose() throws IOException {
+        inputStream.close();
+        assertEquals(1, releases.get());
+    }
+
+    @Test
+    public void testReleaseOnce() throws IOException {
+        byte[] buffer = new byte[4];
+        inputStream.read(buffer, 0, 4);
+        inputStream.read(buffer, 0, 4);
+        inputStream.read();
+        inputStream.close();
+        inputStream.close();
+        assertEquals(1, releases.get());
+    }
+}
@@ -23,7 +23,13 @@
 */
 package com.github.heuermh.personalgenome.client.scribe;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -31,6 +37,7 @@ import org.junit.Test;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 
 import com.google.inject.name.Names;
 
@@ -38,6 +45,7 @@ import com.google.inject.name.Names;
  * Unit test for ScribeModule.
  */
 public final class ScribeModuleTest {
+    private static final Key<ExecutorService> EXECUTOR_SERVICE = Key.get(ExecutorService.class, Names.named(ScribeModule.EXECUTOR_SERVICE));
     private ScribeModule scribeModule;
 
     @Before
@@ -56,6 +64,34 @@ public final class ScribeModuleTest {
         assertNotNull(injector);
     }
 
+    @Test
+    public void testHttpTransport() {
+        Injector injector = Guice.createInjector(new ClientModule(), scribeModule);
+        assertTrue(injector.getInstance(HttpTransport.class) instanceof ThrottlingHttpTransport);
+        assertSame(injector.getInstance(HttpTransport.class), injector.getInstance(HttpTransport.class));
+    }
+
+    @Test
+    public void testExecutorService() {
+        Injector injector = Guice.createInjector(new ClientModule(), scribeModule);
+        ExecutorService executorService = injector.getInstance(EXECUTOR_SERVICE);
+        assertNotNull(executorService);
+        assertSame(executorService, injector.getInstance(EXECUTOR_SERVICE));
+        assertNull(injector.getExistingBinding(Key.get(ExecutorService.class)));
+        executorService.shutdown();
+    }
+
+    @Test
+    public void testPersonalGenomeClientFactory() {
+        Injector injector = Guice.createInjector(new ClientModule(), scribeModule);
+        ScribePersonalGenomeClientFactory factory = injector.getInstance(ScribePersonalGenomeClientFactory.class);
+        assertNotNull(factory.create("accessToken"));
+        assertSame(factory, injector.getInstance(ScribePersonalGenomeClientFactory.class));
+        factory.close();
+        assertFalse(injector.getInstance(EXECUTOR_SERVICE).isShutdown());
+        injector.getInstance(EXECUTOR_SERVICE).shutdown();
+    }
+
     /**
      * Test module that provides @Named constant values.
      */
@@ -0,0 +1,141 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.ExecutorService;
+
+import com.github.heuermh.personalgenome.client.PersonalGenomeClient;
+import com.github.heuermh.personalgenome.client.PersonalGenomeConverter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.scribe.oauth.OAuthService;
+
+/**
+ * Unit test for ScribePersonalGenomeClientFactory.
+ */
+public final class ScribePersonalGenomeClientFactoryTest {
+    private ScribePersonalGenomeClientFactory factory;
+
+    @Mock
+    private OAuthService service;
+    @Mock
+    private PersonalGenomeConverter converter;
+    @Mock
+    private HttpTransport transport;
+    @Mock
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        factory = new ScribePersonalGenomeClientFactory(service, converter);
+    }
+
+    @Test
+    public void testConstructor() {
+        assertNotNull(factory);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullService() {
+        new ScribePersonalGenomeClientFactory(null, converter);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullConverter() {
+        new ScribePersonalGenomeClientFactory(service, null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullTransport() {
+        new ScribePersonalGenomeClientFactory(service, converter, null, "http://localhost/1/", 1, 1, 1);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullBaseUrl() {
+        new ScribePersonalGenomeClientFactory(service, converter, transport, null, 1, 1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidBaseUrl() {
+        new ScribePersonalGenomeClientFactory(service, converter, transport, "http://localhost/1", 1, 1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidChunkSize() {
+        new ScribePersonalGenomeClientFactory(service, converter, transport, "http://localhost/1/", 0, 1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidParallelism() {
+        new ScribePersonalGenomeClientFactory(service, converter, transport, "http://localhost/1/", 1, 0, 1);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullExecutorService() {
+        new ScribePersonalGenomeClientFactory(service, converter, transport, (ExecutorService) null, "http://localhost/1/", 1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new ScribePersonalGenomeClientFactory(service, converter, transport, "http://localhost/1/", 1, 1, 0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testCreateNullAccessToken() {
+        factory.create(null);
+    }
+
+    @Test
+    public void testCreate() {
+        PersonalGenomeClient client = factory.create("accessToken");
+        assertNotNull(client);
+        assertNotSame(client, factory.create("accessToken"));
+    }
+
+    @Test
+    public void testCloseSharedExecutorService() {
+        ScribePersonalGenomeClientFactory sharedFactory = new ScribePersonalGenomeClientFactory(service, converter, transport, executorService, "http://localhost/1/", 1, 1);
+        assertNotNull(sharedFactory.create("accessToken"));
+        sharedFactory.close();
+        verify(executorService, never()).shutdown();
+    }
+
+    @Test
+    public void testClose() {
+        factory.close();
+        factory.close();
+    }
+}
@@ -30,6 +30,8 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.verify;
 
+import java.util.concurrent.ExecutorService;
+
 import com.github.heuermh.personalgenome.client.AbstractPersonalGenomeClientTest;
 import com.github.heuermh.personalgenome.client.PersonalGenomeClient;
 import com.github.heuermh.personalgenome.client.PersonalGenomeConverter;
@@ -76,4 +78,39 @@ public final class ScribePersonalGenomeClientTest extends AbstractPersonalGenome
         assertTrue(request.getHeaders().containsKey("Authorization"));
         verify(service).signRequest(eq(accessToken), any(OAuthRequest.class));
     }
-}
\ No newline at end of file
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidChunkSize() {
+        new ScribePersonalGenomeClient(accessToken, service, converter, 0, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidParallelism() {
+        new ScribePersonalGenomeClient(accessToken, service, converter, 1, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPageSize() {
+        new ScribePersonalGenomeClient(accessToken, service, converter, 1, 1, 0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullTransport() {
+        new ScribePersonalGenomeClient(accessToken, service, converter, (HttpTransport) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullExecutorService() {
+        new ScribePersonalGenomeClient(accessToken, service, converter, new DefaultHttpTransport(), (ExecutorService) null, "http://localhost/1/", 1, 1);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullBaseUrl() {
+        new ScribePersonalGenomeClient(accessToken, service, converter, null, 1, 1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidBaseUrl() {
+        new ScribePersonalGenomeClient(accessToken, service, converter, "http://localhost/1", 1, 1, 1);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+
+import com.github.heuermh.personalgenome.client.TransportResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Token;
+
+import org.scribe.oauth.OAuthService;
+
+/**
+ * Unit test for ScribePersonalGenomeTransport.
+ */
+public final class ScribePersonalGenomeTransportTest {
+    private Token accessToken;
+    private ScribePersonalGenomeTransport transport;
+
+    @Mock
+    private OAuthService service;
+    @Mock
+    private HttpTransport httpTransport;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        accessToken = new Token("token", "");
+        transport = new ScribePersonalGenomeTransport(accessToken, service, httpTransport, "http://localhost/1/");
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullAccessToken() {
+        new ScribePersonalGenomeTransport(null, service, httpTransport, "http://localhost/1/");
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullService() {
+        new ScribePersonalGenomeTransport(accessToken, null, httpTransport, "http://localhost/1/");
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullHttpTransport() {
+        new ScribePersonalGenomeTransport(accessToken, service, null, "http://localhost/1/");
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullBaseUrl() {
+        new ScribePersonalGenomeTransport(accessToken, service, httpTransport, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidBaseUrl() {
+        new ScribePersonalGenomeTransport(accessToken, service, httpTransport, "http://localhost/1");
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testGetNullPath() {
+        transport.get(null);
+    }
+
+    @Test
+    public void testGet() {
+        TransportResponse response = new TransportResponse(200, new ByteArrayInputStream(new byte[0]));
+        when(httpTransport.send(any(OAuthRequest.class))).thenReturn(response);
+
+        assertSame(response, transport.get("names/c3a110/"));
+
+        ArgumentCaptor<OAuthRequest> request = ArgumentCaptor.forClass(OAuthRequest.class);
+        verify(httpTransport).send(request.capture());
+        assertEquals("http://localhost/1/names/c3a110/", request.getValue().getUrl());
+        assertEquals("Bearer token", request.getValue().getHeaders().get("Authorization"));
+        verify(service).signRequest(eq(accessToken), any(OAuthRequest.class));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.scribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.heuermh.personalgenome.client.TransportResponse;
+
+import com.google.common.io.ByteStreams;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.mockito.invocation.InvocationOnMock;
+
+import org.mockito.stubbing.Answer;
+
+import org.scribe.exceptions.OAuthConnectionException;
+
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Verb;
+
+/**
+ * Unit test for ThrottlingHttpTransport.
+ */
+public final class ThrottlingHttpTransportTest {
+    private ThrottlingHttpTransport transport;
+
+    @Mock
+    private HttpTransport delegate;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        transport = new ThrottlingHttpTransport(delegate, 1000.0d, 1000.0d, 4, 8);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullDelegate() {
+        new ThrottlingHttpTransport(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidGlobalRate() {
+        new ThrottlingHttpTransport(delegate, 0.0d, 1.0d, 1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidPerTokenRate() {
+        new ThrottlingHttpTransport(delegate, 1.0d, 0.0d, 1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidInitialLimit() {
+        new ThrottlingHttpTransport(delegate, 1.0d, 1.0d, 0, 1);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSendNullRequest() {
+        transport.send(null);
+    }
+
+    @Test
+    public void testSend() throws IOException {
+        when(delegate.send(any(OAuthRequest.class))).thenReturn(response(200));
+        TransportResponse response = transport.send(request("token"));
+        assertEquals(200, response.getCode());
+        assertEquals(1, transport.inFlight());
+        assertEquals(3, ByteStreams.toByteArray(response.getStream()).length);
+        assertEquals(0, transport.inFlight());
+        response.getStream().close();
+        assertEquals(0, transport.inFlight());
+    }
+
+    @Test
+    public void testInFlightUntilClosed() throws IOException {
+        when(delegate.send(any(OAuthRequest.class))).thenReturn(response(200));
+        TransportResponse response = transport.send(request("token"));
+        assertEquals(1, transport.inFlight());
+        response.getStream().close();
+        assertEquals(0, transport.inFlight());
+    }
+
+    @Test
+    public void testThrottledDecreasesLimit() throws IOException {
+        when(delegate.send(any(OAuthRequest.class))).thenReturn(response(429)).thenReturn(response(503));
+        transport.send(request("token")).getStream().close();
+        assertEquals(2, transport.limit());
+        transport.send(request("token")).getStream().close();
+        assertEquals(1, transport.limit());
+    }
+
+    @Test
+    public void testServerErrorDecreasesLimit() throws IOException {
+        when(delegate.send(any(OAuthRequest.class))).thenReturn(response(500)).thenReturn(response(504));
+        transport.send(request("token")).getStream().close();
+        assertEquals(2, transport.limit());
+        transport.send(request("token")).getStream().close();
+        assertEquals(1, transport.limit());
+    }
+
+    @Test
+    public void testClientErrorLeavesLimit() throws IOException {
+        when(delegate.send(any(OAuthRequest.class))).thenReturn(response(403));
+        for (int i = 0; i < 10; i++) {
+            transport.send(request("token")).getStream().close();
+        }
+        assertEquals(4, transport.limit());
+    }
+
+    @Test
+    public void testSuccessIncreasesLimit() throws IOException {
+        when(delegate.send(any(OAuthRequest.class))).thenAnswer(new Answer<TransportResponse>() {
+                @Override
+                public TransportResponse answer(final InvocationOnMock invocation) throws Exception {
+                    TimeUnit.MILLISECONDS.sleep(5L);
+                    return response(200);
+                }
+            });
+        for (int i = 0; i < 20; i++) {
+            transport.send(request("token")).getStream().close();
+        }
+        assertTrue(transport.limit() > 4);
+    }
+
+    @Test
+    public void testFailureDecreasesLimit() {
+        when(delegate.send(any(OAuthRequest.class))).thenThrow(new OAuthConnectionException(new IOException()));
+        try {
+            transport.send(request("token"));
+            fail("expected OAuthConnectionException");
+        }
+        catch (OAuthConnectionException e) {
+            // expected
+        }
+        assertEquals(2, transport.limit());
+        assertEquals(0, transport.inFlight());
+    }
+
+    @Test
+    public void testPerTokenRate() throws IOException {
+        transport = new ThrottlingHttpTransport(delegate, 1000.0d, 10.0d, 4, 8);
+        when(delegate.send(any(OAuthRequest.class))).thenReturn(response(200));
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            transport.send(request("token")).getStream().close();
+        }
+        assertTrue(System.nanoTime() - start >= 150L * 1000L * 1000L);
+
+        start = System.nanoTime();
+        transport.send(request("otherToken")).getStream().close();
+        assertTrue(System.nanoTime() - start < 50L * 1000L * 1000L);
+    }
+
+    @Test
+    public void testGlobalRate() throws IOException {
+        transport = new ThrottlingHttpTransport(delegate, 10.0d, 1000.0d, 4, 8);
+        when(delegate.send(any(OAuthRequest.class))).thenReturn(response(200));
+        long start = System.nanoTime();
+        transport.send(request("token")).getStream().close();
+        transport.send(request("otherToken")).getStream().close();
+        transport.send(request("thirdToken")).getStream().close();
+        assertTrue(System.nanoTime() - start >= 150L * 1000L * 1000L);
+    }
+
+    @Test
+    public void testIsOverloaded() {
+        assertTrue(ThrottlingHttpTransport.isOverloaded(429));
+        assertTrue(ThrottlingHttpTransport.isOverloaded(500));
+        assertTrue(ThrottlingHttpTransport.isOverloaded(503));
+        assertFalse(ThrottlingHttpTransport.isOverloaded(200));
+        assertFalse(ThrottlingHttpTransport.isOverloaded(403));
+    }
+
+    @Test
+    public void testRoute() {
+        assertEquals("api.23andme.com/user", ThrottlingHttpTransport.route("https://api.23andme.com/1/user/"));
+        assertEquals("api.23andme.com/genomes", ThrottlingHttpTransport.route("https://api.23andme.com/1/genomes/c3a110/"));
+        assertEquals("localhost:8080/relatives", ThrottlingHttpTransport.route("http://localhost:8080/1/relatives/7ad467ea509080fb/?limit=100&offset=0"));
+        assertEquals("localhost", ThrottlingHttpTransport.route("http://localhost"));
+    }
+
+    private static OAuthRequest request(final String token) {
+        OAuthRequest request = new OAuthRequest(Verb.GET, "http://localhost/1/user/");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static TransportResponse response(final int code) {
+        return new TransportResponse(code, new ByteArrayInputStream(new byte[3]));
+    }
+}
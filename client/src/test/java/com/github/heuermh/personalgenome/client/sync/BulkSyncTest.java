@@ -0,0 +1,311 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.net.InetSocketAddress;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import com.google.common.base.Charsets;
+
+import com.github.heuermh.personalgenome.client.AccessDeniedException;
+import com.github.heuermh.personalgenome.client.PersonalGenomeClient;
+import com.github.heuermh.personalgenome.client.PersonalGenomeClientFactory;
+import com.github.heuermh.personalgenome.client.UserName;
+
+import com.github.heuermh.personalgenome.client.converter.JacksonPersonalGenomeConverter;
+
+import com.github.heuermh.personalgenome.client.scribe.PooledHttpTransport;
+import com.github.heuermh.personalgenome.client.scribe.ScribePersonalGenomeClientFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import org.scribe.oauth.OAuthService;
+
+/**
+ * Unit test for BulkSync, run against a local stub personal genome API server.
+ */
+public final class BulkSyncTest {
+    private File file;
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private StubHandler handler;
+    private PersonalGenomeClientFactory clientFactory;
+    private SyncTask task;
+    private Checkpoint checkpoint;
+
+    @Mock
+    private OAuthService service;
+
+    @Before
+    public void setUp() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        file = File.createTempFile("bulkSyncTest", ".txt");
+        file.deleteOnExit();
+        checkpoint = new FileCheckpoint(file);
+
+        handler = new StubHandler();
+        serverExecutor = Executors.newFixedThreadPool(32);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/1/names/", handler);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/1/";
+        clientFactory = new ScribePersonalGenomeClientFactory(service, new JacksonPersonalGenomeConverter(new JsonFactory()), new PooledHttpTransport(), baseUrl, 100, 1, 100);
+        task = new SyncTask() {
+                @Override
+                public void sync(final PersonalGenomeClient client, final String profileId) {
+                    UserName userName = client.names(profileId);
+                    assertEquals(profileId, userName.getId());
+                }
+            };
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        ((FileCheckpoint) checkpoint).close();
+        file.delete();
+    }
+
+    private static List<SyncItem> items(final int tokens, final int profilesPerToken) {
+        List<SyncItem> items = new ArrayList<SyncItem>();
+        for (int i = 0; i < profilesPerToken; i++) {
+            for (int t = 0; t < tokens; t++) {
+                items.add(new SyncItem("token" + t, "profile" + t + "x" + i));
+            }
+        }
+        return items;
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullClientFactory() {
+        new BulkSync(null, task, checkpoint);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullTask() {
+        new BulkSync(clientFactory, null, checkpoint);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullCheckpoint() {
+        new BulkSync(clientFactory, task, null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidParallelism() {
+        new BulkSync(clientFactory, task, checkpoint, 0, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidConcurrencyPerToken() {
+        new BulkSync(clientFactory, task, checkpoint, 1, 0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testRunNullItems() throws Exception {
+        new BulkSync(clientFactory, task, checkpoint).run((Iterable<SyncItem>) null);
+    }
+
+    @Test
+    public void testRunEmpty() throws Exception {
+        SyncResult result = new BulkSync(clientFactory, task, checkpoint).run(new ArrayList<SyncItem>());
+        assertEquals(0, result.getSynced());
+        assertEquals(0, result.getSkipped());
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        List<SyncItem> items = items(4, 6);
+        SyncResult result = new BulkSync(clientFactory, task, checkpoint, 6, 2).run(items);
+
+        assertEquals(24, result.getSynced());
+        assertEquals(0, result.getSkipped());
+        assertTrue(result.isComplete());
+        assertEquals(24, handler.requests.get());
+        assertTrue(handler.maxConcurrency.get() <= 6);
+        for (int t = 0; t < 4; t++) {
+            assertTrue(handler.maxConcurrencyPerToken.get("token" + t).get() <= 2);
+        }
+        for (SyncItem item : items) {
+            assertTrue(checkpoint.isSynced(item.getProfileId()));
+        }
+    }
+
+    @Test
+    public void testRunSingleToken() throws Exception {
+        SyncResult result = new BulkSync(clientFactory, task, checkpoint, 8, 1).run(items(1, 10));
+
+        assertEquals(10, result.getSynced());
+        assertEquals(1, handler.maxConcurrency.get());
+    }
+
+    @Test
+    public void testRunFailures() throws Exception {
+        List<SyncItem> items = items(2, 3);
+        items.add(new SyncItem("token0", "denied"));
+        SyncResult result = new BulkSync(clientFactory, task, checkpoint, 4, 2).run(items);
+
+        assertEquals(6, result.getSynced());
+        assertEquals(1, result.getFailed());
+        assertFalse(result.isComplete());
+        assertTrue(result.getFailures().get("denied") instanceof AccessDeniedException);
+        assertFalse(checkpoint.isSynced("denied"));
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        List<SyncItem> items = items(3, 4);
+        items.add(new SyncItem("token1", "denied"));
+        new BulkSync(clientFactory, task, checkpoint, 4, 2).run(items.subList(0, 5));
+        ((FileCheckpoint) checkpoint).close();
+        handler.requests.set(0);
+
+        checkpoint = new FileCheckpoint(file);
+        SyncResult result = new BulkSync(clientFactory, task, checkpoint, 4, 2).run(items);
+
+        assertEquals(7, result.getSynced());
+        assertEquals(5, result.getSkipped());
+        assertEquals(1, result.getFailed());
+        assertEquals(8, handler.requests.get());
+    }
+
+    @Test
+    public void testRunTaskException() throws Exception {
+        SyncTask failing = new SyncTask() {
+                @Override
+                public void sync(final PersonalGenomeClient client, final String profileId) throws Exception {
+                    throw new IOException("could not write " + profileId);
+                }
+            };
+        SyncResult result = new BulkSync(clientFactory, failing, checkpoint, 2, 1).run(items(2, 2));
+
+        assertEquals(0, result.getSynced());
+        assertEquals(4, result.getFailed());
+        assertNotNull(result.getFailures().get("profile0x0"));
+    }
+
+
+    /**
+     * Stub names endpoint that tracks concurrent requests overall and per access token.
+     */
+    private static final class StubHandler implements HttpHandler {
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger concurrency = new AtomicInteger();
+        private final AtomicInteger maxConcurrency = new AtomicInteger();
+        private final Map<String, AtomicInteger> concurrencyPerToken = new ConcurrentHashMap<String, AtomicInteger>();
+        private final Map<String, AtomicInteger> maxConcurrencyPerToken = new ConcurrentHashMap<String, AtomicInteger>();
+
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            String token = exchange.getRequestHeaders().getFirst("Authorization").substring("Bearer ".length());
+            String path = exchange.getRequestURI().getPath();
+            String profileId = path.substring("/1/names/".length(), path.length() - 1);
+
+            AtomicInteger tokenConcurrency = counter(concurrencyPerToken, token);
+            max(maxConcurrency, concurrency.incrementAndGet());
+            max(counter(maxConcurrencyPerToken, token), tokenConcurrency.incrementAndGet());
+            try {
+                TimeUnit.MILLISECONDS.sleep(20L);
+                if ("denied".equals(profileId)) {
+                    respond(exchange, 403, "{\"error\": \"access_denied\", \"error_description\": \"denied\"}");
+                }
+                else {
+                    respond(exchange, 200, "{\"id\": \"" + profileId + "\", \"first_name\": \"Gene\", \"last_name\": \"Mendel\", \"profiles\": []}");
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finally {
+                tokenConcurrency.decrementAndGet();
+                concurrency.decrementAndGet();
+                exchange.close();
+            }
+        }
+
+        private static AtomicInteger counter(final Map<String, AtomicInteger> counters, final String token) {
+            synchronized (counters) {
+                AtomicInteger counter = counters.get(token);
+                if (counter == null) {
+                    counter = new AtomicInteger();
+                    counters.put(token, counter);
+                }
+                return counter;
+            }
+        }
+
+        private static void max(final AtomicInteger max, final int value) {
+            int current;
+            while ((current = max.get()) < value) {
+                if (max.compareAndSet(current, value)) {
+                    break;
+                }
+            }
+        }
+
+        private static void respond(final HttpExchange exchange, final int code, final String body) throws IOException {
+            byte[] bytes = body.getBytes(Charsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(code, bytes.length);
+            OutputStream outputStream = exchange.getResponseBody();
+            outputStream.write(bytes);
+            outputStream.close();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.google.common.base.Charsets;
+
+import com.google.common.io.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for FileCheckpoint.
+ */
+public final class FileCheckpointTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("fileCheckpointTest", ".txt");
+        file.deleteOnExit();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullFile() throws IOException {
+        new FileCheckpoint(null);
+    }
+
+    @Test
+    public void testConstructorFileDoesNotExist() throws IOException {
+        file.delete();
+        FileCheckpoint checkpoint = new FileCheckpoint(file);
+        assertFalse(checkpoint.isSynced("profileId"));
+        checkpoint.close();
+        assertTrue(file.exists());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testSyncedNullProfileId() throws IOException {
+        FileCheckpoint checkpoint = new FileCheckpoint(file);
+        try {
+            checkpoint.synced(null);
+        }
+        finally {
+            checkpoint.close();
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testSyncedInvalidProfileId() throws IOException {
+        FileCheckpoint checkpoint = new FileCheckpoint(file);
+        try {
+            checkpoint.synced("profile\nId");
+        }
+        finally {
+            checkpoint.close();
+        }
+    }
+
+    @Test
+    public void testSynced() throws IOException {
+        FileCheckpoint checkpoint = new FileCheckpoint(file);
+        assertFalse(checkpoint.isSynced("profileId"));
+        checkpoint.synced("profileId");
+        checkpoint.synced("profileId");
+        assertTrue(checkpoint.isSynced("profileId"));
+        checkpoint.close();
+        assertEquals("profileId\n", Files.toString(file, Charsets.UTF_8));
+    }
+
+    @Test
+    public void testResume() throws IOException {
+        FileCheckpoint checkpoint = new FileCheckpoint(file);
+        checkpoint.synced("profile1");
+        checkpoint.synced("profile2");
+        checkpoint.close();
+
+        checkpoint = new FileCheckpoint(file);
+        assertTrue(checkpoint.isSynced("profile1"));
+        assertTrue(checkpoint.isSynced("profile2"));
+        assertFalse(checkpoint.isSynced("profile3"));
+        checkpoint.synced("profile3");
+        checkpoint.close();
+        assertEquals("profile1\nprofile2\nprofile3\n", Files.toString(file, Charsets.UTF_8));
+    }
+
+    @Test
+    public void testResumePartialLine() throws IOException {
+        Files.write("profile1\nprof", file, Charsets.UTF_8);
+
+        FileCheckpoint checkpoint = new FileCheckpoint(file);
+        assertTrue(checkpoint.isSynced("profile1"));
+        assertFalse(checkpoint.isSynced("prof"));
+        checkpoint.synced("profile2");
+        checkpoint.close();
+
+        checkpoint = new FileCheckpoint(file);
+        assertTrue(checkpoint.isSynced("profile1"));
+        assertTrue(checkpoint.isSynced("profile2"));
+        assertFalse(checkpoint.isSynced("prof"));
+        checkpoint.close();
+        assertEquals("profile1\nprofile2\n", Files.toString(file, Charsets.UTF_8));
+    }
+}
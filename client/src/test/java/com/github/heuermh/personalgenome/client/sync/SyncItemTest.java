@@ -0,0 +1,57 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/**
+ * Unit test for SyncItem.
+ */
+public final class SyncItemTest {
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullAccessToken() {
+        new SyncItem(null, "profileId");
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullProfileId() {
+        new SyncItem("accessToken", null);
+    }
+
+    @Test
+    public void testConstructor() {
+        SyncItem item = new SyncItem("accessToken", "profileId");
+        assertEquals("accessToken", item.getAccessToken());
+        assertEquals("profileId", item.getProfileId());
+    }
+
+    @Test
+    public void testToStringDoesNotContainAccessToken() {
+        assertFalse(new SyncItem("accessToken", "profileId").toString().contains("accessToken"));
+    }
+}
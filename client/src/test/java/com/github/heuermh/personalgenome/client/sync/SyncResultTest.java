@@ -0,0 +1,80 @@
+/*
+
+    personal-genome-client  Java client for the 23andMe Personal Genome API.
+    Copyright (c) 2012-2013 held jointly by the individual authors.
+
+    This library is free software; you can redistribute it and/or modify it
+    under the terms of the GNU Lesser General Public License as published
+    by the Free Software Foundation; either version 3 of the License, or (at
+    your option) any later version.
+
+    This library is distributed in the hope that it will be useful, but WITHOUT
+    ANY WARRANTY; with out even the implied warranty of MERCHANTABILITY or
+    FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public
+    License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with this library;  if not, write to the Free Software Foundation,
+    Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307  USA.
+
+    > http://www.fsf.org/licensing/licenses/lgpl.html
+    > http://www.opensource.org/licenses/lgpl-license.php
+
+*/
+package com.github.heuermh.personalgenome.client.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit test for SyncResult.
+ */
+public final class SyncResultTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidSynced() {
+        new SyncResult(-1, 0, Collections.<String, Throwable>emptyMap());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testConstructorInvalidSkipped() {
+        new SyncResult(0, -1, Collections.<String, Throwable>emptyMap());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testConstructorNullFailures() {
+        new SyncResult(0, 0, null);
+    }
+
+    @Test
+    public void testComplete() {
+        SyncResult result = new SyncResult(2, 1, Collections.<String, Throwable>emptyMap());
+        assertEquals(2, result.getSynced());
+        assertEquals(1, result.getSkipped());
+        assertEquals(0, result.getFailed());
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    public void testFailures() {
+        Map<String, Throwable> failures = new HashMap<String, Throwable>();
+        failures.put("profileId", new RuntimeException());
+        SyncResult result = new SyncResult(2, 1, failures);
+        failures.clear();
+        assertEquals(1, result.getFailed());
+        assertTrue(result.getFailures().containsKey("profileId"));
+        assertFalse(result.isComplete());
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void testFailuresImmutable() {
+        new SyncResult(0, 0, Collections.<String, Throwable>emptyMap()).getFailures().put("profileId", new RuntimeException());
+    }
+}
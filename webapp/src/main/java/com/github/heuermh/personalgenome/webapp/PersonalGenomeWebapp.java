@@ -26,17 +26,21 @@ package com.github.heuermh.personalgenome.webapp;
 import static spark.Spark.get;
 import static spark.Spark.setPort;
 
+import java.util.concurrent.ExecutorService;
+
 import com.github.heuermh.personalgenome.client.Genotype;
 import com.github.heuermh.personalgenome.client.PersonalGenomeClient;
-import com.github.heuermh.personalgenome.client.PersonalGenomeConverter;
 import com.github.heuermh.personalgenome.client.Profile;
 import com.github.heuermh.personalgenome.client.User;
 
 import com.github.heuermh.personalgenome.client.scribe.ScribeModule;
-import com.github.heuermh.personalgenome.client.scribe.ScribePersonalGenomeClient;
+import com.github.heuermh.personalgenome.client.scribe.ScribePersonalGenomeClientFactory;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Key;
+
+import com.google.inject.name.Names;
 
 import org.nnsoft.guice.rocoto.configuration.ConfigurationModule;
 
@@ -70,7 +74,16 @@ public final class PersonalGenomeWebapp {
 
         final Injector injector = Guice.createInjector(new ParameterModule(), new ScribeModule());
         final OAuthService service = injector.getInstance(OAuthService.class);
-        final PersonalGenomeConverter converter = injector.getInstance(PersonalGenomeConverter.class);
+        final ScribePersonalGenomeClientFactory clientFactory = injector.getInstance(ScribePersonalGenomeClientFactory.class);
+        final ExecutorService executorService = injector.getInstance(Key.get(ExecutorService.class, Names.named(ScribeModule.EXECUTOR_SERVICE)));
+
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+                @Override
+                public void run() {
+                    logger.info("shutting down executor service");
+                    executorService.shutdown();
+                }
+            });
 
         get(new Route("/") {
                 @Override
@@ -96,7 +109,7 @@ public final class PersonalGenomeWebapp {
                     Token accessToken = service.getAccessToken(EMPTY_TOKEN, verifier);
                     logger.info("received access token " + accessToken);
 
-                    PersonalGenomeClient client = new ScribePersonalGenomeClient(accessToken, service, converter);
+                    PersonalGenomeClient client = clientFactory.create(accessToken.getToken());
 
                     User user = client.user();
                     logger.info("retrieved user id " + user.getId());